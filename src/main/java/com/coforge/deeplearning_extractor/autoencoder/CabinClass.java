@@ -0,0 +1,38 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+/**
+ * Cabin classes a row may carry: the single-letter fare codes A to F and the
+ * spelled-out classes.
+ */
+public enum CabinClass {
+    A, B, C, D, E, F, ECONOMY, BUSINESS, FIRST;
+
+    /**
+     * The class for a raw value, ignoring case and surrounding whitespace, or
+     * {@code null} when it is not a known class. Allocates nothing.
+     */
+    public static CabinClass parse(String value) {
+        if (value == null) return null;
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') start++;
+        while (end > start && value.charAt(end - 1) <= ' ') end--;
+
+        int length = end - start;
+        if (length == 1) {
+            char c = value.charAt(start);
+            if (c >= 'a' && c <= 'f') return LETTERS[c - 'a'];
+            if (c >= 'A' && c <= 'F') return LETTERS[c - 'A'];
+            return null;
+        }
+        for (CabinClass cabin : SPELLED_OUT) {
+            if (length == cabin.name().length() && value.regionMatches(true, start, cabin.name(), 0, length)) {
+                return cabin;
+            }
+        }
+        return null;
+    }
+
+    private static final CabinClass[] LETTERS = {A, B, C, D, E, F};
+    private static final CabinClass[] SPELLED_OUT = {ECONOMY, BUSINESS, FIRST};
+}
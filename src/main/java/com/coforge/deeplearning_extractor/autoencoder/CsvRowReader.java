@@ -0,0 +1,114 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads a {@code name,date,iata,seatNumber,cabinClass} CSV one line at a time,
+ * so a file of any size can be fed through without holding it in memory. The
+ * header line is skipped, and lines with fewer than five columns are counted
+ * and passed over rather than failing the whole file.
+ */
+public class CsvRowReader implements Iterator<DataRow>, Closeable {
+
+    private final BufferedReader reader;
+    private DataRow nextRow;
+    private long lineNumber;
+    private long rowsRead;
+    private long skippedLines;
+
+    public CsvRowReader(Reader in) throws IOException {
+        this.reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        // Skip header line
+        if (reader.readLine() != null) {
+            lineNumber++;
+            advance();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextRow != null;
+    }
+
+    @Override
+    public DataRow next() {
+        if (nextRow == null) {
+            throw new NoSuchElementException();
+        }
+        DataRow row = nextRow;
+        rowsRead++;
+        try {
+            advance();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read line " + (lineNumber + 1) + ": " + e.getMessage(), e);
+        }
+        return row;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Lines passed over because they had fewer than five columns.
+     */
+    public long getSkippedLines() {
+        return skippedLines;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void advance() throws IOException {
+        nextRow = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String[] values = parseCsvLine(line);
+            if (values.length >= 5) {
+                nextRow = new DataRow(values[0].trim(), values[1].trim(), values[2].trim(),
+                    values[3].trim(), values[4].trim());
+                return;
+            }
+            skippedLines++;
+        }
+    }
+
+    /**
+     * Simple CSV parser that handles comma-separated values
+     * For more complex CSV parsing, consider using a library like OpenCSV
+     */
+    static String[] parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        boolean inQuotes = false;
+        StringBuilder currentValue = new StringBuilder();
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (c == '"' && (i == 0 || line.charAt(i - 1) != '\\')) {
+                inQuotes = !inQuotes;
+            } else if (c == ',' && !inQuotes) {
+                values.add(currentValue.toString());
+                currentValue.setLength(0);
+            } else {
+                currentValue.append(c);
+            }
+        }
+
+        // Add the last value
+        values.add(currentValue.toString());
+
+        return values.toArray(new String[0]);
+    }
+}
@@ -1,42 +1,68 @@
 package com.coforge.deeplearning_extractor.autoencoder;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
 
-import org.bson.Document;
-import org.bson.types.Binary;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
 import org.deeplearning4j.nn.conf.layers.AutoEncoder;
+import org.deeplearning4j.nn.conf.layers.FeedForwardLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.conf.inputs.InputType;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
-import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.learning.config.Adam;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.ReplaceOptions;
 
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
 
-public class DL4JAutoencoderModel {
-    private MultiLayerNetwork model;
-    private double threshold;
+public class DL4JAutoencoderModel implements ReconstructionScorer {
+    private final ModelState state;
 
-    public DL4JAutoencoderModel(int inputSize, int encodingSize, double threshold) {
-        this.threshold = threshold;
+    private DL4JAutoencoderModel(double threshold) {
+        this.state = new ModelState(null, DenseNetwork.ErrorMetric.EUCLIDEAN, threshold);
+    }
 
+    /**
+     * Restores a network written by {@link #saveModel} without building and
+     * initialising a fresh one first. A calibrated threshold saved with it
+     * takes precedence over {@code threshold}.
+     */
+    public static DL4JAutoencoderModel restore(InputStream in, double threshold) throws IOException {
+        return restore(in.readAllBytes(), threshold);
+    }
+
+    /**
+     * Same as {@link #restore(InputStream, double)} for an archive already in memory.
+     */
+    public static DL4JAutoencoderModel restore(byte[] archive, double threshold) throws IOException {
+        DL4JAutoencoderModel restored = new DL4JAutoencoderModel(threshold);
+        restored.state.readArchive(archive);
+        return restored;
+    }
+
+    /**
+     * Same as {@link #restore(byte[], double)} for a model written by
+     * {@link #saveModelToMongo}.
+     */
+    public static DL4JAutoencoderModel restoreFromMongo(MongoClient mongoClient, String dbName, String collectionName,
+                                                        String modelId, double threshold) throws IOException {
+        DL4JAutoencoderModel restored = new DL4JAutoencoderModel(threshold);
+        restored.state.loadFromMongo(mongoClient, dbName, collectionName, modelId);
+        return restored;
+    }
+
+    public DL4JAutoencoderModel(int inputSize, int encodingSize, double threshold) {
         MultiLayerConfiguration conf = new NeuralNetConfiguration.Builder()
                 .seed(123)
                 .optimizationAlgo(OptimizationAlgorithm.STOCHASTIC_GRADIENT_DESCENT)
@@ -58,66 +84,123 @@ public class DL4JAutoencoderModel {
                 .setInputType(InputType.feedForward(inputSize))
                 .build();
 
-        model = new MultiLayerNetwork(conf);
+        MultiLayerNetwork model = new MultiLayerNetwork(conf);
         model.init();
         model.setListeners(new ScoreIterationListener(10));
+        this.state = new ModelState(model, DenseNetwork.ErrorMetric.EUCLIDEAN, threshold);
     }
 
     public void train(double[][] inputs, int epochs) {
-        INDArray input = Nd4j.create(inputs);
+        INDArray input = state.input(inputs);
         for (int i = 0; i < epochs; i++) {
-            model.fit(input, input);
+            state.network().fit(input, input);
         }
     }
 
+    /**
+     * Trains on a stream of rows in shuffled mini-batches with early stopping;
+     * see {@link TrainingPipeline}.
+     */
+    public TrainingReport train(Iterator<DataRow> rows, TrainingPipeline pipeline) {
+        return state.train(rows, pipeline);
+    }
+
+    /**
+     * Sets the threshold from the errors of {@code validation}, rows known to
+     * be normal, so that about {@code targetFalsePositiveRate} of them would be
+     * flagged. The calibration is saved with the model.
+     */
+    public ThresholdCalibration calibrate(Iterator<double[]> validation, double targetFalsePositiveRate) {
+        return state.calibrate(this, validation, targetFalsePositiveRate);
+    }
+
+    public double getThreshold() {
+        return state.threshold();
+    }
+
+    /**
+     * How the threshold was fitted, or {@code null} if it was given by hand.
+     */
+    public ThresholdCalibration getCalibration() {
+        return state.calibration();
+    }
+
+    /**
+     * The transform applied to features before they reach the network, or
+     * {@code null} if it was trained on raw values.
+     */
+    public FeatureNormalizer getNormalizer() {
+        return state.normalizer();
+    }
+
     public double reconstructionError(double[] features) {
-        INDArray input = Nd4j.create(new double[][]{features});
-        INDArray output = model.output(input, false);
+        INDArray input = state.input(new double[][]{features});
+        INDArray output = state.network().output(input, false);
         return input.distance2(output);
     }
 
+    /**
+     * Euclidean reconstruction error per row, the same value
+     * {@link #reconstructionError(double[])} gives, from one forward pass.
+     */
+    @Override
+    public double[] reconstructionErrors(double[][] features) {
+        if (features.length == 0) return new double[0];
+        INDArray input = state.input(features);
+        INDArray output = state.network().output(input, false);
+        INDArray distances = input.subi(output).norm2(1);
+        double[] errors = new double[features.length];
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = distances.getDouble(i);
+        }
+        return errors;
+    }
+
+    /**
+     * A copy of the current weights as a {@link DenseNetwork}, which scores the
+     * same errors without ND4J.
+     */
+    public DenseNetwork toDenseNetwork() {
+        return state.toDenseNetwork();
+    }
+
+    /**
+     * Number of features the network expects per row.
+     */
+    public int getInputSize() {
+        return ((FeedForwardLayer) state.network().getLayerWiseConfigurations().getConf(0).getLayer()).getNIn();
+    }
+
     public boolean isAnomaly(double[] features) {
-        return reconstructionError(features) > threshold;
+        return reconstructionError(features) > state.threshold();
     }
     
+    /**
+     * The bytes {@link #saveModel} would write: network, normalizer and calibration.
+     */
+    public byte[] toArchive() throws IOException {
+        return state.toArchive();
+    }
+
     public void saveModel(String path) throws IOException {
-        ModelSerializer.writeModel(model, new File(path), true);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(path))) {
+            state.writeArchive(out);
+        }
     }
 
     public void loadModel(String path) throws IOException {
-        this.model = ModelSerializer.restoreMultiLayerNetwork(new File(path));
+        state.readArchive(Files.readAllBytes(Path.of(path)));
     }
     
-    public void saveModelToMongo(String mongoUri, String dbName, String collectionName, String modelId) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ModelSerializer.writeModel(model, baos, true);
-        byte[] modelBytes = baos.toByteArray();
-        baos.close();
-
-        try (MongoClient mongoClient = MongoClients.create(mongoUri)) {
-            MongoDatabase database = mongoClient.getDatabase(dbName);
-            MongoCollection<Document> collection = database.getCollection(collectionName);
-
-            Document doc = new Document("_id", modelId)
-                    .append("model", new Binary(modelBytes));
-            collection.replaceOne(new Document("_id", modelId), doc, new ReplaceOptions().upsert(true));
-        }
-    
+    /**
+     * Writes the archive with {@code mongoClient}, normally the application's
+     * shared, pooled client; no client is opened per call.
+     */
+    public void saveModelToMongo(MongoClient mongoClient, String dbName, String collectionName, String modelId) throws IOException {
+        state.saveToMongo(mongoClient, dbName, collectionName, modelId);
     }
-    
- // Load the model from MongoDB
-    public void loadModelFromMongo(String mongoUri, String dbName, String collectionName, String modelId) throws IOException {
-        try (MongoClient mongoClient = MongoClients.create(mongoUri)) {
-            MongoDatabase database = mongoClient.getDatabase(dbName);
-            MongoCollection<Document> collection = database.getCollection(collectionName);
-
-            Document doc = collection.find(new Document("_id", modelId)).first();
-            if (doc == null) throw new FileNotFoundException("Model not found in MongoDB with id: " + modelId);
-
-            byte[] modelBytes = doc.get("model", Binary.class).getData();
-            ByteArrayInputStream bais = new ByteArrayInputStream(modelBytes);
-            this.model = ModelSerializer.restoreMultiLayerNetwork(bais);
-            bais.close();
-        }
+
+    public void loadModelFromMongo(MongoClient mongoClient, String dbName, String collectionName, String modelId) throws IOException {
+        state.loadFromMongo(mongoClient, dbName, collectionName, modelId);
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,11 @@
 package com.coforge.deeplearning_extractor.autoencoder;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import com.coforge.deeplearning_extractor.dates.BirthDate;
 
 public class DateExtractor {
 	
 	public static boolean isInvalidDate(String dateStr) {
-        try {
-            LocalDate date = LocalDate.parse(dateStr);
-            return date.isAfter(LocalDate.now());
-        } catch (DateTimeParseException e) {
-            return true;
-        }
+        return BirthDate.of(dateStr).isInvalid();
     }
 		
 	public static boolean dateHasSymbols(DataRow row) {
@@ -33,14 +27,12 @@ public class DateExtractor {
 		
 		if (dateHasSymbols(row)) {return "Date contains special symbols";}
 		
-		LocalDate birthDate;
-        try {
-            birthDate = LocalDate.parse(row.getDate());
-        } catch (DateTimeParseException e) {
+		BirthDate birthDate = BirthDate.of(row.getDate());
+        if (!birthDate.isParsed()) {
             return "BirthDate is not a valid date format";
         }
         
-        if (birthDate.isAfter(LocalDate.now())) {
+        if (birthDate.isInFuture()) {
             return "Future date";
         }
         
@@ -0,0 +1,222 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import org.deeplearning4j.nn.api.Layer;
+import org.deeplearning4j.nn.conf.layers.BaseLayer;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.activations.IActivation;
+import org.nd4j.linalg.activations.impl.ActivationIdentity;
+import org.nd4j.linalg.activations.impl.ActivationReLU;
+import org.nd4j.linalg.activations.impl.ActivationSigmoid;
+import org.nd4j.linalg.activations.impl.ActivationTanH;
+import org.nd4j.linalg.api.ndarray.INDArray;
+
+/**
+ * A stack of dense layers held in plain arrays, for scoring rows without going
+ * through ND4J. Our autoencoders have a dozen inputs and a few hidden units, so
+ * a forward pass is a few hundred multiply-adds; doing them directly is much
+ * cheaper than creating INDArrays and crossing into native code for every row.
+ * <p>
+ * Weights are immutable after construction and every thread gets its own
+ * activation buffers, so one instance can score from any number of threads
+ * and a warmed-up thread allocates nothing per row. With a
+ * {@link FeatureNormalizer} rows are normalized into one of those buffers
+ * first, and errors are measured in the normalized space the network was
+ * trained in.
+ */
+public final class DenseNetwork implements ReconstructionScorer {
+
+    public enum Activation {
+        IDENTITY, RELU, TANH, SIGMOID;
+
+        double apply(double x) {
+            switch (this) {
+                case RELU: return x > 0 ? x : 0;
+                case TANH: return Math.tanh(x);
+                case SIGMOID: return 1.0 / (1.0 + Math.exp(-x));
+                default: return x;
+            }
+        }
+    }
+
+    /**
+     * How the distance between a row and its reconstruction is measured.
+     */
+    public enum ErrorMetric {
+        /** L2 distance, what DL4JAutoencoderModel reports. */
+        EUCLIDEAN,
+        /** Mean of the squared differences, what VariationalAutoencoder reports. */
+        MEAN_SQUARED
+    }
+
+    private final int inputSize;
+    // weights[layer][out * nIn + in], so each output walks its inputs contiguously
+    private final double[][] weights;
+    private final double[][] biases;
+    private final Activation[] activations;
+    private final ErrorMetric metric;
+    private final FeatureNormalizer normalizer;
+    // One buffer per layer output, then one for the normalized input
+    private final ThreadLocal<double[][]> buffers;
+
+    public DenseNetwork(int inputSize, double[][] weights, double[][] biases, Activation[] activations, ErrorMetric metric) {
+        this(inputSize, weights, biases, activations, metric, null);
+    }
+
+    private DenseNetwork(int inputSize, double[][] weights, double[][] biases, Activation[] activations,
+                         ErrorMetric metric, FeatureNormalizer normalizer) {
+        if (weights.length == 0 || weights.length != biases.length || weights.length != activations.length) {
+            throw new IllegalArgumentException("Need the same number of weight matrices, biases and activations");
+        }
+        int nIn = inputSize;
+        for (int layer = 0; layer < weights.length; layer++) {
+            int nOut = biases[layer].length;
+            if (weights[layer].length != nIn * nOut) {
+                throw new IllegalArgumentException("Layer " + layer + " has " + weights[layer].length
+                    + " weights, expected " + nIn + " x " + nOut);
+            }
+            nIn = nOut;
+        }
+        if (nIn != inputSize) {
+            throw new IllegalArgumentException("Output size " + nIn + " does not match input size " + inputSize);
+        }
+        this.inputSize = inputSize;
+        this.weights = weights;
+        this.biases = biases;
+        this.activations = activations;
+        this.metric = metric;
+        if (normalizer != null && normalizer.size() != inputSize) {
+            throw new IllegalArgumentException("Normalizer has " + normalizer.size() + " columns, network takes " + inputSize);
+        }
+        this.normalizer = normalizer;
+        this.buffers = ThreadLocal.withInitial(() -> {
+            double[][] layerOutputs = new double[biases.length + 1][];
+            for (int layer = 0; layer < biases.length; layer++) {
+                layerOutputs[layer] = new double[biases[layer].length];
+            }
+            layerOutputs[biases.length] = new double[inputSize];
+            return layerOutputs;
+        });
+    }
+
+    /**
+     * The same weights, scoring rows after {@code normalizer} has been applied to them.
+     */
+    public DenseNetwork withNormalizer(FeatureNormalizer normalizer) {
+        return new DenseNetwork(inputSize, weights, biases, activations, metric, normalizer);
+    }
+
+    /**
+     * Copies the weights of a trained network. Every layer must be a dense
+     * (feed-forward) layer with a RELU, TANH, SIGMOID or IDENTITY activation;
+     * dropout only applies during training and is left out.
+     */
+    public static DenseNetwork fromMultiLayerNetwork(MultiLayerNetwork network, ErrorMetric metric) {
+        int layerCount = network.getnLayers();
+        double[][] weights = new double[layerCount][];
+        double[][] biases = new double[layerCount][];
+        Activation[] activations = new Activation[layerCount];
+        int inputSize = -1;
+
+        for (int layer = 0; layer < layerCount; layer++) {
+            Layer trained = network.getLayer(layer);
+            INDArray w = trained.getParam("W");
+            INDArray b = trained.getParam("b");
+            if (w == null || b == null) {
+                throw new IllegalArgumentException("Layer " + layer + " is not a dense layer");
+            }
+            int nIn = w.rows();
+            int nOut = w.columns();
+            if (layer == 0) inputSize = nIn;
+
+            weights[layer] = new double[nIn * nOut];
+            biases[layer] = new double[nOut];
+            for (int o = 0; o < nOut; o++) {
+                biases[layer][o] = b.getDouble(o);
+                for (int i = 0; i < nIn; i++) {
+                    weights[layer][o * nIn + i] = w.getDouble(i, o);
+                }
+            }
+            activations[layer] = activationOf(network, layer);
+        }
+        return new DenseNetwork(inputSize, weights, biases, activations, metric);
+    }
+
+    public int getInputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Reconstruction of {@code features}, written into {@code out}; normalized
+     * when the network has a normalizer.
+     */
+    public double[] output(double[] features, double[] out) {
+        double[][] layerOutputs = buffers.get();
+        double[] last = forward(input(features, layerOutputs), layerOutputs);
+        System.arraycopy(last, 0, out, 0, inputSize);
+        return out;
+    }
+
+    public double reconstructionError(double[] features) {
+        double[][] layerOutputs = buffers.get();
+        double[] in = input(features, layerOutputs);
+        double[] reconstructed = forward(in, layerOutputs);
+        double sum = 0;
+        for (int i = 0; i < inputSize; i++) {
+            double diff = in[i] - reconstructed[i];
+            sum += diff * diff;
+        }
+        return metric == ErrorMetric.EUCLIDEAN ? Math.sqrt(sum) : sum / inputSize;
+    }
+
+    @Override
+    public double[] reconstructionErrors(double[][] features) {
+        double[] errors = new double[features.length];
+        for (int row = 0; row < features.length; row++) {
+            errors[row] = reconstructionError(features[row]);
+        }
+        return errors;
+    }
+
+    // The row as the first layer sees it, normalized into the spare buffer if needed
+    private double[] input(double[] features, double[][] layerOutputs) {
+        if (features.length != inputSize) {
+            throw new IllegalArgumentException("Expected " + inputSize + " features, got " + features.length);
+        }
+        return normalizer == null ? features : normalizer.normalize(features, layerOutputs[weights.length]);
+    }
+
+    // Runs every layer into this thread's buffers and returns the last one
+    private double[] forward(double[] features, double[][] layerOutputs) {
+        double[] in = features;
+        for (int layer = 0; layer < weights.length; layer++) {
+            double[] w = weights[layer];
+            double[] b = biases[layer];
+            double[] out = layerOutputs[layer];
+            Activation activation = activations[layer];
+            int nIn = in.length;
+            for (int o = 0; o < out.length; o++) {
+                double sum = b[o];
+                int offset = o * nIn;
+                for (int i = 0; i < nIn; i++) {
+                    sum += w[offset + i] * in[i];
+                }
+                out[o] = activation.apply(sum);
+            }
+            in = out;
+        }
+        return in;
+    }
+
+    private static Activation activationOf(MultiLayerNetwork network, int layer) {
+        org.deeplearning4j.nn.conf.layers.Layer conf = network.getLayerWiseConfigurations().getConf(layer).getLayer();
+        if (!(conf instanceof BaseLayer)) {
+            throw new IllegalArgumentException("Layer " + layer + " is not a dense layer");
+        }
+        IActivation fn = ((BaseLayer) conf).getActivationFn();
+        if (fn instanceof ActivationReLU) return Activation.RELU;
+        if (fn instanceof ActivationTanH) return Activation.TANH;
+        if (fn instanceof ActivationSigmoid) return Activation.SIGMOID;
+        if (fn instanceof ActivationIdentity) return Activation.IDENTITY;
+        throw new IllegalArgumentException("Layer " + layer + " uses unsupported activation " + fn);
+    }
+}
@@ -0,0 +1,141 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+import org.nd4j.linalg.dataset.api.DataSetPreProcessor;
+import org.nd4j.linalg.dataset.api.iterator.DataSetIterator;
+import org.nd4j.linalg.factory.Nd4j;
+
+/**
+ * Mini-batches over feature rows packed into one float array, for training an
+ * autoencoder: each batch uses the same matrix as features and labels. The
+ * iterator covers the subset of rows named by {@code rows}, so a training and a
+ * validation iterator can share one array. With a {@link Random} the order is
+ * reshuffled on every {@link #reset()}, otherwise rows come out as given.
+ */
+public class FeatureDataSetIterator implements DataSetIterator {
+
+    private final float[] data;
+    private final int columns;
+    private final int[] rows;
+    private final int batchSize;
+    private final Random shuffle;
+    private DataSetPreProcessor preProcessor;
+    private int cursor;
+
+    public FeatureDataSetIterator(float[] data, int columns, int[] rows, int batchSize, Random shuffle) {
+        if (columns <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("Columns and batch size must be positive");
+        }
+        this.data = data;
+        this.columns = columns;
+        this.rows = rows.clone();
+        this.batchSize = batchSize;
+        this.shuffle = shuffle;
+        reset();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return cursor < rows.length;
+    }
+
+    @Override
+    public DataSet next() {
+        return next(batchSize);
+    }
+
+    @Override
+    public DataSet next(int num) {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int count = Math.min(num, rows.length - cursor);
+        float[] batch = new float[count * columns];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(data, rows[cursor + i] * columns, batch, i * columns, columns);
+        }
+        cursor += count;
+
+        INDArray features = Nd4j.create(batch, new int[] {count, columns});
+        DataSet dataSet = new DataSet(features, features);
+        if (preProcessor != null) {
+            preProcessor.preProcess(dataSet);
+        }
+        return dataSet;
+    }
+
+    @Override
+    public void reset() {
+        cursor = 0;
+        if (shuffle != null) {
+            for (int i = rows.length - 1; i > 0; i--) {
+                int j = shuffle.nextInt(i + 1);
+                int swap = rows[i];
+                rows[i] = rows[j];
+                rows[j] = swap;
+            }
+        }
+    }
+
+    @Override
+    public int totalExamples() {
+        return rows.length;
+    }
+
+    @Override
+    public int numExamples() {
+        return rows.length;
+    }
+
+    @Override
+    public int inputColumns() {
+        return columns;
+    }
+
+    @Override
+    public int totalOutcomes() {
+        return columns;
+    }
+
+    @Override
+    public boolean resetSupported() {
+        return true;
+    }
+
+    // Batches are cheap array copies; prefetching them on another thread would
+    // only race with the reshuffle in reset()
+    @Override
+    public boolean asyncSupported() {
+        return false;
+    }
+
+    @Override
+    public int batch() {
+        return batchSize;
+    }
+
+    @Override
+    public int cursor() {
+        return cursor;
+    }
+
+    @Override
+    public void setPreProcessor(DataSetPreProcessor preProcessor) {
+        this.preProcessor = preProcessor;
+    }
+
+    @Override
+    public DataSetPreProcessor getPreProcessor() {
+        return preProcessor;
+    }
+
+    @Override
+    public List<String> getLabels() {
+        return null;
+    }
+}
@@ -1,27 +1,33 @@
 package com.coforge.deeplearning_extractor.autoencoder;
 
-import java.time.LocalDate;
-import java.time.Period;
-import java.time.format.DateTimeParseException;
+import com.coforge.deeplearning_extractor.dates.BirthDate;
+import com.coforge.deeplearning_extractor.rules.TextScanners;
 
 public class FeatureExtractor {
 	
-	private static final IataCodeExtractor iataExtractor = new IataCodeExtractor("src/main/resources/countries.csv", 1);
+	// Length of the vector getFeatures returns
+	public static final int FEATURE_COUNT = 13;
 	
 	public static double[] getFeatures(DataRow row) {
+		return getFeatures(PreparedRow.of(row));
+	}
+	
+	public static double[] getFeatures(PreparedRow prepared) {
+    DataRow row = prepared.getRow();
+    int age = prepared.getAge();
     double nameLen = row.getName().length();
     double specialSymbolCount = countSpecialSymbols(row.getName());
     double hasCapInBetween = hasCapInBetween(row) ? 1.0 : 0.0;
     double hasRepeatedLetters = hasRepeatedLetters(row) ? 1.0 : 0.0;
-    double hasRepeatedWords = hasRepeatedWords(row) ? 1.0 : 0.0;
-    double age = calculateAge(row);
-    double ageTooYoung = ageTooYoung(row) ? 1.0 : 0.0;
-    double ageTooOld = ageTooOld(row) ? 1.0 : 0.0;
-    double isFuture = DateExtractor.isInvalidDate(row.getDate()) ? 1.0 : 0.0;
+    double hasRepeatedWords = prepared.hasRepeatedNameToken() ? 1.0 : 0.0;
+    double ageTooYoung = age <= 1 ? 1.0 : 0.0;
+    double ageTooOld = age > 110 ? 1.0 : 0.0;
+    double isFuture = prepared.getBirthDate().isInvalid() ? 1.0 : 0.0;
     double seatLen = row.getSeatNumber().length();
-    double seatAlphaNum = row.getSeatNumber().matches(".*[a-zA-Z].*") && row.getSeatNumber().matches(".*\\d.*") ? 1.0 : 0.0;
+    double seatAlphaNum = prepared.hasSeatRowAndLetter()
+        || (TextScanners.containsAsciiLetter(row.getSeatNumber()) && TextScanners.containsAsciiDigit(row.getSeatNumber())) ? 1.0 : 0.0;
     double cabinClassValid = !row.getCabinClass().isEmpty() && row.getCabinClass().length() == 1 && Character.isLetter(row.getCabinClass().charAt(0)) ? 1.0 : 0.0;
-	double iataValid = iataExtractor.validIataCode(row) ? 1.0 : 0.0;
+	double iataValid = prepared.getCountry() != null ? 1.0 : 0.0;
 
     return new double[] {
         nameLen, specialSymbolCount, hasCapInBetween, hasRepeatedLetters, hasRepeatedWords,
@@ -67,48 +73,22 @@ public class FeatureExtractor {
 		
 		if (name == null || name.isEmpty()) {return false;}
 		
-		return name.matches("^.*(.)\\1{2,}.*$");
+		return TextScanners.hasRepeatedRun(name, 3);
 		
 	}
 
+	// Compares the whitespace-separated words of the trimmed name, the same split PreparedRow keeps
 	public static boolean hasRepeatedWords(DataRow row) {
-		// TODO Auto-generated method stub
 		String name = row.getName();
 		
 		if (name == null || name.isEmpty()) {return false;}	
 		
-		String splitWords[] = name.split(" ");
-		
-		if (splitWords.length == 1) return false;
-		
-		for (int i = 0; i < splitWords.length; i++) {
-			String word = splitWords[i];
-			for (int j = i + 1; j < splitWords.length; j++) {
-				if (word.equals(splitWords[j])) {
-					return true;
-				}
-			}
-		}
-		
-		return false;
+		return PreparedRow.hasRepeatedToken(PreparedRow.tokenize(name.trim()));
 	}
 	
+	// -1 for a malformed or future date; parses the raw string again, getFeatures reads the age from PreparedRow
 	public static int calculateAge(DataRow row) {
-		try {
-			LocalDate birthDate = LocalDate.parse(row.getDate());
-			LocalDate now = LocalDate.now();
-			
-			if (birthDate.isAfter(now)) {
-				return -1;
-			}
-			
-			return Period.between(birthDate, now).getYears();
-			
-		}catch(DateTimeParseException e) {
-			e.printStackTrace();
-			return -1;
-		}
-		
+		return BirthDate.of(row.getDate()).getAge();
 	}
 
 	public static boolean ageTooOld(DataRow row) {
@@ -0,0 +1,188 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Rescales feature vectors column by column as {@code (x - offset) * scale}.
+ * Raw features range from 0/1 flags to ages near 110, so without this the
+ * reconstruction error mostly measures the large columns, and a SIGMOID output
+ * layer cannot reproduce them at all. The offsets and scales are fitted on the
+ * training rows and saved with the model, so scoring applies exactly the
+ * transform the network was trained on.
+ */
+public final class FeatureNormalizer {
+
+    public enum Method {
+        /** Maps each column's training range onto [0, 1]. */
+        MIN_MAX,
+        /** Centres each column on its training mean, in units of its standard deviation. */
+        Z_SCORE
+    }
+
+    private static final String METHOD = "normalizer.method";
+    private static final String OFFSET = "normalizer.offset";
+    private static final String SCALE = "normalizer.scale";
+
+    private final Method method;
+    private final double[] offset;
+    private final double[] scale;
+
+    public FeatureNormalizer(Method method, double[] offset, double[] scale) {
+        if (offset.length != scale.length) {
+            throw new IllegalArgumentException("Offset has " + offset.length + " columns, scale has " + scale.length);
+        }
+        this.method = method;
+        this.offset = offset.clone();
+        this.scale = scale.clone();
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public int size() {
+        return offset.length;
+    }
+
+    /**
+     * Normalizes {@code features} in place and returns it.
+     */
+    public double[] normalizeInPlace(double[] features) {
+        checkSize(features.length);
+        for (int i = 0; i < offset.length; i++) {
+            features[i] = (features[i] - offset[i]) * scale[i];
+        }
+        return features;
+    }
+
+    /**
+     * Normalizes {@code features} into {@code out}, leaving the input untouched.
+     */
+    public double[] normalize(double[] features, double[] out) {
+        checkSize(features.length);
+        for (int i = 0; i < offset.length; i++) {
+            out[i] = (features[i] - offset[i]) * scale[i];
+        }
+        return out;
+    }
+
+    /**
+     * Normalizes the row starting at {@code start} of a packed float array in place.
+     */
+    public void normalizeInPlace(float[] data, int start) {
+        for (int i = 0; i < offset.length; i++) {
+            data[start + i] = (float) ((data[start + i] - offset[i]) * scale[i]);
+        }
+    }
+
+    double[] offsets() {
+        return offset;
+    }
+
+    double[] scales() {
+        return scale;
+    }
+
+    /**
+     * Writes this normalizer into the metadata stored with a model.
+     */
+    public void store(Properties metadata) {
+        metadata.setProperty(METHOD, method.name());
+        metadata.setProperty(OFFSET, join(offset));
+        metadata.setProperty(SCALE, join(scale));
+    }
+
+    /**
+     * The normalizer stored with a model, or {@code null} if it was trained on raw features.
+     */
+    public static FeatureNormalizer load(Properties metadata) {
+        String method = metadata.getProperty(METHOD);
+        if (method == null) return null;
+        return new FeatureNormalizer(Method.valueOf(method),
+            split(metadata.getProperty(OFFSET)), split(metadata.getProperty(SCALE)));
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("method", method.name());
+        map.put("offset", offset.clone());
+        map.put("scale", scale.clone());
+        return map;
+    }
+
+    private void checkSize(int length) {
+        if (length != offset.length) {
+            throw new IllegalArgumentException("Expected " + offset.length + " features, got " + length);
+        }
+    }
+
+    private static String join(double[] values) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) joined.append(',');
+            joined.append(values[i]);
+        }
+        return joined.toString();
+    }
+
+    private static double[] split(String joined) {
+        return Arrays.stream(joined.split(",")).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    /**
+     * Collects per-column statistics in a single pass over the rows, with
+     * Welford's update for the variance, and fits a normalizer from them.
+     */
+    public static class Fitter {
+        private final double[] min;
+        private final double[] max;
+        private final double[] mean;
+        private final double[] m2;
+        private long count;
+
+        public Fitter(int columns) {
+            min = new double[columns];
+            max = new double[columns];
+            mean = new double[columns];
+            m2 = new double[columns];
+            Arrays.fill(min, Double.POSITIVE_INFINITY);
+            Arrays.fill(max, Double.NEGATIVE_INFINITY);
+        }
+
+        public void add(double[] row) {
+            count++;
+            for (int i = 0; i < mean.length; i++) {
+                double x = row[i];
+                if (x < min[i]) min[i] = x;
+                if (x > max[i]) max[i] = x;
+                double delta = x - mean[i];
+                mean[i] += delta / count;
+                m2[i] += delta * (x - mean[i]);
+            }
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * A column that never varied is only shifted, not scaled.
+         */
+        public FeatureNormalizer fit(Method method) {
+            if (count == 0) {
+                throw new IllegalStateException("No rows to fit a normalizer on");
+            }
+            double[] offset = new double[mean.length];
+            double[] scale = new double[mean.length];
+            for (int i = 0; i < mean.length; i++) {
+                double spread = method == Method.MIN_MAX ? max[i] - min[i] : Math.sqrt(m2[i] / count);
+                offset[i] = method == Method.MIN_MAX ? min[i] : mean[i];
+                scale[i] = spread > 0 ? 1.0 / spread : 1.0;
+            }
+            return new FeatureNormalizer(method, offset, scale);
+        }
+    }
+}
@@ -1,47 +1,34 @@
 package com.coforge.deeplearning_extractor.autoencoder;
 
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 
-import au.com.bytecode.opencsv.CSVReader;
+import com.coforge.deeplearning_extractor.reference.CountryCodes;
+import com.coforge.deeplearning_extractor.reference.CountryInfo;
 
+/**
+ * IATA checks against the shared country table. The table is loaded once by
+ * ReferenceDataLoader at startup (or from the bundled classpath copy outside
+ * Spring) and read fresh on every call, so reloads are picked up everywhere.
+ */
 public class IataCodeExtractor {
-    private static List<String> cachedIataCodes = null;
-    private String filepath;
-    private int colIndex;
-
-    public IataCodeExtractor(String filepath, int colIndex) {
-        this.filepath = filepath;
-        this.colIndex = colIndex;
-        
-        if (cachedIataCodes == null) {
-            cachedIataCodes = loadIataCodes();
-        }
+
+    public List<String> getIataCodes() {
+        return CountryCodes.get().codes();
     }
 
-    private List<String> loadIataCodes() {
-        List<String> codes = new ArrayList<>();
-        try (CSVReader reader = new CSVReader(new FileReader(filepath))) {
-            String[] nextLine;
-            while ((nextLine = reader.readNext()) != null) {
-                if (colIndex < nextLine.length) {
-                    codes.add(nextLine[colIndex]);
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return codes;
+    public boolean validIataCode(DataRow row) {
+        return validIataCode(row.getIata());
     }
 
-    public List<String> getIataCodes() {
-        return cachedIataCodes;
+    public boolean validIataCode(String code) {
+        return CountryCodes.get().contains(code);
     }
-    
-    public boolean validIataCode(DataRow row) {
-        return cachedIataCodes.contains(row.getIata().toUpperCase());
+
+    /**
+     * Country name and continent for a code, or {@code null} when the code is unknown.
+     */
+    public CountryInfo lookup(String code) {
+        return CountryCodes.get().lookup(code);
     }
 
 	public String anomalyType(DataRow row, DL4JAutoencoderModel model) {
@@ -50,4 +37,4 @@ public class IataCodeExtractor {
 		}
 		return "valid code";
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Reads a JSON array of passenger rows one element at a time with Jackson's
+ * streaming parser, so only the row being handed out is held in memory no
+ * matter how large the manifest is.
+ */
+public class JsonManifestReader implements Iterator<DataRow>, Closeable {
+
+    private final JsonParser parser;
+    private final ObjectMapper objectMapper;
+    private boolean hasNext;
+    private long rowsRead;
+
+    public JsonManifestReader(InputStream in, ObjectMapper objectMapper) throws IOException {
+        this.objectMapper = objectMapper;
+        this.parser = objectMapper.getFactory().createParser(in);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("Expected a JSON array of passenger rows");
+        }
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    @Override
+    public DataRow next() {
+        if (!hasNext) {
+            throw new NoSuchElementException();
+        }
+        try {
+            DataRow row = objectMapper.readValue(parser, DataRow.class);
+            rowsRead++;
+            advance();
+            return row;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read row " + (rowsRead + 1) + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Steps over up to {@code count} rows without binding them, e.g. to resume
+     * a manifest from a checkpoint. Returns how many rows were skipped.
+     */
+    public long skip(long count) {
+        long skipped = 0;
+        try {
+            while (skipped < count && hasNext) {
+                parser.skipChildren();
+                rowsRead++;
+                skipped++;
+                advance();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to skip row " + (rowsRead + 1) + ": " + e.getMessage(), e);
+        }
+        return skipped;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    private void advance() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_OBJECT) {
+            hasNext = true;
+        } else if (token == JsonToken.END_ARRAY || token == null) {
+            hasNext = false;
+        } else {
+            throw new IOException("Expected a passenger object at row " + (rowsRead + 1) + " but found " + token);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            parser.close();
+        } catch (IOException e) {
+            // nothing left to release
+        }
+    }
+}
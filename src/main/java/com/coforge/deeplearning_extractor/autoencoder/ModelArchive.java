@@ -0,0 +1,71 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.deeplearning4j.util.ModelSerializer;
+
+/**
+ * The zip ModelSerializer writes, plus one properties entry with what we learn
+ * about a model besides its weights (feature normalizer, calibrated threshold). ModelSerializer
+ * only opens the entries it knows, so archives written here still restore with
+ * it, and archives written before the metadata existed read back with empty
+ * metadata.
+ */
+final class ModelArchive {
+
+    static final String METADATA_ENTRY = "autoencoder.properties";
+
+    private ModelArchive() {
+    }
+
+    static byte[] write(MultiLayerNetwork network, Properties metadata) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(network, metadata, out);
+        return out.toByteArray();
+    }
+
+    static void write(MultiLayerNetwork network, Properties metadata, OutputStream out) throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        ModelSerializer.writeModel(network, serialized, true);
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        try (ZipInputStream entries = new ZipInputStream(new ByteArrayInputStream(serialized.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = entries.getNextEntry()) != null) {
+                zip.putNextEntry(new ZipEntry(entry.getName()));
+                entries.transferTo(zip);
+                zip.closeEntry();
+            }
+        }
+        zip.putNextEntry(new ZipEntry(METADATA_ENTRY));
+        metadata.store(zip, "Autoencoder metadata");
+        zip.closeEntry();
+        zip.finish();
+    }
+
+    static MultiLayerNetwork readNetwork(byte[] archive) throws IOException {
+        return ModelSerializer.restoreMultiLayerNetwork(new ByteArrayInputStream(archive));
+    }
+
+    static Properties readMetadata(byte[] archive) throws IOException {
+        Properties metadata = new Properties();
+        try (ZipInputStream entries = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = entries.getNextEntry()) != null) {
+                if (METADATA_ENTRY.equals(entry.getName())) {
+                    metadata.load(entries);
+                    break;
+                }
+            }
+        }
+        return metadata;
+    }
+}
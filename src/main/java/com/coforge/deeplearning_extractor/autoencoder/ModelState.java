@@ -0,0 +1,171 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Properties;
+
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.deeplearning4j.nn.conf.layers.AutoEncoder;
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.factory.Nd4j;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+
+/**
+ * What both autoencoders keep besides their layer layout: the network, its
+ * threshold and how it was calibrated, the feature normalizer, the error the
+ * threshold applies to, and how all of it is written to and read from an
+ * archive.
+ */
+final class ModelState {
+
+    private static final String ERROR_METRIC = "model.errorMetric";
+
+    private final DenseNetwork.ErrorMetric metric;
+    private MultiLayerNetwork network;
+    private double threshold;
+    private ThresholdCalibration calibration;
+    private FeatureNormalizer normalizer;
+    // The normalizer's offsets and scales as row vectors, applied to each input copy
+    private INDArray normalizerOffset;
+    private INDArray normalizerScale;
+
+    ModelState(MultiLayerNetwork network, DenseNetwork.ErrorMetric metric, double threshold) {
+        this.network = network;
+        this.metric = metric;
+        this.threshold = threshold;
+    }
+
+    MultiLayerNetwork network() {
+        return network;
+    }
+
+    double threshold() {
+        return threshold;
+    }
+
+    ThresholdCalibration calibration() {
+        return calibration;
+    }
+
+    FeatureNormalizer normalizer() {
+        return normalizer;
+    }
+
+    TrainingReport train(Iterator<DataRow> rows, TrainingPipeline pipeline) {
+        TrainingReport report = pipeline.train(network, metric, rows);
+        setNormalizer(report.getNormalizer());
+        if (report.getCalibration() != null) {
+            setCalibration(report.getCalibration());
+        }
+        return report;
+    }
+
+    ThresholdCalibration calibrate(ReconstructionScorer scorer, Iterator<double[]> validation,
+                                   double targetFalsePositiveRate) {
+        ThresholdCalibration fitted = ThresholdCalibration.calibrate(scorer, validation, 1024, targetFalsePositiveRate);
+        setCalibration(fitted);
+        return fitted;
+    }
+
+    // A fresh matrix of the rows, normalized in place when the model has a normalizer
+    INDArray input(double[][] features) {
+        INDArray input = Nd4j.create(features);
+        if (normalizer != null) {
+            input.subiRowVector(normalizerOffset).muliRowVector(normalizerScale);
+        }
+        return input;
+    }
+
+    DenseNetwork toDenseNetwork() {
+        DenseNetwork dense = DenseNetwork.fromMultiLayerNetwork(network, metric);
+        return normalizer != null ? dense.withNormalizer(normalizer) : dense;
+    }
+
+    byte[] toArchive() throws IOException {
+        return ModelArchive.write(network, metadata());
+    }
+
+    void writeArchive(OutputStream out) throws IOException {
+        ModelArchive.write(network, metadata(), out);
+    }
+
+    /**
+     * Replaces the network with the one in {@code archive}. An archive written
+     * by the other model type is rejected: its threshold was calibrated on a
+     * different error, so scoring it with this model's metric gives wrong
+     * verdicts. A model saved before calibration existed keeps the threshold
+     * it was constructed with.
+     */
+    void readArchive(byte[] archive) throws IOException {
+        MultiLayerNetwork restored = ModelArchive.readNetwork(archive);
+        Properties metadata = ModelArchive.readMetadata(archive);
+        DenseNetwork.ErrorMetric storedMetric = errorMetric(restored, metadata);
+        if (storedMetric != metric) {
+            throw new IllegalArgumentException("Archive holds a model scored by " + storedMetric
+                + " error, this model is scored by " + metric);
+        }
+        this.network = restored;
+        setNormalizer(FeatureNormalizer.load(metadata));
+        ThresholdCalibration stored = ThresholdCalibration.load(metadata);
+        if (stored != null) {
+            setCalibration(stored);
+        } else {
+            this.calibration = null;
+        }
+    }
+
+    void saveToMongo(MongoClient mongoClient, String dbName, String collectionName, String modelId) throws IOException {
+        MongoCollection<Document> collection = mongoClient.getDatabase(dbName).getCollection(collectionName);
+        Document doc = new Document("_id", modelId)
+                .append("model", new Binary(toArchive()))
+                // Also inside the archive; kept here so it shows up in queries
+                .append("threshold", threshold);
+        collection.replaceOne(new Document("_id", modelId), doc, new ReplaceOptions().upsert(true));
+    }
+
+    void loadFromMongo(MongoClient mongoClient, String dbName, String collectionName, String modelId) throws IOException {
+        MongoCollection<Document> collection = mongoClient.getDatabase(dbName).getCollection(collectionName);
+        Document doc = collection.find(new Document("_id", modelId)).first();
+        if (doc == null) throw new FileNotFoundException("Model not found in MongoDB with id: " + modelId);
+        readArchive(doc.get("model", Binary.class).getData());
+    }
+
+    private Properties metadata() {
+        Properties metadata = new Properties();
+        metadata.setProperty(ERROR_METRIC, metric.name());
+        if (calibration != null) {
+            calibration.store(metadata);
+        }
+        if (normalizer != null) {
+            normalizer.store(metadata);
+        }
+        return metadata;
+    }
+
+    // Archives written before the metric was stored are told apart by their first layer
+    private static DenseNetwork.ErrorMetric errorMetric(MultiLayerNetwork network, Properties metadata) {
+        String stored = metadata.getProperty(ERROR_METRIC);
+        if (stored != null) return DenseNetwork.ErrorMetric.valueOf(stored);
+        return network.getLayerWiseConfigurations().getConf(0).getLayer() instanceof AutoEncoder
+            ? DenseNetwork.ErrorMetric.EUCLIDEAN
+            : DenseNetwork.ErrorMetric.MEAN_SQUARED;
+    }
+
+    private void setNormalizer(FeatureNormalizer normalizer) {
+        this.normalizer = normalizer;
+        this.normalizerOffset = normalizer != null ? Nd4j.create(normalizer.offsets()) : null;
+        this.normalizerScale = normalizer != null ? Nd4j.create(normalizer.scales()) : null;
+    }
+
+    private void setCalibration(ThresholdCalibration calibration) {
+        this.calibration = calibration;
+        this.threshold = calibration.getThreshold();
+    }
+}
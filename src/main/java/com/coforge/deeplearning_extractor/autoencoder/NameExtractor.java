@@ -1,9 +1,9 @@
 package com.coforge.deeplearning_extractor.autoencoder;
 
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
 import java.util.regex.*;
 
+import com.coforge.deeplearning_extractor.rules.RuleEngine;
+
 public class NameExtractor {
 	
 	public static String namePattern = "^[A-Za-z]+([ '-][A-Za-z]+)*$";
@@ -13,52 +13,12 @@ public class NameExtractor {
 	Pattern dateValid = Pattern.compile(datePattern);
 
 	public static boolean isNameInvalid(String name) {
-	    if (name == null || name.trim().isEmpty()) {
-	        return true;
-	    }
-	    
-	    String trimmedName = name.trim();
-	    
-	    // Check minimum length (at least 2 characters)
-	    if (trimmedName.length() < 2) {
-	        return true;
-	    }
-	    
-	    // Allow letters, spaces, hyphens, apostrophes, and dots
-	    // This pattern allows international names including Indian names like "Anamika"
-	    if (!trimmedName.matches("^[a-zA-Z\\s\\-'.]+$")) {
-	        return true;
-	    }
-	    
-	    // Check for excessive repeated characters (like "aaaa" or "xxxx")
-	    if (trimmedName.matches(".*(.)\\1{3,}.*")) {
-	        return true;
-	    }
-	    
-	    // Check for obviously fake patterns like "Test User", "John Doe", etc.
-	    String upperName = trimmedName.toUpperCase();
-	    String[] suspiciousNames = {
-	        "TEST USER", "TEST TEST", "JOHN DOE", "JANE DOE", 
-	        "ADMIN", "USER", "NULL", "UNDEFINED", "EXAMPLE"
-	    };
-	    
-	    for (String suspicious : suspiciousNames) {
-	        if (upperName.equals(suspicious)) {
-	            return true;
-	        }
-	    }
-	    
-	    // Valid name (including "Anamika" and other international names)
-	    return false;
+	    // Same checks as the rule engine, without a regex compile per call
+	    return RuleEngine.isNameInvalid(name);
 	}
 	
 	public static boolean isInvalidDate(String dateStr) {
-        try {
-            LocalDate date = LocalDate.parse(dateStr);
-            return date.isAfter(LocalDate.now());
-        } catch (DateTimeParseException e) {
-            return true;
-        }
+        return DateExtractor.isInvalidDate(dateStr);
     }
 	
 
@@ -0,0 +1,229 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import com.coforge.deeplearning_extractor.dates.BirthDate;
+import com.coforge.deeplearning_extractor.reference.CountryCodes;
+import com.coforge.deeplearning_extractor.reference.CountryInfo;
+
+/**
+ * A {@link DataRow} with every field normalized once: the trimmed name and
+ * its words, the parsed birth date, the seat split into row and letter, the
+ * country behind the IATA code and the cabin class. The rule engine, the
+ * feature vectoriser and the prompt builder all read from the same instance
+ * instead of trimming, upper-casing and parsing the raw strings again. The
+ * autoencoder stage adds its reconstruction error to the same instance.
+ */
+public final class PreparedRow {
+
+    private static final String[] NO_TOKENS = new String[0];
+
+    private final DataRow row;
+    private final String name;
+    private final String[] nameTokens;
+    private final BirthDate birthDate;
+    private final String seat;
+    private final int seatRow;
+    private final char seatLetter;
+    private final CountryInfo country;
+    private final CabinClass cabinClass;
+    private double reconstructionError = Double.NaN;
+    private double reconstructionThreshold = Double.NaN;
+
+    private PreparedRow(DataRow row, BirthDate birthDate) {
+        this.row = row;
+        String rawName = row.getName();
+        this.name = rawName != null ? rawName.trim() : null;
+        this.nameTokens = name != null ? tokenize(name) : NO_TOKENS;
+        this.birthDate = birthDate;
+
+        String rawSeat = row.getSeatNumber();
+        this.seat = rawSeat != null ? rawSeat.trim() : null;
+        int digits = 0;
+        int number = 0;
+        while (seat != null && digits < seat.length() && digits < 4 && isAsciiDigit(seat.charAt(digits))) {
+            number = number * 10 + (seat.charAt(digits) - '0');
+            digits++;
+        }
+        boolean rowAndLetter = digits > 0 && seat.length() == digits + 1 && isAsciiLetter(seat.charAt(digits));
+        this.seatRow = rowAndLetter ? number : -1;
+        this.seatLetter = rowAndLetter ? (char) (seat.charAt(digits) & ~0x20) : 0;
+
+        this.country = CountryCodes.get().lookup(row.getIata());
+        this.cabinClass = CabinClass.parse(row.getCabinClass());
+    }
+
+    /**
+     * Prepares a row against today's date. The birth date is parsed here once;
+     * callers that need it should read it from this instance rather than
+     * parsing the raw string again.
+     */
+    public static PreparedRow of(DataRow row) {
+        return new PreparedRow(row, BirthDate.of(row.getDate()));
+    }
+
+    /**
+     * Prepares a row with ages worked out on the packed date {@code today}.
+     */
+    public static PreparedRow of(DataRow row, int today) {
+        return new PreparedRow(row, BirthDate.parse(row.getDate(), today));
+    }
+
+    /**
+     * The row exactly as it was received.
+     */
+    public DataRow getRow() {
+        return row;
+    }
+
+    /**
+     * The name without surrounding whitespace, or {@code null} when missing.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The words of the name, split on runs of whitespace.
+     */
+    public String[] getNameTokens() {
+        return nameTokens;
+    }
+
+    public boolean hasRepeatedNameToken() {
+        return hasRepeatedToken(nameTokens);
+    }
+
+    public BirthDate getBirthDate() {
+        return birthDate;
+    }
+
+    public int getAge() {
+        return birthDate.getAge();
+    }
+
+    /**
+     * The seat without surrounding whitespace, or {@code null} when missing.
+     */
+    public String getSeat() {
+        return seat;
+    }
+
+    /**
+     * The seat is a row number followed by one letter, as in "12A".
+     */
+    public boolean hasSeatRowAndLetter() {
+        return seatRow >= 0;
+    }
+
+    /**
+     * Row number of a "12A" style seat, or -1.
+     */
+    public int getSeatRow() {
+        return seatRow;
+    }
+
+    /**
+     * Upper-case seat letter of a "12A" style seat, or 0.
+     */
+    public char getSeatLetter() {
+        return seatLetter;
+    }
+
+    /**
+     * The country for the IATA code, or {@code null} when the code is unknown.
+     */
+    public CountryInfo getCountry() {
+        return country;
+    }
+
+    /**
+     * The upper-case code as it appears in the country table, shared by every
+     * row that carries it, or {@code null} when the code is unknown.
+     */
+    public String getIataCode() {
+        return country != null ? country.getCode() : null;
+    }
+
+    /**
+     * The cabin class, or {@code null} when the row's value is not a known class.
+     */
+    public CabinClass getCabinClass() {
+        return cabinClass;
+    }
+
+    /**
+     * The autoencoder's reconstruction error for this row, or {@code NaN} until
+     * it has been scored or when no model is loaded.
+     */
+    public double getReconstructionError() {
+        return reconstructionError;
+    }
+
+    public boolean isScored() {
+        return !Double.isNaN(reconstructionError);
+    }
+
+    /**
+     * Set by the scoring stage once the row has been through the autoencoder.
+     */
+    public void setReconstructionError(double reconstructionError) {
+        this.reconstructionError = reconstructionError;
+    }
+
+    /**
+     * The threshold of the model that scored this row, or {@code NaN} if the
+     * scorer did not record one.
+     */
+    public double getReconstructionThreshold() {
+        return reconstructionThreshold;
+    }
+
+    /**
+     * Records the error together with the threshold of the model that produced
+     * it, so a model swapped in between scoring and deciding cannot pair one
+     * model's error with another's threshold.
+     */
+    public void setReconstructionError(double reconstructionError, double threshold) {
+        this.reconstructionError = reconstructionError;
+        this.reconstructionThreshold = threshold;
+    }
+
+    static boolean hasRepeatedToken(String[] tokens) {
+        for (int i = 0; i < tokens.length; i++) {
+            for (int j = i + 1; j < tokens.length; j++) {
+                if (tokens[i].equals(tokens[j])) return true;
+            }
+        }
+        return false;
+    }
+
+    static String[] tokenize(String trimmed) {
+        int count = 0;
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (!Character.isWhitespace(trimmed.charAt(i))
+                && (i == 0 || Character.isWhitespace(trimmed.charAt(i - 1)))) {
+                count++;
+            }
+        }
+        if (count == 0) return NO_TOKENS;
+
+        String[] tokens = new String[count];
+        int next = 0;
+        int i = 0;
+        while (next < count) {
+            while (Character.isWhitespace(trimmed.charAt(i))) i++;
+            int start = i;
+            while (i < trimmed.length() && !Character.isWhitespace(trimmed.charAt(i))) i++;
+            // substring of the whole string hands back the same instance
+            tokens[next++] = trimmed.substring(start, i);
+        }
+        return tokens;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+}
@@ -0,0 +1,131 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+/**
+ * Streaming quantiles of non-negative values with a bounded relative error, in
+ * memory that depends on the range of the values rather than on how many there
+ * are. Values are counted in logarithmic buckets {@code (g^(i-1), g^i]} with
+ * {@code g = (1 + a) / (1 - a)}, so every quantile is within a factor
+ * {@code 1 +/- a} of the exact one. Covering errors from 1e-9 to 1e6 at 1%
+ * takes about 1,700 counters. Not thread-safe.
+ */
+public class QuantileSketch {
+
+    // Anything this small is counted as zero instead of getting its own bucket
+    private static final double MIN_TRACKED = 1e-12;
+
+    private final double relativeAccuracy;
+    private final double gamma;
+    private final double logGamma;
+    private long[] counts;
+    // Bucket index of counts[0]
+    private int offset;
+    private long zeroCount;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(0.01);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (!(relativeAccuracy > 0 && relativeAccuracy < 1)) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1, got " + relativeAccuracy);
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Counts one value. NaN is ignored, since rows that could not be scored
+     * have no error to rank.
+     */
+    public void add(double value) {
+        if (Double.isNaN(value)) return;
+        if (value < 0 || value == Double.POSITIVE_INFINITY) {
+            throw new IllegalArgumentException("Expected a finite non-negative value, got " + value);
+        }
+        count++;
+        if (value < min) min = value;
+        if (value > max) max = value;
+        if (value <= MIN_TRACKED) {
+            zeroCount++;
+            return;
+        }
+        int index = (int) Math.ceil(Math.log(value) / logGamma);
+        if (counts == null) {
+            counts = new long[128];
+            offset = index - counts.length / 2;
+        } else if (index < offset || index >= offset + counts.length) {
+            grow(index);
+        }
+        counts[index - offset]++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Estimate of the {@code q}-quantile, within the relative accuracy of the
+     * exact one; NaN while empty.
+     */
+    public double quantile(double q) {
+        return estimate(q, 2 / (gamma + 1));
+    }
+
+    /**
+     * A value no smaller than the {@code q}-quantile: at least a fraction
+     * {@code q} of the values are at or below it. Used where overshooting the
+     * quantile is safe and undershooting is not.
+     */
+    public double upperBound(double q) {
+        return estimate(q, 1);
+    }
+
+    // Finds the bucket holding the q-quantile and scales its upper edge: by 1
+    // for the edge itself, by 2 / (g + 1) for the point within the accuracy of
+    // the whole bucket
+    private double estimate(double q, double scale) {
+        if (count == 0) return Double.NaN;
+        if (q >= 1) return max;
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = zeroCount;
+        if (seen >= rank) return clamp(MIN_TRACKED);
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return clamp(scale * Math.pow(gamma, offset + i));
+        }
+        return max;
+    }
+
+    private double clamp(double value) {
+        return Math.min(max, Math.max(min, value));
+    }
+
+    private void grow(int index) {
+        int low = Math.min(offset, index);
+        int high = Math.max(offset + counts.length - 1, index);
+        int length = Math.max(counts.length * 2, high - low + 1);
+        // Leave room on the side that had to grow
+        int newOffset = index < offset ? high - length + 1 : low;
+        long[] grown = new long[length];
+        System.arraycopy(counts, 0, grown, offset - newOffset, counts.length);
+        counts = grown;
+        offset = newOffset;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Scores feature vectors by how badly a trained autoencoder reconstructs them.
+ * Implementations score a whole batch with one forward pass, which is what
+ * makes bulk scoring cheap: the per-call overhead of the native backend is
+ * paid once per chunk instead of once per row.
+ */
+public interface ReconstructionScorer {
+
+    /**
+     * Reconstruction error for every row of {@code features}, in order.
+     */
+    double[] reconstructionErrors(double[][] features);
+
+    /**
+     * Scores a stream of feature vectors {@code chunkSize} rows at a time and
+     * hands each error to {@code sink} in input order.
+     */
+    default void reconstructionErrors(Iterator<double[]> features, int chunkSize, DoubleConsumer sink) {
+        double[][] chunk = new double[Math.max(1, chunkSize)][];
+        int filled = 0;
+        while (features.hasNext()) {
+            chunk[filled++] = features.next();
+            if (filled == chunk.length) {
+                for (double error : reconstructionErrors(chunk)) {
+                    sink.accept(error);
+                }
+                filled = 0;
+            }
+        }
+        if (filled > 0) {
+            for (double error : reconstructionErrors(Arrays.copyOf(chunk, filled))) {
+                sink.accept(error);
+            }
+        }
+    }
+}
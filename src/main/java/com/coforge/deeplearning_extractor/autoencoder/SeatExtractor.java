@@ -6,6 +6,8 @@ import java.time.format.DateTimeParseException;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
+import com.coforge.deeplearning_extractor.rules.TextScanners;
+
 public class SeatExtractor {
 
     public static SeatInfo extractSeatInfo(Element parentElement) {
@@ -41,10 +43,10 @@ public class SeatExtractor {
         if (seat.length() > 3) {
             return "Length of seat number cannot be more than 3";
         }
-        if (seat.matches(".*[^a-zA-Z0-9].*")) {
+        if (TextScanners.hasNonAlphanumeric(seat)) {
             return "Seat Number contains special symbols";
         }
-        if (seat.matches("\\d+") || seat.matches("[a-zA-Z]+")) {
+        if (TextScanners.isAllAsciiDigits(seat) || TextScanners.isAllAsciiLetters(seat)) {
             return "SeatNumber needs to alphanumeric. Cannot contain only numbers or only digits";
         }
         String cabin = seatInfo.getCabinClass().strip();
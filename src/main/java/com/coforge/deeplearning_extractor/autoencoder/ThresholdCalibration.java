@@ -0,0 +1,112 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * An anomaly threshold derived from the reconstruction errors of rows known to
+ * be normal instead of picked by hand. If the validation rows are
+ * representative, about {@code targetFalsePositiveRate} of normal traffic
+ * scores above the threshold and is escalated; everything at or below it is
+ * treated as seen before.
+ */
+public class ThresholdCalibration {
+
+    private static final String THRESHOLD = "threshold";
+    private static final String TARGET_FPR = "threshold.targetFalsePositiveRate";
+    private static final String SAMPLES = "threshold.samples";
+    private static final String MEDIAN = "threshold.medianError";
+    private static final String MAX = "threshold.maxError";
+
+    private final double threshold;
+    private final double targetFalsePositiveRate;
+    private final long samples;
+    private final double medianError;
+    private final double maxError;
+
+    public ThresholdCalibration(double threshold, double targetFalsePositiveRate, long samples,
+                                double medianError, double maxError) {
+        this.threshold = threshold;
+        this.targetFalsePositiveRate = targetFalsePositiveRate;
+        this.samples = samples;
+        this.medianError = medianError;
+        this.maxError = maxError;
+    }
+
+    /**
+     * Scores {@code validation} in chunks of {@code chunkSize} and picks the
+     * smallest threshold that at most {@code targetFalsePositiveRate} of the
+     * rows exceed. Only a sketch of the errors is kept, so the validation set
+     * can be as large as the training set.
+     */
+    public static ThresholdCalibration calibrate(ReconstructionScorer scorer, Iterator<double[]> validation,
+                                                 int chunkSize, double targetFalsePositiveRate) {
+        if (!(targetFalsePositiveRate > 0 && targetFalsePositiveRate < 1)) {
+            throw new IllegalArgumentException("Target false-positive rate must be between 0 and 1, got "
+                + targetFalsePositiveRate);
+        }
+        QuantileSketch sketch = new QuantileSketch();
+        scorer.reconstructionErrors(validation, chunkSize, sketch::add);
+        if (sketch.getCount() == 0) {
+            throw new IllegalArgumentException("No validation rows could be scored");
+        }
+        return new ThresholdCalibration(sketch.upperBound(1 - targetFalsePositiveRate), targetFalsePositiveRate,
+            sketch.getCount(), sketch.quantile(0.5), sketch.getMax());
+    }
+
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public double getTargetFalsePositiveRate() {
+        return targetFalsePositiveRate;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public double getMedianError() {
+        return medianError;
+    }
+
+    public double getMaxError() {
+        return maxError;
+    }
+
+    /**
+     * Writes this calibration into the metadata stored with a model.
+     */
+    public void store(Properties metadata) {
+        metadata.setProperty(THRESHOLD, Double.toString(threshold));
+        metadata.setProperty(TARGET_FPR, Double.toString(targetFalsePositiveRate));
+        metadata.setProperty(SAMPLES, Long.toString(samples));
+        metadata.setProperty(MEDIAN, Double.toString(medianError));
+        metadata.setProperty(MAX, Double.toString(maxError));
+    }
+
+    /**
+     * The calibration stored with a model, or {@code null} if it was never calibrated.
+     */
+    public static ThresholdCalibration load(Properties metadata) {
+        if (metadata.getProperty(TARGET_FPR) == null) return null;
+        return new ThresholdCalibration(
+            Double.parseDouble(metadata.getProperty(THRESHOLD)),
+            Double.parseDouble(metadata.getProperty(TARGET_FPR)),
+            Long.parseLong(metadata.getProperty(SAMPLES, "0")),
+            Double.parseDouble(metadata.getProperty(MEDIAN, "NaN")),
+            Double.parseDouble(metadata.getProperty(MAX, "NaN")));
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("threshold", threshold);
+        map.put("targetFalsePositiveRate", targetFalsePositiveRate);
+        map.put("samples", samples);
+        map.put("medianError", medianError);
+        map.put("maxError", maxError);
+        return map;
+    }
+}
@@ -0,0 +1,409 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+/**
+ * Trains an autoencoder on a stream of passenger rows of any length.
+ * <p>
+ * Rows are read in chunks on the calling thread while the previous chunk's
+ * features are extracted across cores, and the features are kept packed as
+ * floats, so a few million rows take tens of megabytes rather than a list of
+ * DataRows plus a {@code double[][]}. A seeded shuffle holds out a validation
+ * split, the rest is fed as shuffled mini-batches, and training stops once the
+ * validation loss has not improved for {@code patience} epochs, leaving the
+ * network with the weights of its best epoch.
+ * <p>
+ * Rows that fail feature extraction are counted and dropped instead of failing
+ * the run, and a non-finite loss ends training at the last good weights.
+ * <p>
+ * After the split, column statistics are gathered from the training rows only
+ * and every row is normalized in place with the fitted {@link FeatureNormalizer},
+ * which the model keeps and saves so scoring applies the same transform. The
+ * held-out rows never shape the transform, so early stopping and calibration
+ * see them out of sample.
+ * <p>
+ * Finally the held-out rows are scored with the kept weights and the anomaly
+ * threshold is set so that about {@code targetFalsePositiveRate} of them would
+ * be flagged; see {@link ThresholdCalibration}.
+ */
+public class TrainingPipeline {
+
+    /**
+     * Feature rows packed as {@code data[row * FEATURE_COUNT + column]}.
+     */
+    public static class Features {
+        private final float[] data;
+        private final int rows;
+        private final FeatureNormalizer normalizer;
+
+        Features(float[] data, int rows, FeatureNormalizer normalizer) {
+            this.data = data;
+            this.rows = rows;
+            this.normalizer = normalizer;
+        }
+
+        public float[] getData() {
+            return data;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * The transform already applied to {@link #getData()}, or {@code null} for raw features.
+         */
+        public FeatureNormalizer getNormalizer() {
+            return normalizer;
+        }
+    }
+
+    // What happened to each row of a chunk
+    private static final byte KEPT = 0;
+    private static final byte FILTERED = 1;
+    private static final byte FAILED = 2;
+
+    private int batchSize = 256;
+    private int maxEpochs = 50;
+    private int patience = 5;
+    private double minImprovement = 1e-4;
+    private double validationFraction = 0.1;
+    private boolean normalRowsOnly = true;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = 8192;
+    private long seed = 123;
+    private double targetFalsePositiveRate = 0.01;
+    private FeatureNormalizer.Method normalization = FeatureNormalizer.Method.MIN_MAX;
+
+    public TrainingPipeline batchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public TrainingPipeline maxEpochs(int maxEpochs) {
+        this.maxEpochs = maxEpochs;
+        return this;
+    }
+
+    /**
+     * Epochs without a better validation loss before training stops.
+     */
+    public TrainingPipeline patience(int patience) {
+        this.patience = patience;
+        return this;
+    }
+
+    /**
+     * How much lower a validation loss must be to count as better.
+     */
+    public TrainingPipeline minImprovement(double minImprovement) {
+        this.minImprovement = minImprovement;
+        return this;
+    }
+
+    /**
+     * Share of the rows held out for early stopping; 0 stops on the training loss.
+     */
+    public TrainingPipeline validationFraction(double validationFraction) {
+        this.validationFraction = validationFraction;
+        return this;
+    }
+
+    /**
+     * Whether rows are passed through {@link CsvDataLoader#isLikelyNormalData}
+     * first, as loadNormalDataForTraining does.
+     */
+    public TrainingPipeline normalRowsOnly(boolean normalRowsOnly) {
+        this.normalRowsOnly = normalRowsOnly;
+        return this;
+    }
+
+    public TrainingPipeline parallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public TrainingPipeline chunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public TrainingPipeline seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * How features are rescaled before training; {@code null} trains on raw values.
+     */
+    public TrainingPipeline normalization(FeatureNormalizer.Method normalization) {
+        this.normalization = normalization;
+        return this;
+    }
+
+    /**
+     * Share of normal rows the calibrated threshold may flag; 0 skips calibration.
+     */
+    public TrainingPipeline targetFalsePositiveRate(double targetFalsePositiveRate) {
+        this.targetFalsePositiveRate = targetFalsePositiveRate;
+        return this;
+    }
+
+    /**
+     * Trains {@code network} on {@code rows}; {@code metric} is how the model
+     * measures reconstruction error, for calibrating its threshold.
+     */
+    public TrainingReport train(MultiLayerNetwork network, DenseNetwork.ErrorMetric metric, Iterator<DataRow> rows) {
+        TrainingReport report = new TrainingReport();
+        Features features = extract(rows, report);
+        if (features.getRows() == 0) {
+            report.setStopReason("no usable rows");
+            return report;
+        }
+
+        int[] order = IntStream.range(0, features.getRows()).toArray();
+        Random random = new Random(seed);
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        int validationRows = (int) Math.min(order.length - 1L, Math.round(order.length * validationFraction));
+        validationRows = Math.max(0, validationRows);
+        report.recordSplit(order.length - validationRows, validationRows);
+        features = normalize(features, Arrays.copyOfRange(order, validationRows, order.length));
+        report.recordNormalizer(features.getNormalizer());
+
+        FeatureDataSetIterator validation = validationRows > 0
+            ? new FeatureDataSetIterator(features.getData(), FeatureExtractor.FEATURE_COUNT,
+                Arrays.copyOfRange(order, 0, validationRows), batchSize, null)
+            : null;
+        FeatureDataSetIterator training = new FeatureDataSetIterator(features.getData(), FeatureExtractor.FEATURE_COUNT,
+            Arrays.copyOfRange(order, validationRows, order.length), batchSize, random);
+
+        fit(network, training, validation, report);
+
+        if (targetFalsePositiveRate > 0) {
+            // With no held-out rows the training rows are the best sample of normal traffic left
+            int[] calibrationRows = validationRows > 0
+                ? Arrays.copyOfRange(order, 0, validationRows)
+                : Arrays.copyOfRange(order, validationRows, order.length);
+            ThresholdCalibration calibration = ThresholdCalibration.calibrate(
+                DenseNetwork.fromMultiLayerNetwork(network, metric), rowsOf(features, calibrationRows),
+                batchSize, targetFalsePositiveRate);
+            report.recordCalibration(calibration);
+            System.out.println("Calibrated threshold " + calibration.getThreshold() + " on " + calibration.getSamples()
+                + " rows for a false-positive rate of " + targetFalsePositiveRate);
+        }
+        return report;
+    }
+
+    private static Iterator<double[]> rowsOf(Features features, int[] rows) {
+        int columns = FeatureExtractor.FEATURE_COUNT;
+        float[] data = features.getData();
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < rows.length;
+            }
+
+            @Override
+            public double[] next() {
+                if (next >= rows.length) throw new NoSuchElementException();
+                double[] row = new double[columns];
+                int offset = rows[next++] * columns;
+                for (int c = 0; c < columns; c++) {
+                    row[c] = data[offset + c];
+                }
+                return row;
+            }
+        };
+    }
+
+    /**
+     * Reads every row and extracts its raw features, keeping those that pass
+     * the filter. Reading stays on the
+     * calling thread since the iterator is not thread-safe; extraction of each
+     * chunk runs on a pool while the next chunk is read.
+     */
+    public Features extract(Iterator<DataRow> rows, TrainingReport report) {
+        int columns = FeatureExtractor.FEATURE_COUNT;
+        float[] data = new float[Math.max(1, chunkSize) * columns];
+        int used = 0;
+        long read = 0;
+        long filtered = 0;
+        long failed = 0;
+        long start = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+        try {
+            DataRow[] chunk = readChunk(rows);
+            while (chunk.length > 0) {
+                DataRow[] current = chunk;
+                double[][] extracted = new double[current.length][];
+                byte[] outcome = new byte[current.length];
+                Future<?> pending = pool.submit(() -> IntStream.range(0, current.length).parallel()
+                    .forEach(i -> extractInto(current[i], i, extracted, outcome)));
+
+                chunk = readChunk(rows);
+                await(pending);
+
+                read += current.length;
+                for (int i = 0; i < current.length; i++) {
+                    if (outcome[i] == FILTERED) {
+                        filtered++;
+                    } else if (outcome[i] == FAILED) {
+                        failed++;
+                    } else {
+                        if ((used + 1) * columns > data.length) {
+                            data = Arrays.copyOf(data, data.length * 2);
+                        }
+                        double[] row = extracted[i];
+                        int offset = used * columns;
+                        for (int c = 0; c < columns; c++) {
+                            data[offset + c] = (float) row[c];
+                        }
+                        used++;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long nanos = System.nanoTime() - start;
+        report.recordExtraction(read, filtered, failed, nanos);
+        System.out.println("Extracted features for " + used + " of " + read + " rows in " + nanos / 1_000_000
+            + " ms (" + String.format("%.0f", report.getExtractionRowsPerSecond()) + " rows/s, "
+            + filtered + " filtered, " + failed + " failed)");
+        return new Features(data, used, null);
+    }
+
+    /**
+     * Fits the normalizer on {@code fitRows} alone and applies it to every row
+     * of {@code raw} in place. Returns {@code raw} unchanged when no method is set.
+     */
+    public Features normalize(Features raw, int[] fitRows) {
+        if (normalization == null || fitRows.length == 0) return raw;
+        int columns = FeatureExtractor.FEATURE_COUNT;
+        float[] data = raw.getData();
+        FeatureNormalizer.Fitter fitter = new FeatureNormalizer.Fitter(columns);
+        double[] row = new double[columns];
+        for (int index : fitRows) {
+            int offset = index * columns;
+            for (int c = 0; c < columns; c++) {
+                row[c] = data[offset + c];
+            }
+            fitter.add(row);
+        }
+        FeatureNormalizer normalizer = fitter.fit(normalization);
+        for (int index = 0; index < raw.getRows(); index++) {
+            normalizer.normalizeInPlace(data, index * columns);
+        }
+        return new Features(data, raw.getRows(), normalizer);
+    }
+
+    private void extractInto(DataRow row, int index, double[][] extracted, byte[] outcome) {
+        try {
+            if (normalRowsOnly && !CsvDataLoader.isLikelyNormalData(row)) {
+                outcome[index] = FILTERED;
+                return;
+            }
+            extracted[index] = FeatureExtractor.getFeatures(row);
+            outcome[index] = KEPT;
+        } catch (RuntimeException e) {
+            outcome[index] = FAILED;
+        }
+    }
+
+    private DataRow[] readChunk(Iterator<DataRow> rows) {
+        DataRow[] chunk = new DataRow[Math.max(1, chunkSize)];
+        int count = 0;
+        while (count < chunk.length && rows.hasNext()) {
+            chunk[count++] = rows.next();
+        }
+        return count == chunk.length ? chunk : Arrays.copyOf(chunk, count);
+    }
+
+    private static void await(Future<?> pending) {
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while extracting features", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Feature extraction failed", e.getCause());
+        }
+    }
+
+    private void fit(MultiLayerNetwork network, FeatureDataSetIterator training, FeatureDataSetIterator validation,
+                     TrainingReport report) {
+        INDArray bestParams = null;
+        double bestLoss = Double.POSITIVE_INFINITY;
+        int epochsWithoutImprovement = 0;
+
+        for (int epoch = 1; epoch <= maxEpochs; epoch++) {
+            long start = System.nanoTime();
+            training.reset();
+            network.fit(training);
+            long nanos = System.nanoTime() - start;
+
+            double trainingLoss = network.score();
+            double validationLoss = validation != null ? averageLoss(network, validation) : trainingLoss;
+            TrainingReport.Epoch stats = new TrainingReport.Epoch(epoch, trainingLoss, validationLoss, nanos,
+                training.numExamples());
+            report.addEpoch(stats);
+            System.out.println("Epoch " + epoch + ": training loss " + trainingLoss + ", validation loss "
+                + validationLoss + ", " + stats.getMillis() + " ms ("
+                + String.format("%.0f", stats.getRowsPerSecond()) + " rows/s)");
+
+            if (!Double.isFinite(validationLoss)) {
+                report.setStopReason("loss diverged at epoch " + epoch);
+                break;
+            }
+            if (validationLoss < bestLoss - minImprovement) {
+                bestLoss = validationLoss;
+                bestParams = network.params().dup();
+                report.recordBest(epoch, validationLoss);
+                epochsWithoutImprovement = 0;
+            } else if (++epochsWithoutImprovement >= patience) {
+                report.setStopReason("no improvement for " + patience + " epochs");
+                break;
+            }
+        }
+        if (report.getStopReason() == null) {
+            report.setStopReason("reached " + maxEpochs + " epochs");
+        }
+        if (bestParams != null) {
+            network.setParams(bestParams);
+        }
+    }
+
+    // Mean loss per row over every validation batch
+    private static double averageLoss(MultiLayerNetwork network, FeatureDataSetIterator validation) {
+        validation.reset();
+        double total = 0;
+        long rows = 0;
+        while (validation.hasNext()) {
+            DataSet batch = validation.next();
+            int count = batch.numExamples();
+            total += network.score(batch, false) * count;
+            rows += count;
+        }
+        return rows > 0 ? total / rows : Double.NaN;
+    }
+}
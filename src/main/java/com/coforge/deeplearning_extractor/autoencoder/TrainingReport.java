@@ -0,0 +1,198 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What a {@link TrainingPipeline} run did: how many rows went in and how fast
+ * their features were extracted and normalized, the loss and time of every
+ * epoch, which epoch's weights were kept and the threshold calibrated for them.
+ */
+public class TrainingReport {
+
+    /**
+     * One pass over the training rows.
+     */
+    public static class Epoch {
+        private final int epoch;
+        private final double trainingLoss;
+        private final double validationLoss;
+        private final long millis;
+        private final double rowsPerSecond;
+
+        Epoch(int epoch, double trainingLoss, double validationLoss, long nanos, int rows) {
+            this.epoch = epoch;
+            this.trainingLoss = trainingLoss;
+            this.validationLoss = validationLoss;
+            this.millis = nanos / 1_000_000;
+            this.rowsPerSecond = nanos > 0 ? rows * 1e9 / nanos : 0.0;
+        }
+
+        public int getEpoch() {
+            return epoch;
+        }
+
+        public double getTrainingLoss() {
+            return trainingLoss;
+        }
+
+        public double getValidationLoss() {
+            return validationLoss;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public double getRowsPerSecond() {
+            return rowsPerSecond;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("epoch", epoch);
+            map.put("trainingLoss", trainingLoss);
+            map.put("validationLoss", validationLoss);
+            map.put("millis", millis);
+            map.put("rowsPerSecond", rowsPerSecond);
+            return map;
+        }
+    }
+
+    private long rowsRead;
+    private long rowsFiltered;
+    private long rowsFailed;
+    private long extractionNanos;
+    private int trainingRows;
+    private int validationRows;
+    private final List<Epoch> epochs = new ArrayList<>();
+    private int bestEpoch = -1;
+    private double bestValidationLoss = Double.NaN;
+    private String stopReason;
+    private ThresholdCalibration calibration;
+    private FeatureNormalizer normalizer;
+
+    void recordExtraction(long rowsRead, long rowsFiltered, long rowsFailed, long nanos) {
+        this.rowsRead = rowsRead;
+        this.rowsFiltered = rowsFiltered;
+        this.rowsFailed = rowsFailed;
+        this.extractionNanos = nanos;
+    }
+
+    void recordSplit(int trainingRows, int validationRows) {
+        this.trainingRows = trainingRows;
+        this.validationRows = validationRows;
+    }
+
+    void addEpoch(Epoch epoch) {
+        epochs.add(epoch);
+    }
+
+    void recordBest(int epoch, double validationLoss) {
+        this.bestEpoch = epoch;
+        this.bestValidationLoss = validationLoss;
+    }
+
+    void setStopReason(String stopReason) {
+        this.stopReason = stopReason;
+    }
+
+    void recordNormalizer(FeatureNormalizer normalizer) {
+        this.normalizer = normalizer;
+    }
+
+    void recordCalibration(ThresholdCalibration calibration) {
+        this.calibration = calibration;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Rows left out because they did not look like normal traffic.
+     */
+    public long getRowsFiltered() {
+        return rowsFiltered;
+    }
+
+    /**
+     * Rows whose features could not be extracted.
+     */
+    public long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public long getExtractionMillis() {
+        return extractionNanos / 1_000_000;
+    }
+
+    public double getExtractionRowsPerSecond() {
+        return extractionNanos > 0 ? rowsRead * 1e9 / extractionNanos : 0.0;
+    }
+
+    public int getTrainingRows() {
+        return trainingRows;
+    }
+
+    public int getValidationRows() {
+        return validationRows;
+    }
+
+    public List<Epoch> getEpochs() {
+        return epochs;
+    }
+
+    /**
+     * The epoch whose weights the network was left with, or -1 if none finished.
+     */
+    public int getBestEpoch() {
+        return bestEpoch;
+    }
+
+    public double getBestValidationLoss() {
+        return bestValidationLoss;
+    }
+
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * The threshold fitted after training, or {@code null} if calibration was off.
+     */
+    public ThresholdCalibration getCalibration() {
+        return calibration;
+    }
+
+    /**
+     * The normalizer fitted on the training rows, or {@code null} if they were used raw.
+     */
+    public FeatureNormalizer getNormalizer() {
+        return normalizer;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("rowsRead", rowsRead);
+        report.put("rowsFiltered", rowsFiltered);
+        report.put("rowsFailed", rowsFailed);
+        report.put("extractionMillis", getExtractionMillis());
+        report.put("extractionRowsPerSecond", getExtractionRowsPerSecond());
+        report.put("trainingRows", trainingRows);
+        report.put("validationRows", validationRows);
+        List<Map<String, Object>> epochMaps = new ArrayList<>();
+        for (Epoch epoch : epochs) {
+            epochMaps.add(epoch.toMap());
+        }
+        report.put("epochs", epochMaps);
+        report.put("bestEpoch", bestEpoch);
+        report.put("bestValidationLoss", bestValidationLoss);
+        report.put("stopReason", stopReason);
+        report.put("normalizer", normalizer != null ? normalizer.toMap() : null);
+        report.put("calibration", calibration != null ? calibration.toMap() : null);
+        return report;
+    }
+}
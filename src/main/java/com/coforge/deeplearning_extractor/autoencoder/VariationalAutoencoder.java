@@ -1,13 +1,13 @@
 package com.coforge.deeplearning_extractor.autoencoder;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
 
-import org.bson.Document;
-import org.bson.types.Binary;
 import org.deeplearning4j.nn.api.OptimizationAlgorithm;
 import org.deeplearning4j.nn.conf.NeuralNetConfiguration;
 import org.deeplearning4j.nn.conf.MultiLayerConfiguration;
@@ -15,29 +15,21 @@ import org.deeplearning4j.nn.conf.layers.DenseLayer;
 import org.deeplearning4j.nn.conf.layers.OutputLayer;
 import org.deeplearning4j.nn.multilayer.MultiLayerNetwork;
 import org.deeplearning4j.optimize.listeners.ScoreIterationListener;
-import org.deeplearning4j.util.ModelSerializer;
 import org.nd4j.linalg.activations.Activation;
 import org.nd4j.linalg.api.ndarray.INDArray;
-import org.nd4j.linalg.factory.Nd4j;
 import org.nd4j.linalg.learning.config.Adam;
 import org.nd4j.linalg.lossfunctions.LossFunctions;
 
 import com.mongodb.client.MongoClient;
-import com.mongodb.client.MongoClients;
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
-import com.mongodb.client.model.ReplaceOptions;
 
-public class VariationalAutoencoder {
-    private MultiLayerNetwork model;
-    private double threshold = 0.5;
+public class VariationalAutoencoder implements ReconstructionScorer {
+    private final ModelState state;
     private int latentDim;
     private int inputFeatures;
     
     public VariationalAutoencoder(int inputFeatures, int latentDim, double threshold) {
         this.inputFeatures = inputFeatures;
         this.latentDim = latentDim;
-        this.threshold = threshold;
         
         // Create a simpler autoencoder that works like a VAE
         // We'll implement it as a standard autoencoder with regularization
@@ -73,13 +65,15 @@ public class VariationalAutoencoder {
                         .build())
                 .build();
 
-        model = new MultiLayerNetwork(conf);
+        MultiLayerNetwork model = new MultiLayerNetwork(conf);
         model.init();
         model.setListeners(new ScoreIterationListener(10));
+        this.state = new ModelState(model, DenseNetwork.ErrorMetric.MEAN_SQUARED, threshold);
     }
     
     public void train(double[][] inputs, int epochs) {
-        INDArray inputArray = Nd4j.create(inputs);
+        INDArray inputArray = state.input(inputs);
+        MultiLayerNetwork model = state.network();
         
         // Train as a standard autoencoder with regularization (dropout) that acts like a VAE
         for (int epoch = 0; epoch < epochs; epoch++) {
@@ -91,72 +85,112 @@ public class VariationalAutoencoder {
         }
     }
     
+    /**
+     * Trains on a stream of rows in shuffled mini-batches with early stopping;
+     * see {@link TrainingPipeline}.
+     */
+    public TrainingReport train(Iterator<DataRow> rows, TrainingPipeline pipeline) {
+        return state.train(rows, pipeline);
+    }
+
+    /**
+     * Sets the threshold from the errors of {@code validation}, rows known to
+     * be normal, so that about {@code targetFalsePositiveRate} of them would be
+     * flagged. The calibration is saved with the model.
+     */
+    public ThresholdCalibration calibrate(Iterator<double[]> validation, double targetFalsePositiveRate) {
+        return state.calibrate(this, validation, targetFalsePositiveRate);
+    }
+
+    public double getThreshold() {
+        return state.threshold();
+    }
+
+    /**
+     * How the threshold was fitted, or {@code null} if it was given by hand.
+     */
+    public ThresholdCalibration getCalibration() {
+        return state.calibration();
+    }
+
+    /**
+     * The transform applied to features before they reach the network, or
+     * {@code null} if it was trained on raw values.
+     */
+    public FeatureNormalizer getNormalizer() {
+        return state.normalizer();
+    }
+
     public INDArray encode(double[] features) {
-        INDArray input = Nd4j.create(new double[][]{features});
+        INDArray input = state.input(new double[][]{features});
         // Get the latent representation from layer 1 (encoder output)
-        return model.activateSelectedLayers(0, 1, input);
+        return state.network().activateSelectedLayers(0, 1, input);
     }
     
     public INDArray decode(INDArray latentCode) {
         // For decoding, we need to pass through layers 2 and 3 (decoder layers)
         // This is a simplified approach - in practice, you'd need more complex handling
-        return model.output(latentCode);
+        return state.network().output(latentCode);
     }
     
     public double reconstructionError(double[] features) {
-        INDArray input = Nd4j.create(new double[][]{features});
-        INDArray reconstructed = model.output(input);
+        INDArray input = state.input(new double[][]{features});
+        INDArray reconstructed = state.network().output(input);
         
         // Calculate MSE reconstruction error
         INDArray error = input.sub(reconstructed);
         return error.mul(error).meanNumber().doubleValue();
     }
     
+    /**
+     * Mean squared reconstruction error per row from one forward pass.
+     */
+    @Override
+    public double[] reconstructionErrors(double[][] features) {
+        if (features.length == 0) return new double[0];
+        INDArray input = state.input(features);
+        INDArray reconstructed = state.network().output(input);
+        
+        INDArray error = input.subi(reconstructed);
+        INDArray rowMeans = error.muli(error).mean(1);
+        double[] errors = new double[features.length];
+        for (int i = 0; i < errors.length; i++) {
+            errors[i] = rowMeans.getDouble(i);
+        }
+        return errors;
+    }
+    
+    /**
+     * A copy of the current weights as a {@link DenseNetwork}, which scores the
+     * same errors without ND4J.
+     */
+    public DenseNetwork toDenseNetwork() {
+        return state.toDenseNetwork();
+    }
+    
     public boolean isAnomaly(double[] features) {
-        return reconstructionError(features) > threshold;
+        return reconstructionError(features) > state.threshold();
     }
     
     public void saveModel(String path) throws IOException {
-        ModelSerializer.writeModel(model, new File(path), true);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(path))) {
+            state.writeArchive(out);
+        }
     }
 
     public void loadModel(String path) throws IOException {
-        this.model = ModelSerializer.restoreMultiLayerNetwork(new File(path));
-    }
-    
-    public void saveModelToMongo(String mongoUri, String dbName, String collectionName, String modelId) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ModelSerializer.writeModel(model, baos, true);
-        byte[] modelBytes = baos.toByteArray();
-        baos.close();
-
-        try (MongoClient mongoClient = MongoClients.create(mongoUri)) {
-            MongoDatabase database = mongoClient.getDatabase(dbName);
-            MongoCollection<Document> collection = database.getCollection(collectionName);
-
-            Document doc = new Document("_id", modelId)
-                    .append("model", new Binary(modelBytes));
-            collection.replaceOne(new Document("_id", modelId), doc, new ReplaceOptions().upsert(true));
-        }
+        state.readArchive(Files.readAllBytes(Path.of(path)));
     }
     
-    public void loadModelFromMongo(String mongoUri, String dbName, String collectionName, String modelId) throws IOException {
-        try (MongoClient mongoClient = MongoClients.create(mongoUri)) {
-            MongoDatabase database = mongoClient.getDatabase(dbName);
-            MongoCollection<Document> collection = database.getCollection(collectionName);
-
-            Document doc = collection.find(new Document("_id", modelId)).first();
-            if (doc == null) throw new FileNotFoundException("Model not found in MongoDB with id: " + modelId);
-
-            byte[] modelBytes = doc.get("model", Binary.class).getData();
-            ByteArrayInputStream bais = new ByteArrayInputStream(modelBytes);
-            this.model = ModelSerializer.restoreMultiLayerNetwork(bais);
-            bais.close();
-        }
+    /**
+     * Writes the archive with {@code mongoClient}, normally the application's
+     * shared, pooled client; no client is opened per call.
+     */
+    public void saveModelToMongo(MongoClient mongoClient, String dbName, String collectionName, String modelId) throws IOException {
+        state.saveToMongo(mongoClient, dbName, collectionName, modelId);
     }
 
-    public Object getThreshold() {
-        // TODO Auto-generated method stub
-        throw new UnsupportedOperationException("Unimplemented method 'getThreshold'");
+    public void loadModelFromMongo(MongoClient mongoClient, String dbName, String collectionName, String modelId) throws IOException {
+        state.loadFromMongo(mongoClient, dbName, collectionName, modelId);
     }
 }
@@ -0,0 +1,39 @@
+package com.coforge.deeplearning_extractor.configs;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MongoClientConfig {
+
+	@Bean
+	public MongoPoolMetrics mongoPoolMetrics() {
+		return new MongoPoolMetrics();
+	}
+
+	/**
+	 * Sizes the pool of the MongoClient Boot builds from spring.data.mongodb.*.
+	 * That one client is shared by jobs, the model registry and model loading,
+	 * so connections, TLS sessions and server discovery are paid for once.
+	 */
+	@Bean
+	public MongoClientSettingsBuilderCustomizer mongoPoolCustomizer(
+			MongoPoolMetrics metrics,
+			@Value("${mongodb.pool.max-size:50}") int maxSize,
+			@Value("${mongodb.pool.min-size:2}") int minSize,
+			@Value("${mongodb.pool.max-wait-ms:5000}") long maxWaitMs,
+			@Value("${mongodb.pool.max-idle-ms:300000}") long maxIdleMs,
+			@Value("${mongodb.pool.max-connecting:2}") int maxConnecting) {
+		return settings -> settings.applyToConnectionPoolSettings(pool -> pool
+				.maxSize(maxSize)
+				.minSize(Math.min(minSize, maxSize))
+				.maxWaitTime(maxWaitMs, TimeUnit.MILLISECONDS)
+				.maxConnectionIdleTime(maxIdleMs, TimeUnit.MILLISECONDS)
+				.maxConnecting(maxConnecting)
+				.addConnectionPoolListener(metrics));
+	}
+}
@@ -0,0 +1,102 @@
+package com.coforge.deeplearning_extractor.configs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+
+/**
+ * Counters for the connection pool of the shared MongoClient, summed over all
+ * servers it talks to. The wait time is how long a thread took to get a
+ * connection, including opening one when the pool had none idle; a growing
+ * wait with {@code checkedOut} at {@code maxSize} means the pool is too small.
+ */
+public class MongoPoolMetrics implements ConnectionPoolListener {
+
+    private final AtomicInteger maxSize = new AtomicInteger();
+    private final AtomicInteger open = new AtomicInteger();
+    private final AtomicInteger checkedOut = new AtomicInteger();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder failedCheckouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        maxSize.set(event.getSettings().getMaxSize());
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        open.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        open.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waiting.decrementAndGet();
+        checkedOut.incrementAndGet();
+        checkouts.increment();
+        recordWait(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waiting.decrementAndGet();
+        failedCheckouts.increment();
+        recordWait(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        checkedOut.decrementAndGet();
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.add(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public int getCheckedOut() {
+        return checkedOut.get();
+    }
+
+    public long getCheckouts() {
+        return checkouts.sum();
+    }
+
+    public Map<String, Object> getStats() {
+        long attempts = checkouts.sum() + failedCheckouts.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxSize", maxSize.get());
+        stats.put("open", open.get());
+        stats.put("checkedOut", checkedOut.get());
+        stats.put("waiting", waiting.get());
+        stats.put("checkouts", checkouts.sum());
+        stats.put("failedCheckouts", failedCheckouts.sum());
+        stats.put("avgWaitMs", attempts == 0 ? 0.0 : totalWaitNanos.sum() / 1e6 / attempts);
+        stats.put("maxWaitMs", maxWaitNanos.get() / 1e6);
+        return stats;
+    }
+}
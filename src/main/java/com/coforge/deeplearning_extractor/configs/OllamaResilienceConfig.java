@@ -0,0 +1,38 @@
+package com.coforge.deeplearning_extractor.configs;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.coforge.deeplearning_extractor.ollama.AdaptiveTimeout;
+import com.coforge.deeplearning_extractor.ollama.OllamaBackendPool;
+
+@Configuration
+public class OllamaResilienceConfig {
+
+	/**
+	 * One circuit breaker per backend. ollama.base-urls lists several instances;
+	 * when it is empty the single ollama.base-url is used.
+	 */
+	@Bean
+	public OllamaBackendPool ollamaBackendPool(
+			@Value("${ollama.base-urls:}") List<String> baseUrls,
+			@Value("${ollama.base-url:http://localhost:11434}") String baseUrl,
+			@Value("${ollama.circuit-breaker.failure-threshold:5}") int failureThreshold,
+			@Value("${ollama.circuit-breaker.open-duration-ms:30000}") long openDurationMs) {
+		List<String> urls = baseUrls.stream().filter(url -> !url.isBlank()).toList();
+		return new OllamaBackendPool(urls.isEmpty() ? List.of(baseUrl) : urls, failureThreshold, openDurationMs);
+	}
+
+	@Bean
+	public AdaptiveTimeout ollamaAdaptiveTimeout(
+			@Value("${ollama.timeout.window-size:200}") int windowSize,
+			@Value("${ollama.timeout.percentile:99}") double percentile,
+			@Value("${ollama.timeout.multiplier:3.0}") double multiplier,
+			@Value("${ollama.timeout.min-ms:5000}") long minTimeoutMs,
+			@Value("${ollama.timeout.max-ms:120000}") long maxTimeoutMs) {
+		return new AdaptiveTimeout(windowSize, percentile, multiplier, minTimeoutMs, maxTimeoutMs);
+	}
+}
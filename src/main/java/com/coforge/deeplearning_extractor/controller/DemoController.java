@@ -1,10 +1,15 @@
 package com.coforge.deeplearning_extractor.controller;
 	
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 	
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -12,13 +17,32 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.coforge.deeplearning_extractor.ollama.BatchAnomalyDetectionService;
 import com.coforge.deeplearning_extractor.ollama.OllamaAnomalyDetectionService;
+import com.coforge.deeplearning_extractor.ollama.OllamaAvailability;
+import com.coforge.deeplearning_extractor.ollama.OllamaAvailabilityMonitor;
+import com.coforge.deeplearning_extractor.ollama.OllamaService;
 import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.autoencoder.JsonManifestReader;
+import com.coforge.deeplearning_extractor.reference.CountryInfo;
+import com.coforge.deeplearning_extractor.reference.ReferenceDataLoader;
+import com.coforge.deeplearning_extractor.configs.MongoPoolMetrics;
 import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 	
 	
 	
@@ -30,20 +54,51 @@ public class DemoController {
 	@Autowired
     private OllamaAnomalyDetectionService ollamaService;
     
+    @Autowired
+    private OllamaAvailabilityMonitor availabilityMonitor;
+    
+    @Autowired
+    private BatchAnomalyDetectionService batchService;
+    
+    @Autowired
+    private OllamaService ollamaClient;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ReferenceDataLoader referenceData;
+
+    @Autowired
+    private MongoPoolMetrics mongoPoolMetrics;
+    
+    @Value("${detection.stream.timeout-ms:1800000}")
+    private long streamTimeoutMs;
+    
     @PostMapping("/detect")
     public Map<String, Object> detect(@RequestBody DataRow row) {
         // Use the new Ollama-based hybrid detection
         return ollamaService.analyzePassenger(row);
     }
     
+    /**
+     * Same result as /detect, but the servlet thread is released while Ollama
+     * works. The call takes one of the shared ollama.num-parallel slots.
+     */
+    @PostMapping("/detect/reactive")
+    public Mono<Map<String, Object>> detectReactive(@RequestBody DataRow row) {
+        return batchService.analyzePassengerReactive(row);
+    }
+    
     @GetMapping("/ollama/status")
     public Map<String, Object> checkOllamaStatus() {
+        OllamaAvailability availability = availabilityMonitor.getAvailability();
         Map<String, Object> status = new LinkedHashMap<>();
-        status.put("available", ollamaService.isOllamaAvailable());
-        status.put("endpoint", "http://localhost:11434");
-        status.put("model", "gemma3:4b");
+        status.put("available", availability.isUsable());
+        status.put("endpoint", availabilityMonitor.getBaseUrl());
+        status.put("model", availabilityMonitor.getModelName());
         status.put("currentUser", "Avaneesh Garg");
-        status.put("timestamp", "2025-07-30 05:28:36");
+        status.put("timestamp", String.valueOf(availability.getCheckedAt()));
         return status;
     }
 
@@ -52,17 +107,23 @@ public class DemoController {
         Map<String, Object> health = new LinkedHashMap<>();
         
         try {
-            // Test basic connectivity
-            boolean available = ollamaService.isOllamaAvailable();
-            health.put("ollamaRunning", available);
-            health.put("expectedModel", "gemma3:4b");
+            // Served from the last background probe, no round trip to Ollama here
+            OllamaAvailability availability = availabilityMonitor.getAvailability();
+            String model = availabilityMonitor.getModelName();
+            health.put("ollamaRunning", availability.isReachable());
+            health.put("expectedModel", model);
+            health.put("modelPresent", availability.isModelPresent());
+            health.put("probeLatencyMs", availability.getLatencyMs());
+            health.put("lastChecked", String.valueOf(availability.getCheckedAt()));
+            health.putAll(ollamaClient.getResilienceStatus());
             
-            if (!available) {
+            if (!availability.isUsable()) {
+                health.put("lastError", availability.getLastError());
                 health.put("suggestions", new String[]{
                     "1. Start Ollama: ollama serve",
-                    "2. Check if gemma3:4b is installed: ollama list",
-                    "3. Pull model if needed: ollama pull gemma3:4b",
-                    "4. Verify port 11434 is accessible"
+                    "2. Check if " + model + " is installed: ollama list",
+                    "3. Pull model if needed: ollama pull " + model,
+                    "4. Verify " + availabilityMonitor.getBaseUrl() + " is accessible"
                 });
             }
             
@@ -73,24 +134,159 @@ public class DemoController {
         return health;
     }
 
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        return ollamaService.getCacheStats();
+    }
+
+    @GetMapping("/tiers/stats")
+    public Map<String, Object> tierStats() {
+        return ollamaService.getTierStats();
+    }
+
+    @GetMapping("/mongo/pool")
+    public Map<String, Object> mongoPoolStats() {
+        return mongoPoolMetrics.getStats();
+    }
+
+    @GetMapping("/reference/countries/{code}")
+    public CountryInfo lookupCountry(@PathVariable String code) {
+        CountryInfo country = ollamaService.lookupCountry(code);
+        if (country == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown country code " + code);
+        }
+        return country;
+    }
+
+    @GetMapping("/reference/stats")
+    public Map<String, Object> referenceStats() {
+        return referenceData.getStats();
+    }
+
+    /**
+     * Picks up edits to the countries file without a restart.
+     */
+    @PostMapping("/reference/countries/reload")
+    public Map<String, Object> reloadCountries() {
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("codesLoaded", ollamaService.reloadCountryCodes());
+            result.put("reloadedAt", String.valueOf(Instant.now()));
+            return result;
+        } catch (IOException e) {
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Reload failed: " + e.getMessage());
+        }
+    }
+
 	@PostMapping("/upload/detect")
 	public List<Map<String, Object>> uploadJsonFile(@RequestParam("file") MultipartFile file) {
 	    if (file.isEmpty()) {
 	        throw new IllegalArgumentException("File is empty!");
 	    }
-	    try {
-	        ObjectMapper objectMapper = new ObjectMapper();
-	        DataRow[] dataArray = objectMapper.readValue(file.getInputStream(), DataRow[].class);
-	        List<DataRow> rows = List.of(dataArray);
+	    // Rows are parsed one at a time and analyzed while the rest of the file is still being read
+	    try (JsonManifestReader reader = new JsonManifestReader(file.getInputStream(), objectMapper)) {
 	        List<Map<String, Object>> results = new ArrayList<>();
-	        for (DataRow row : rows) {
-	            results.add(ollamaService.analyzePassenger(row));
-	        }
+	        batchService.analyzePassengers(reader, results::add);
 	        return results;
-	    } catch (IOException e) {
+	    } catch (IOException | UncheckedIOException e) {
 	        e.printStackTrace();
 	        throw new RuntimeException("Failed to process file: " + e.getMessage());
 	    }
     }
+
+	@PostMapping("/upload/detect/reactive")
+	public Flux<Map<String, Object>> uploadJsonFileReactive(@RequestParam("file") MultipartFile file) {
+	    if (file.isEmpty()) {
+	        throw new IllegalArgumentException("File is empty!");
+	    }
+	    Flux<DataRow> rows = Flux.using(
+	            () -> new JsonManifestReader(file.getInputStream(), objectMapper),
+	            reader -> Flux.fromIterable(() -> reader),
+	            JsonManifestReader::close)
+	        .subscribeOn(Schedulers.boundedElastic());
+	    return batchService.analyzePassengersReactive(rows);
+	}
+
+	/**
+	 * Streams one NDJSON line per passenger as soon as it and every row before it
+	 * are analyzed, followed by a summary line.
+	 */
+	@PostMapping(value = "/upload/detect/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseBodyEmitter uploadJsonFileNdjson(@RequestParam("file") MultipartFile file) {
+	    ResponseBodyEmitter emitter = new ResponseBodyEmitter(streamTimeoutMs);
+	    streamDetection(file, emitter, (type, index, payload) -> {
+	        Map<String, Object> line = new LinkedHashMap<>();
+	        line.put("type", type);
+	        line.put("index", index);
+	        line.put(type, payload);
+	        emitter.send(objectMapper.writeValueAsString(line) + "\n", MediaType.APPLICATION_NDJSON);
+	    });
+	    return emitter;
+	}
+
+	/**
+	 * Same stream as Server-Sent Events: "result" events carry the row index as id,
+	 * a final "summary" event closes the stream.
+	 */
+	@PostMapping(value = "/upload/detect/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter uploadJsonFileSse(@RequestParam("file") MultipartFile file) {
+	    SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+	    streamDetection(file, emitter, (type, index, payload) ->
+	        emitter.send(SseEmitter.event().id(String.valueOf(index)).name(type).data(payload)));
+	    return emitter;
+	}
+
+	private void streamDetection(MultipartFile file, ResponseBodyEmitter emitter, StreamWriter writer) {
+	    if (file.isEmpty()) {
+	        throw new IllegalArgumentException("File is empty!");
+	    }
+	    JsonManifestReader reader;
+	    try {
+	        reader = new JsonManifestReader(file.getInputStream(), objectMapper);
+	    } catch (IOException e) {
+	        throw new RuntimeException("Failed to process file: " + e.getMessage());
+	    }
+
+	    // Set once the emitter times out, completes or fails; after that every send throws IllegalStateException
+	    AtomicBoolean closed = new AtomicBoolean();
+	    emitter.onTimeout(() -> closed.set(true));
+	    emitter.onCompletion(() -> closed.set(true));
+	    emitter.onError(e -> closed.set(true));
+
+	    AtomicLong index = new AtomicLong();
+	    batchService.analyzePassengersAsync(reader, result -> {
+	        if (closed.get()) {
+	            throw new CancellationException("Stream closed");
+	        }
+	        try {
+	            writer.write("result", index.getAndIncrement(), result);
+	        } catch (IOException | IllegalStateException e) {
+	            // Client went away or the stream timed out, stop reading and analyzing the rest of the file
+	            closed.set(true);
+	            throw new CancellationException("Stream closed: " + e.getMessage());
+	        }
+	    }).whenComplete((summary, error) -> {
+	        reader.close();
+	        if (closed.get()) {
+	            return;
+	        }
+	        try {
+	            if (error != null) {
+	                Throwable cause = error.getCause() != null ? error.getCause() : error;
+	                writer.write("error", index.get(), Map.of("message", "Failed to process file: " + cause.getMessage()));
+	            } else {
+	                writer.write("summary", summary.getRows(), summary.toMap());
+	            }
+	            emitter.complete();
+	        } catch (IOException | IllegalStateException e) {
+	            emitter.completeWithError(e);
+	        }
+	    });
+	}
+
+	@FunctionalInterface
+	private interface StreamWriter {
+	    void write(String type, long index, Map<String, Object> payload) throws IOException;
+	}
 		
 }
@@ -0,0 +1,76 @@
+package com.coforge.deeplearning_extractor.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.coforge.deeplearning_extractor.jobs.DetectionJobService;
+
+/**
+ * Background bulk detection: submit a manifest, poll the job, page through results.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class DetectionJobController {
+
+    @Autowired
+    private DetectionJobService jobService;
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Map<String, Object> submit(@RequestParam("file") MultipartFile file) {
+        try {
+            return jobService.submit(file);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to store file: " + e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public List<Map<String, Object>> list(@RequestParam(defaultValue = "20") int limit) {
+        return jobService.listJobs(limit);
+    }
+
+    @GetMapping("/{jobId}")
+    public Map<String, Object> get(@PathVariable String jobId) {
+        return found(jobService.getJob(jobId), jobId);
+    }
+
+    @GetMapping("/{jobId}/results")
+    public Map<String, Object> results(@PathVariable String jobId,
+                                       @RequestParam(defaultValue = "0") long offset,
+                                       @RequestParam(defaultValue = "100") int limit) {
+        return found(jobService.getResults(jobId, offset, limit), jobId);
+    }
+
+    @PostMapping("/{jobId}/resume")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public Map<String, Object> resume(@PathVariable String jobId) {
+        Map<String, Object> job = found(jobService.getJob(jobId), jobId);
+        if (!jobService.resume(jobId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + jobId + " is " + job.get("status"));
+        }
+        return jobService.getJob(jobId);
+    }
+
+    private Map<String, Object> found(Map<String, Object> body, String jobId) {
+        if (body == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No job with id " + jobId);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,71 @@
+package com.coforge.deeplearning_extractor.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.coforge.deeplearning_extractor.registry.ModelRegistryService;
+
+/**
+ * Autoencoder versions: upload, list, promote, and what is being served right now.
+ */
+@RestController
+@RequestMapping("/api/models")
+@CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
+public class ModelRegistryController {
+
+    @Autowired
+    private ModelRegistryService registryService;
+
+    @GetMapping("/active")
+    public Map<String, Object> active() {
+        return registryService.getStatus();
+    }
+
+    @GetMapping("/{modelId}/versions")
+    public List<Map<String, Object>> versions(@PathVariable String modelId) {
+        return registryService.listVersions(modelId);
+    }
+
+    @PostMapping("/{modelId}/versions")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Map<String, Object> register(@PathVariable String modelId,
+                                        @RequestParam("file") MultipartFile file,
+                                        @RequestParam(required = false) String description) {
+        if (file.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "File is empty!");
+        }
+        try {
+            return registryService.register(modelId, file.getBytes(), description);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Not a usable model: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/{modelId}/versions/{version}/promote")
+    public Map<String, Object> promote(@PathVariable String modelId, @PathVariable int version) {
+        try {
+            Map<String, Object> promoted = registryService.promote(modelId, version);
+            if (promoted == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No version " + version + " of " + modelId);
+            }
+            return promoted;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cannot promote " + modelId + " v" + version
+                + ": " + e.getMessage());
+        }
+    }
+}
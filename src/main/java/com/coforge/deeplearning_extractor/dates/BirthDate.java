@@ -0,0 +1,70 @@
+package com.coforge.deeplearning_extractor.dates;
+
+/**
+ * A row's birth date parsed once: the packed date, whether it is usable, and
+ * the age it gives on the day it was parsed. PreparedRow holds one per row, so
+ * the checks that read the PreparedRow share the same parse; {@link #of} parses
+ * again on every call.
+ */
+public final class BirthDate {
+
+    private final int packed;
+    private final int asOf;
+    private final int age;
+
+    private BirthDate(int packed, int asOf) {
+        this.packed = packed;
+        this.asOf = asOf;
+        this.age = (packed == IsoDate.INVALID || packed > asOf) ? -1 : IsoDate.yearsBetween(packed, asOf);
+    }
+
+    /**
+     * The birth date for {@code raw} as of today.
+     */
+    public static BirthDate of(String raw) {
+        return parse(raw, DayClock.system().today());
+    }
+
+    /**
+     * Parses {@code raw} as of the packed {@link IsoDate} {@code today}.
+     */
+    public static BirthDate parse(String raw, int today) {
+        return new BirthDate(IsoDate.parse(raw), today);
+    }
+
+    /**
+     * The string parses as a strict {@code yyyy-MM-dd} date.
+     */
+    public boolean isParsed() {
+        return packed != IsoDate.INVALID;
+    }
+
+    public boolean isInFuture() {
+        return isParsed() && packed > asOf;
+    }
+
+    /**
+     * Unparseable or in the future.
+     */
+    public boolean isInvalid() {
+        return !isParsed() || packed > asOf;
+    }
+
+    /**
+     * Whole years on the day this was parsed, or -1 when the date is invalid.
+     */
+    public int getAge() {
+        return age;
+    }
+
+    /**
+     * The packed {@link IsoDate}, or {@link IsoDate#INVALID}.
+     */
+    public int getPacked() {
+        return packed;
+    }
+
+    public int getAsOf() {
+        return asOf;
+    }
+}
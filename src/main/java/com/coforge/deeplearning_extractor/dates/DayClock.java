@@ -0,0 +1,64 @@
+package com.coforge.deeplearning_extractor.dates;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * Today's date, worked out once per day instead of on every call. Reading it
+ * costs one clock read and a comparison; the date is recomputed the first time
+ * it is asked for after midnight.
+ */
+public final class DayClock {
+
+    private static final DayClock SYSTEM = new DayClock(Clock.systemDefaultZone());
+
+    private final Clock clock;
+    private volatile Day current;
+
+    public DayClock(Clock clock) {
+        this.clock = clock;
+        this.current = dayAt(clock);
+    }
+
+    public static DayClock system() {
+        return SYSTEM;
+    }
+
+    /**
+     * Today as a packed {@link IsoDate}.
+     */
+    public int today() {
+        return currentDay().packed;
+    }
+
+    public LocalDate todayDate() {
+        return currentDay().date;
+    }
+
+    private Day currentDay() {
+        Day day = current;
+        if (clock.millis() >= day.nextMidnightMillis) {
+            day = dayAt(clock);
+            current = day;
+        }
+        return day;
+    }
+
+    private static Day dayAt(Clock clock) {
+        LocalDate date = LocalDate.now(clock);
+        long nextMidnight = date.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+        return new Day(date, IsoDate.pack(date), nextMidnight);
+    }
+
+    private static final class Day {
+        private final LocalDate date;
+        private final int packed;
+        private final long nextMidnightMillis;
+
+        private Day(LocalDate date, int packed, long nextMidnightMillis) {
+            this.date = date;
+            this.packed = packed;
+            this.nextMidnightMillis = nextMidnightMillis;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.coforge.deeplearning_extractor.dates;
+
+import java.time.LocalDate;
+
+/**
+ * Dates packed into one int as {@code yyyy * 10000 + MM * 100 + dd}. Packed dates
+ * sort the same way the dates do, so comparisons are plain int comparisons.
+ */
+public final class IsoDate {
+
+    public static final int INVALID = -1;
+
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private IsoDate() {
+    }
+
+    /**
+     * Parses a strict {@code yyyy-MM-dd} string without allocating. Returns
+     * {@link #INVALID} for anything {@code LocalDate.parse} would reject,
+     * including days past the end of the month.
+     */
+    public static int parse(CharSequence s) {
+        if (s == null || s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') return INVALID;
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return INVALID;
+            year = year * 10 + digit;
+        }
+        int month = twoDigits(s, 5);
+        int day = twoDigits(s, 8);
+        if (month < 1 || month > 12 || day < 1) return INVALID;
+        int monthLength = (month == 2 && isLeapYear(year)) ? 29 : DAYS_IN_MONTH[month - 1];
+        if (day > monthLength) return INVALID;
+        return year * 10000 + month * 100 + day;
+    }
+
+    public static int pack(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    public static LocalDate toLocalDate(int packed) {
+        return LocalDate.of(packed / 10000, packed / 100 % 100, packed % 100);
+    }
+
+    /**
+     * Whole years from {@code birth} to {@code today}, the same count
+     * {@code Period.between(birth, today).getYears()} gives.
+     */
+    public static int yearsBetween(int birth, int today) {
+        int years = today / 10000 - birth / 10000;
+        if (today % 10000 < birth % 10000) {
+            years--;
+        }
+        return years;
+    }
+
+    static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int twoDigits(CharSequence s, int at) {
+        int tens = s.charAt(at) - '0';
+        int units = s.charAt(at + 1) - '0';
+        if (tens < 0 || tens > 9 || units < 0 || units > 9) return -1;
+        return tens * 10 + units;
+    }
+}
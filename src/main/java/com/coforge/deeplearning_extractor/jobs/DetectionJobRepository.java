@@ -0,0 +1,155 @@
+package com.coforge.deeplearning_extractor.jobs;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.coforge.deeplearning_extractor.ollama.DetectionRunSummary;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.Updates;
+
+/**
+ * MongoDB storage for bulk detection jobs. One document per job holds status and
+ * running totals; results live in a separate collection keyed by (jobId, index)
+ * so they can be paged by index range and trimmed back to the last checkpoint.
+ */
+@Component
+public class DetectionJobRepository {
+
+    static final String JOBS_COLLECTION = "detection_jobs";
+    static final String RESULTS_COLLECTION = "detection_job_results";
+
+    private final MongoCollection<Document> jobs;
+    private final MongoCollection<Document> results;
+    private volatile boolean indexesCreated;
+
+    public DetectionJobRepository(MongoClient mongoClient,
+                                  @Value("${spring.data.mongodb.database:pnr_validator}") String database) {
+        this.jobs = mongoClient.getDatabase(database).getCollection(JOBS_COLLECTION);
+        this.results = mongoClient.getDatabase(database).getCollection(RESULTS_COLLECTION);
+    }
+
+    /**
+     * Created on first use rather than at startup so the app still boots when Mongo is down.
+     */
+    void ensureIndexes() {
+        if (indexesCreated) return;
+        results.createIndex(Indexes.ascending("jobId", "index"), new IndexOptions().unique(true));
+        jobs.createIndex(Indexes.ascending("status"));
+        jobs.createIndex(Indexes.descending("createdAt"));
+        indexesCreated = true;
+    }
+
+    public void create(String jobId, String fileName, String inputPath, long fileBytes) {
+        ensureIndexes();
+        Date now = new Date();
+        jobs.insertOne(new Document("_id", jobId)
+            .append("status", DetectionJobStatus.QUEUED.name())
+            .append("fileName", fileName)
+            .append("inputPath", inputPath)
+            .append("fileBytes", fileBytes)
+            .append("rowsProcessed", 0L)
+            .append("anomalies", 0L)
+            .append("errors", 0L)
+            .append("resolvedBy", new Document())
+            .append("createdAt", now)
+            .append("updatedAt", now));
+    }
+
+    public Document find(String jobId) {
+        return jobs.find(Filters.eq("_id", jobId)).first();
+    }
+
+    public List<Document> findRecent(int limit) {
+        return jobs.find().sort(Sorts.descending("createdAt")).limit(limit).into(new ArrayList<>());
+    }
+
+    /**
+     * Jobs that were queued or mid-run when the service last stopped.
+     */
+    public List<Document> findUnfinished() {
+        return jobs.find(Filters.in("status", DetectionJobStatus.QUEUED.name(), DetectionJobStatus.RUNNING.name()))
+            .sort(Sorts.ascending("createdAt"))
+            .into(new ArrayList<>());
+    }
+
+    public void markRunning(String jobId, long fromRow) {
+        Date now = new Date();
+        update(jobId,
+            Updates.set("status", DetectionJobStatus.RUNNING.name()),
+            Updates.min("startedAt", now),
+            Updates.set("runStartedAt", now),
+            Updates.set("runStartRow", fromRow),
+            Updates.unset("error"));
+    }
+
+    public void markCompleted(String jobId) {
+        update(jobId,
+            Updates.set("status", DetectionJobStatus.COMPLETED.name()),
+            Updates.set("completedAt", new Date()));
+    }
+
+    public void markFailed(String jobId, String error) {
+        update(jobId,
+            Updates.set("status", DetectionJobStatus.FAILED.name()),
+            Updates.set("error", error));
+    }
+
+    /**
+     * Drops results written after the last committed checkpoint, i.e. rows whose
+     * insert landed but whose progress update did not.
+     */
+    public void deleteResultsFrom(String jobId, long fromIndex) {
+        results.deleteMany(Filters.and(Filters.eq("jobId", jobId), Filters.gte("index", fromIndex)));
+    }
+
+    /**
+     * Commits one checkpoint: the results first, then the progress counters, so
+     * rowsProcessed never points past what is stored.
+     */
+    public void appendResults(String jobId, List<Document> rows, DetectionRunSummary counts) {
+        if (rows.isEmpty()) return;
+        results.insertMany(rows, new InsertManyOptions().ordered(true));
+
+        List<Bson> updates = new ArrayList<>();
+        updates.add(Updates.inc("rowsProcessed", counts.getRows()));
+        updates.add(Updates.inc("anomalies", counts.getAnomalies()));
+        updates.add(Updates.inc("errors", counts.getErrors()));
+        for (Map.Entry<String, Long> tier : counts.getResolvedBy().entrySet()) {
+            updates.add(Updates.inc("resolvedBy." + tier.getKey(), tier.getValue()));
+        }
+        update(jobId, updates.toArray(new Bson[0]));
+    }
+
+    /**
+     * Results with index in [offset, offset + limit), in row order.
+     */
+    public List<Document> findResults(String jobId, long offset, int limit) {
+        return results.find(Filters.and(
+                Filters.eq("jobId", jobId),
+                Filters.gte("index", offset),
+                Filters.lt("index", offset + limit)))
+            .sort(Sorts.ascending("index"))
+            .projection(Projections.excludeId())
+            .into(new ArrayList<>());
+    }
+
+    private void update(String jobId, Bson... updates) {
+        List<Bson> all = new ArrayList<>(List.of(updates));
+        all.add(Updates.set("updatedAt", new Date()));
+        jobs.updateOne(Filters.eq("_id", jobId), Updates.combine(all));
+    }
+}
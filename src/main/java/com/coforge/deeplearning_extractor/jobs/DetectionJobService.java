@@ -0,0 +1,273 @@
+package com.coforge.deeplearning_extractor.jobs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.coforge.deeplearning_extractor.autoencoder.JsonManifestReader;
+import com.coforge.deeplearning_extractor.ollama.BatchAnomalyDetectionService;
+import com.coforge.deeplearning_extractor.ollama.DetectionRunSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs bulk detection as background jobs that outlive the upload request.
+ *
+ * The manifest is spooled to {@code detection.jobs.dir} and streamed through the
+ * bulk detection path; every {@code detection.jobs.commit-interval} rows the
+ * results and counters are committed to MongoDB. After a restart, jobs that were
+ * queued or running pick up again from the last committed row.
+ */
+@Service
+public class DetectionJobService {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private BatchAnomalyDetectionService batchService;
+
+    @Autowired
+    private DetectionJobRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Path jobsDir;
+    private final int commitInterval;
+    private final ExecutorService executor;
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public DetectionJobService(@Value("${detection.jobs.dir:${java.io.tmpdir}/pnr-detection-jobs}") String jobsDir,
+                               @Value("${detection.jobs.commit-interval:500}") int commitInterval,
+                               @Value("${detection.jobs.max-concurrent:2}") int maxConcurrent) {
+        this.jobsDir = Path.of(jobsDir);
+        this.commitInterval = Math.max(1, commitInterval);
+        this.executor = Executors.newFixedThreadPool(Math.max(1, maxConcurrent),
+            Thread.ofVirtual().name("detection-job-", 0).factory());
+    }
+
+    /**
+     * Spools the upload to disk, records the job and queues it. Returns the job view.
+     */
+    public Map<String, Object> submit(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty!");
+        }
+        String jobId = UUID.randomUUID().toString();
+        Files.createDirectories(jobsDir);
+        Path input = jobsDir.resolve(jobId + ".json");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, input);
+        }
+
+        repository.create(jobId, file.getOriginalFilename(), input.toString(), file.getSize());
+        start(jobId);
+        return getJob(jobId);
+    }
+
+    /**
+     * Restarts a failed or interrupted job from its last checkpoint.
+     * Returns false when the job is unknown, finished or already running.
+     */
+    public boolean resume(String jobId) {
+        Document job = repository.find(jobId);
+        if (job == null || DetectionJobStatus.COMPLETED.name().equals(job.getString("status"))) {
+            return false;
+        }
+        return start(jobId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        // Off the startup thread, so an unreachable Mongo does not hold up boot
+        executor.execute(this::resumeInterrupted);
+    }
+
+    void resumeInterrupted() {
+        try {
+            for (Document job : repository.findUnfinished()) {
+                String jobId = job.getString("_id");
+                System.out.println("Resuming detection job " + jobId + " from row " + job.get("rowsProcessed"));
+                start(jobId);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not resume detection jobs: " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getJob(String jobId) {
+        Document job = repository.find(jobId);
+        return job != null ? toView(job) : null;
+    }
+
+    public List<Map<String, Object>> listJobs(int limit) {
+        List<Map<String, Object>> views = new ArrayList<>();
+        for (Document job : repository.findRecent(Math.min(Math.max(1, limit), MAX_PAGE_SIZE))) {
+            views.add(toView(job));
+        }
+        return views;
+    }
+
+    /**
+     * One page of committed results, ordered by row index.
+     */
+    public Map<String, Object> getResults(String jobId, long offset, int limit) {
+        Document job = repository.find(jobId);
+        if (job == null) return null;
+
+        long from = Math.max(0, offset);
+        int size = Math.min(Math.max(1, limit), MAX_PAGE_SIZE);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Document stored : repository.findResults(jobId, from, size)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("index", stored.get("index"));
+            row.putAll(stored.get("result", Document.class));
+            rows.add(row);
+        }
+
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("jobId", jobId);
+        page.put("status", job.getString("status"));
+        page.put("offset", from);
+        page.put("limit", size);
+        page.put("rowsProcessed", job.get("rowsProcessed"));
+        page.put("results", rows);
+        return page;
+    }
+
+    private boolean start(String jobId) {
+        if (!activeJobs.add(jobId)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                run(jobId);
+            } finally {
+                activeJobs.remove(jobId);
+            }
+        });
+        return true;
+    }
+
+    private void run(String jobId) {
+        try {
+            Document job = repository.find(jobId);
+            long committedRows = job.get("rowsProcessed", Number.class).longValue();
+            Path input = Path.of(job.getString("inputPath"));
+
+            repository.deleteResultsFrom(jobId, committedRows);
+            repository.markRunning(jobId, committedRows);
+
+            try (JsonManifestReader reader = new JsonManifestReader(Files.newInputStream(input), objectMapper)) {
+                // Rows before the checkpoint are stepped over without being bound or analyzed
+                reader.skip(committedRows);
+                Checkpoint checkpoint = new Checkpoint(jobId, committedRows);
+                batchService.analyzePassengers(reader, checkpoint::add);
+                checkpoint.commit();
+            }
+
+            repository.markCompleted(jobId);
+            Files.deleteIfExists(input);
+        } catch (Exception e) {
+            System.err.println("Detection job " + jobId + " failed: " + e.getMessage());
+            try {
+                repository.markFailed(jobId, e.getMessage());
+            } catch (Exception markError) {
+                System.err.println("Could not record failure of job " + jobId + ": " + markError.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Object> toView(Document job) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("jobId", job.getString("_id"));
+        view.put("status", job.getString("status"));
+        view.put("fileName", job.getString("fileName"));
+        view.put("fileBytes", job.get("fileBytes"));
+        view.put("rowsProcessed", job.get("rowsProcessed"));
+        view.put("anomalies", job.get("anomalies"));
+        view.put("errors", job.get("errors"));
+        view.put("resolvedBy", job.get("resolvedBy"));
+        view.put("createdAt", job.getDate("createdAt"));
+        view.put("startedAt", job.getDate("startedAt"));
+        view.put("updatedAt", job.getDate("updatedAt"));
+        view.put("completedAt", job.getDate("completedAt"));
+
+        // Throughput of the current (or last) run, not counting rows done before a resume
+        Date runStartedAt = job.getDate("runStartedAt");
+        if (runStartedAt != null) {
+            long runStartRow = job.get("runStartRow", Number.class).longValue();
+            long rowsThisRun = job.get("rowsProcessed", Number.class).longValue() - runStartRow;
+            Date runEnd = DetectionJobStatus.RUNNING.name().equals(job.getString("status"))
+                ? new Date() : job.getDate("updatedAt");
+            long elapsedMs = Math.max(0, runEnd.getTime() - runStartedAt.getTime());
+            view.put("resumedFromRow", runStartRow);
+            view.put("elapsedMs", elapsedMs);
+            view.put("rowsPerSecond", elapsedMs > 0 ? rowsThisRun * 1000.0 / elapsedMs : 0.0);
+        }
+        if (job.containsKey("error")) {
+            view.put("error", job.getString("error"));
+        }
+        return view;
+    }
+
+    /**
+     * Buffers results in row order and commits them every {@code commitInterval} rows.
+     * Only used from the thread driving the job.
+     */
+    private final class Checkpoint {
+        private final String jobId;
+        private long nextIndex;
+        private List<Document> pending = new ArrayList<>();
+        private DetectionRunSummary counts = new DetectionRunSummary();
+
+        private Checkpoint(String jobId, long nextIndex) {
+            this.jobId = jobId;
+            this.nextIndex = nextIndex;
+        }
+
+        void add(Map<String, Object> result) {
+            try {
+                Document stored = Document.parse(objectMapper.writeValueAsString(result));
+                pending.add(new Document("jobId", jobId).append("index", nextIndex++).append("result", stored));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not serialize result " + nextIndex + ": " + e.getMessage(), e);
+            }
+            counts.record(result);
+            if (pending.size() >= commitInterval) {
+                commit();
+            }
+        }
+
+        void commit() {
+            repository.appendResults(jobId, pending, counts);
+            pending = new ArrayList<>();
+            counts = new DetectionRunSummary();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
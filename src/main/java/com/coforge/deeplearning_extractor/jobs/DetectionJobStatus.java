@@ -0,0 +1,12 @@
+package com.coforge.deeplearning_extractor.jobs;
+
+public enum DetectionJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
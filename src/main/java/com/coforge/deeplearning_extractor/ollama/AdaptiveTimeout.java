@@ -0,0 +1,81 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Derives the generate-call timeout from recently observed latencies instead of
+ * a fixed two minutes. Keeps a ring buffer of per-passenger latencies and times
+ * a call out at {@code multiplier} x the chosen percentile, clamped to
+ * [{@code minTimeoutMs}, {@code maxTimeoutMs}]. Until enough samples exist the
+ * maximum is used.
+ */
+public class AdaptiveTimeout {
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final long[] samples;
+    private final double percentile;
+    private final double multiplier;
+    private final long minTimeoutMs;
+    private final long maxTimeoutMs;
+
+    private int next;
+    private int count;
+
+    public AdaptiveTimeout(int windowSize, double percentile, double multiplier,
+                           long minTimeoutMs, long maxTimeoutMs) {
+        this.samples = new long[Math.max(MIN_SAMPLES, windowSize)];
+        this.percentile = percentile;
+        this.multiplier = multiplier;
+        this.minTimeoutMs = minTimeoutMs;
+        this.maxTimeoutMs = maxTimeoutMs;
+    }
+
+    /**
+     * Records a call that analyzed {@code rows} passengers. Calls that timed
+     * out are recorded at their timeout, so slow periods raise the percentile
+     * instead of dropping out of the window.
+     */
+    public synchronized void record(long latencyMs, int rows) {
+        samples[next] = latencyMs / Math.max(1, rows);
+        next = (next + 1) % samples.length;
+        if (count < samples.length) count++;
+    }
+
+    /**
+     * Timeout for a call that analyzes {@code rows} passengers.
+     */
+    public Duration timeoutFor(int rows) {
+        long perRow = percentileMs();
+        if (perRow < 0) {
+            return Duration.ofMillis(maxTimeoutMs);
+        }
+        long timeout = (long) (perRow * multiplier * Math.max(1, rows));
+        return Duration.ofMillis(Math.min(maxTimeoutMs, Math.max(minTimeoutMs, timeout)));
+    }
+
+    /**
+     * Per-passenger latency at the configured percentile, or -1 while warming up.
+     */
+    public synchronized long percentileMs() {
+        if (count < MIN_SAMPLES) return -1;
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        synchronized (this) {
+            status.put("samples", count);
+        }
+        status.put("percentile", percentile);
+        status.put("percentileLatencyMs", percentileMs());
+        status.put("currentTimeoutMs", timeoutFor(1).toMillis());
+        return status;
+    }
+}
@@ -0,0 +1,104 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prompt text for the Ollama analysis calls.
+ *
+ * Everything that is the same for every passenger lives in the system prompts and
+ * is sent byte-for-byte identical on each request. Ollama renders the system
+ * message first, so those tokens form a stable prefix that the runner can reuse
+ * from its KV cache; only the short per-passenger user prompt is evaluated fresh.
+ */
+final class AnalysisPrompts {
+
+    private static final String ANALYSIS_GUIDELINES = """
+        IMPORTANT: Consider cultural diversity - names like Anamika, Kumar, Zhang, Mohammed, etc. are legitimate names from different cultures.
+
+        Focus on:
+        - Obviously fake names (Test User, John Doe, Admin, etc.)
+        - Invalid date formats or impossible dates
+        - Invalid country codes or geographic inconsistencies
+        - Suspicious booking patterns or data combinations
+        - Technical data corruption or formatting issues
+
+        DO NOT flag legitimate names from different cultures as suspicious.""";
+
+    static final String SYSTEM_PROMPT = """
+        You are an expert airline security analyst. Analyze the passenger data you are given for anomalies.
+        You receive the passenger data and the rule-based analysis for that passenger.
+
+        %s
+
+        You MUST respond with ONLY valid JSON in this exact format (no additional text):
+        {
+          "ollamaAnomaly": false,
+          "confidence": 0.0,
+          "reasoning": "Normal passenger data with legitimate international name",
+          "concerns": [],
+          "recommendation": "ALLOW"
+        }
+        """.formatted(ANALYSIS_GUIDELINES);
+
+    static final String BATCH_SYSTEM_PROMPT = """
+        You are an expert airline security analyst. Analyze each passenger in the list you are given for anomalies.
+        Each entry has an index, the passenger data and the rule-based analysis for that passenger.
+
+        %s
+
+        You MUST respond with ONLY valid JSON containing exactly one result per passenger,
+        using the same index as the input entry (no additional text):
+        {
+          "results": [
+            {
+              "index": 0,
+              "ollamaAnomaly": false,
+              "confidence": 0.0,
+              "reasoning": "Normal passenger data with legitimate international name",
+              "concerns": [],
+              "recommendation": "ALLOW"
+            }
+          ]
+        }
+        """.formatted(ANALYSIS_GUIDELINES);
+
+    // JSON schema for one batch entry, passed as Ollama's structured output format
+    private static final Map<String, Object> VERDICT_SCHEMA = Map.of(
+        "type", "object",
+        "properties", Map.of(
+            "index", Map.of("type", "integer"),
+            "ollamaAnomaly", Map.of("type", "boolean"),
+            "confidence", Map.of("type", "number"),
+            "reasoning", Map.of("type", "string"),
+            "concerns", Map.of("type", "array", "items", Map.of("type", "string")),
+            "recommendation", Map.of("type", "string")
+        ),
+        "required", List.of("index", "ollamaAnomaly", "confidence", "reasoning", "concerns", "recommendation")
+    );
+
+    static final Map<String, Object> BATCH_RESPONSE_SCHEMA = Map.of(
+        "type", "object",
+        "properties", Map.of("results", Map.of("type", "array", "items", VERDICT_SCHEMA)),
+        "required", List.of("results")
+    );
+
+    private AnalysisPrompts() {
+    }
+
+    static String passengerPrompt(String passengerData, String extractorResults) {
+        return "Passenger Data: " + passengerData + "\nRule-based Analysis: " + extractorResults;
+    }
+
+    static String batchPrompt(List<String> passengerJsons, List<String> extractorResults) {
+        StringBuilder passengers = new StringBuilder("Passengers: [");
+        for (int i = 0; i < passengerJsons.size(); i++) {
+            if (i > 0) passengers.append(',');
+            passengers.append("{\"index\":").append(i)
+                .append(",\"passenger\":").append(passengerJsons.get(i))
+                .append(",\"ruleBasedAnalysis\":").append(extractorResults.get(i))
+                .append('}');
+        }
+        return passengers.append(']').toString();
+    }
+}
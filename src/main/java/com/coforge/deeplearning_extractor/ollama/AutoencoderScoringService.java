@@ -0,0 +1,252 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import com.coforge.deeplearning_extractor.autoencoder.DL4JAutoencoderModel;
+import com.coforge.deeplearning_extractor.autoencoder.DenseNetwork;
+import com.coforge.deeplearning_extractor.autoencoder.FeatureExtractor;
+import com.coforge.deeplearning_extractor.autoencoder.PreparedRow;
+import com.coforge.deeplearning_extractor.autoencoder.ThresholdCalibration;
+import com.mongodb.client.MongoClient;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * The autoencoder pre-filter. The trained model is loaded at startup, from
+ * MongoDB when {@code autoencoder.mongo.model-id} is set and otherwise from
+ * {@code autoencoder.model-location}, and can be replaced while running by
+ * the model registry. A row whose reconstruction error stays within the
+ * threshold looks like the traffic the model was trained on and does not
+ * need the LLM. The threshold is {@code autoencoder.threshold}
+ * when set, otherwise the one calibrated and saved with the model, otherwise
+ * 0.5. Scoring is off when no model is configured or the model does not take
+ * the vectors FeatureExtractor produces.
+ */
+@Service
+public class AutoencoderScoringService {
+
+    @Value("${autoencoder.model-location:}")
+    private String modelLocation = "";
+
+    @Value("${autoencoder.mongo.model-id:}")
+    private String mongoModelId = "";
+
+    // The shared, pooled client Boot builds from spring.data.mongodb.*
+    @Autowired
+    private MongoClient mongoClient;
+
+    @Value("${autoencoder.mongo.collection:models}")
+    private String mongoCollection = "models";
+
+    @Value("${spring.data.mongodb.database:pnr_validator}")
+    private String mongoDatabase = "pnr_validator";
+
+    private static final double DEFAULT_THRESHOLD = 0.5;
+
+    // Empty to use the threshold calibrated with the model
+    @Value("${autoencoder.threshold:}")
+    private String configuredThreshold = "";
+
+    @Value("${autoencoder.batch-size:256}")
+    private int batchSize = 256;
+
+    private volatile ActiveModel active;
+
+    /**
+     * A network with the threshold that goes with it. Swapped as one reference,
+     * so a batch is always scored and judged by the same model.
+     */
+    private static final class ActiveModel {
+        final DenseNetwork network;
+        final String source;
+        final double threshold;
+        final String thresholdSource;
+        final ThresholdCalibration calibration;
+
+        ActiveModel(DenseNetwork network, String source, double threshold, String thresholdSource,
+                    ThresholdCalibration calibration) {
+            this.network = network;
+            this.source = source;
+            this.threshold = threshold;
+            this.thresholdSource = thresholdSource;
+            this.calibration = calibration;
+        }
+    }
+
+    @PostConstruct
+    public void loadAtStartup() {
+        active = load();
+    }
+
+    public boolean isEnabled() {
+        return active != null;
+    }
+
+    public double getThreshold() {
+        ActiveModel current = active;
+        if (current != null) return current.threshold;
+        double configured = configuredThreshold();
+        return Double.isNaN(configured) ? DEFAULT_THRESHOLD : configured;
+    }
+
+    /**
+     * Rows the bulk path prepares and scores together.
+     */
+    public int getBatchSize() {
+        return Math.max(1, batchSize);
+    }
+
+    /**
+     * The row's error is within the threshold of the model that scored it, so
+     * that model has seen rows like it.
+     */
+    public boolean isWithinThreshold(PreparedRow row) {
+        if (!row.isScored()) return false;
+        double threshold = row.getReconstructionThreshold();
+        return row.getReconstructionError() <= (Double.isNaN(threshold) ? getThreshold() : threshold);
+    }
+
+    /**
+     * Scores one row unless it has been scored already.
+     */
+    public void score(PreparedRow row) {
+        if (active != null && !row.isScored()) {
+            score(List.of(row));
+        }
+    }
+
+    /**
+     * Reconstruction error for each row, in order, also stored on the rows.
+     * Rows that are {@code null} or whose features could not be extracted get
+     * {@code NaN}. Returns {@code null} when scoring is off.
+     */
+    public double[] score(List<PreparedRow> rows) {
+        ActiveModel current = active;
+        if (current == null) return null;
+
+        double[] errors = new double[rows.size()];
+        Arrays.fill(errors, Double.NaN);
+        double[][] features = new double[rows.size()][];
+        int[] positions = new int[rows.size()];
+        int usable = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                features[usable] = FeatureExtractor.getFeatures(rows.get(i));
+                positions[usable++] = i;
+            } catch (RuntimeException e) {
+                // Missing fields; the rule stage still reports this row
+            }
+        }
+        if (usable == 0) return errors;
+
+        double[] scored = current.network.reconstructionErrors(usable == features.length ? features : Arrays.copyOf(features, usable));
+        for (int i = 0; i < usable; i++) {
+            errors[positions[i]] = scored[i];
+            rows.get(positions[i]).setReconstructionError(scored[i], current.threshold);
+        }
+        return errors;
+    }
+
+    /**
+     * Replaces the scoring model without a pause: batches already running finish
+     * on the old network, the next one picks up the new. The threshold is
+     * resolved as at startup.
+     */
+    public void install(DenseNetwork network, ThresholdCalibration calibration, String source) {
+        int expected = FeatureExtractor.FEATURE_COUNT;
+        if (network.getInputSize() != expected) {
+            throw new IllegalArgumentException("Autoencoder " + source + " takes " + network.getInputSize()
+                + " features, rows have " + expected);
+        }
+        ActiveModel installed = activate(network, calibration, source);
+        active = installed;
+        System.out.println("Now scoring with autoencoder " + source + " (" + installed.thresholdSource
+            + " threshold " + installed.threshold + ")");
+    }
+
+    public Map<String, Object> getStatus() {
+        ActiveModel current = active;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", current != null);
+        status.put("source", current != null ? current.source : null);
+        status.put("threshold", getThreshold());
+        status.put("thresholdSource", current != null ? current.thresholdSource : null);
+        status.put("calibration", current != null && current.calibration != null ? current.calibration.toMap() : null);
+        status.put("batchSize", getBatchSize());
+        status.put("inputSize", FeatureExtractor.FEATURE_COUNT);
+        return status;
+    }
+
+    private ActiveModel load() {
+        boolean fromMongo = mongoModelId != null && !mongoModelId.isBlank();
+        if (!fromMongo && (modelLocation == null || modelLocation.isBlank())) {
+            System.out.println("No autoencoder configured, rows go from the rules straight to Ollama");
+            return null;
+        }
+        String description = fromMongo
+            ? "mongodb " + mongoDatabase + "." + mongoCollection + "/" + mongoModelId
+            : modelLocation;
+        try {
+            DL4JAutoencoderModel loaded = fromMongo ? loadFromMongo() : loadFromLocation();
+            int expected = FeatureExtractor.FEATURE_COUNT;
+            if (loaded.getInputSize() != expected) {
+                System.err.println("Autoencoder at " + description + " takes " + loaded.getInputSize()
+                    + " features, rows have " + expected + "; pre-filter disabled");
+                return null;
+            }
+            // Rows are scored on plain arrays, ND4J is only needed to read the saved model
+            ActiveModel loadedModel = activate(loaded.toDenseNetwork(), loaded.getCalibration(), description);
+            System.out.println("Loaded autoencoder from " + description + " (" + loadedModel.thresholdSource
+                + " threshold " + loadedModel.threshold + ")");
+            return loadedModel;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to load autoencoder from " + description + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private ActiveModel activate(DenseNetwork network, ThresholdCalibration calibration, String source) {
+        double configured = configuredThreshold();
+        if (!Double.isNaN(configured)) {
+            return new ActiveModel(network, source, configured, "configured", calibration);
+        }
+        if (calibration != null) {
+            return new ActiveModel(network, source, calibration.getThreshold(), "calibrated", calibration);
+        }
+        return new ActiveModel(network, source, DEFAULT_THRESHOLD, "default", null);
+    }
+
+    private DL4JAutoencoderModel loadFromLocation() throws IOException {
+        Resource resource = new DefaultResourceLoader().getResource(modelLocation);
+        try (InputStream in = resource.getInputStream()) {
+            return DL4JAutoencoderModel.restore(in, DEFAULT_THRESHOLD);
+        }
+    }
+
+    private DL4JAutoencoderModel loadFromMongo() throws IOException {
+        return DL4JAutoencoderModel.restoreFromMongo(mongoClient, mongoDatabase, mongoCollection, mongoModelId,
+            DEFAULT_THRESHOLD);
+    }
+
+    // NaN when no threshold is configured or it is not a number
+    private double configuredThreshold() {
+        if (configuredThreshold == null || configuredThreshold.isBlank()) return Double.NaN;
+        try {
+            return Double.parseDouble(configuredThreshold.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Ignoring autoencoder.threshold=" + configuredThreshold + ", not a number");
+            return Double.NaN;
+        }
+    }
+}
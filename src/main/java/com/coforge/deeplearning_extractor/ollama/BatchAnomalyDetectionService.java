@@ -0,0 +1,265 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.autoencoder.PreparedRow;
+import com.coforge.deeplearning_extractor.rules.RuleResult;
+
+import jakarta.annotation.PreDestroy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Runs detection for a whole manifest. Rule checks run for every row up front;
+ * rows that still need the LLM are fanned out on virtual threads, with at most
+ * {@code ollama.num-parallel} generate calls in flight so we match the slots
+ * Ollama was started with (OLLAMA_NUM_PARALLEL). Each slot analyzes up to
+ * {@code ollama.batch-size} passengers in one prompt. Before the rules, rows are
+ * prepared and scored by the autoencoder {@code autoencoder.batch-size} at a
+ * time. Results keep the input order.
+ */
+@Service
+public class BatchAnomalyDetectionService {
+
+    @Autowired
+    private OllamaAnomalyDetectionService detectionService;
+
+    @Autowired
+    private AutoencoderScoringService autoencoder;
+
+    private final ExecutorService executor;
+    private final Scheduler scheduler;
+    private final Semaphore ollamaSlots;
+    private final int numParallel;
+    private final int batchSize;
+    private final int streamWindow;
+
+    public BatchAnomalyDetectionService(@Value("${ollama.num-parallel:4}") int numParallel,
+                                        @Value("${ollama.batch-size:8}") int batchSize,
+                                        @Value("${ollama.stream-window:0}") int streamWindow) {
+        this.numParallel = Math.max(1, numParallel);
+        this.batchSize = Math.max(1, batchSize);
+        // Default window keeps every slot busy with a few batches queued behind it
+        this.streamWindow = streamWindow > 0 ? streamWindow : this.numParallel * this.batchSize * 4;
+        this.ollamaSlots = new Semaphore(this.numParallel, true);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.scheduler = Schedulers.fromExecutor(executor);
+    }
+
+    public List<Map<String, Object>> analyzePassengers(List<DataRow> rows) {
+        List<Map<String, Object>> results = new ArrayList<>(rows.size());
+        // Whole list is already in memory, so run the rule stage for every row before waiting on any
+        analyzePassengers(rows.iterator(), Integer.MAX_VALUE, results::add);
+        return results;
+    }
+
+    /**
+     * Streaming bulk path: rows are pulled from the iterator as the pipeline has
+     * room, at most {@code ollama.stream-window} rows are held at once, and each
+     * result is handed to {@code sink} in input order as soon as it and every row
+     * before it are done.
+     */
+    public DetectionRunSummary analyzePassengers(Iterator<DataRow> rows, Consumer<Map<String, Object>> sink) {
+        DetectionRunSummary summary = new DetectionRunSummary();
+        analyzePassengers(rows, streamWindow, result -> {
+            summary.record(result);
+            sink.accept(result);
+        });
+        return summary;
+    }
+
+    /**
+     * Runs {@link #analyzePassengers(Iterator, Consumer)} on a virtual thread, for
+     * callers that stream results back while the request thread is released.
+     */
+    public CompletableFuture<DetectionRunSummary> analyzePassengersAsync(Iterator<DataRow> rows,
+                                                                         Consumer<Map<String, Object>> sink) {
+        return CompletableFuture.supplyAsync(() -> analyzePassengers(rows, sink), executor);
+    }
+
+    private void analyzePassengers(Iterator<DataRow> rows, int window, Consumer<Map<String, Object>> sink) {
+        ArrayDeque<Slot> inFlight = new ArrayDeque<>();
+        PendingChunk chunk = new PendingChunk();
+        int scoringBatch = autoencoder.getBatchSize();
+        List<PreparedRow> prepared = new ArrayList<>(scoringBatch);
+        RuntimeException[] failures = new RuntimeException[scoringBatch];
+
+        while (rows.hasNext()) {
+            // A row that cannot be read aborts the run, a row that fails analysis does not
+            prepared.clear();
+            while (prepared.size() < scoringBatch && rows.hasNext()) {
+                DataRow row = rows.next();
+                try {
+                    prepared.add(PreparedRow.of(row));
+                    failures[prepared.size() - 1] = null;
+                } catch (RuntimeException e) {
+                    prepared.add(null);
+                    failures[prepared.size() - 1] = e;
+                }
+            }
+            // The whole chunk goes through the autoencoder in one call
+            autoencoder.score(prepared);
+
+            for (int i = 0; i < prepared.size(); i++) {
+                if (inFlight.size() >= window) {
+                    // The oldest row may still be waiting for its prompt batch to fill up
+                    if (inFlight.peekFirst().future == null) {
+                        submit(chunk);
+                        chunk = new PendingChunk();
+                    }
+                    sink.accept(await(inFlight.pollFirst().future));
+                }
+
+                PreparedRow row = prepared.get(i);
+                Slot slot = new Slot();
+                inFlight.addLast(slot);
+                if (row == null) {
+                    slot.future = CompletableFuture.completedFuture(detectionService.errorResult(failures[i]));
+                    continue;
+                }
+                try {
+                    RuleResult ruleResults = detectionService.performRuleBasedAnalysis(row);
+                    Map<String, Object> resolved = detectionService.resolveWithoutOllama(row, ruleResults);
+                    if (resolved != null) {
+                        slot.future = CompletableFuture.completedFuture(resolved);
+                        continue;
+                    }
+                    // Escalations are grouped into prompt batches as we go
+                    chunk.add(slot, row, ruleResults);
+                    if (chunk.size() >= batchSize) {
+                        submit(chunk);
+                        chunk = new PendingChunk();
+                    }
+                } catch (Exception e) {
+                    slot.future = CompletableFuture.completedFuture(detectionService.errorResult(e));
+                }
+            }
+        }
+        if (chunk.size() > 0) {
+            submit(chunk);
+        }
+
+        while (!inFlight.isEmpty()) {
+            sink.accept(await(inFlight.pollFirst().future));
+        }
+    }
+
+    /**
+     * Reactive bulk path: rows are cut into chunks of {@code ollama.batch-size}
+     * and each chunk runs the blocking {@link #analyzePassengers(List)} pipeline
+     * on a virtual thread, so the caller's thread is released while escalations
+     * are packed into prompt batches and share the {@code ollama.num-parallel}
+     * slots with every other path. Results are emitted in input order.
+     */
+    public Flux<Map<String, Object>> analyzePassengersReactive(Flux<DataRow> rows) {
+        return rows.buffer(batchSize)
+            .flatMapSequential(chunk -> Mono.fromCallable(() -> analyzePassengers(chunk)).subscribeOn(scheduler),
+                numParallel)
+            .flatMapIterable(results -> results);
+    }
+
+    /**
+     * One row through the same pipeline on a virtual thread, so a single
+     * reactive request waits for one of the {@code ollama.num-parallel} slots
+     * like the bulk paths do.
+     */
+    public Mono<Map<String, Object>> analyzePassengerReactive(DataRow row) {
+        return Mono.fromCallable(() -> analyzePassengers(List.of(row)).get(0)).subscribeOn(scheduler);
+    }
+
+    public int getNumParallel() {
+        return numParallel;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getAvailableSlots() {
+        return ollamaSlots.availablePermits();
+    }
+
+    private void submit(PendingChunk chunk) {
+        CompletableFuture<List<Map<String, Object>>> chunkFuture =
+            CompletableFuture.supplyAsync(() -> analyzeWithSlot(chunk), executor);
+        for (int i = 0; i < chunk.size(); i++) {
+            int position = i;
+            chunk.slots.get(i).future = chunkFuture.thenApply(results -> results.get(position));
+        }
+    }
+
+    private List<Map<String, Object>> analyzeWithSlot(PendingChunk chunk) {
+        try {
+            ollamaSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        try {
+            if (chunk.size() == 1) {
+                return List.of(detectionService.completeWithOllama(chunk.rows.get(0), chunk.ruleResults.get(0)));
+            }
+            return detectionService.completeWithOllamaBatch(chunk.rows, chunk.ruleResults);
+        } finally {
+            ollamaSlots.release();
+        }
+    }
+
+    private Map<String, Object> await(CompletableFuture<Map<String, Object>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return detectionService.errorResult(cause);
+        }
+    }
+
+    /**
+     * Output position of one row; the future is set once the row is resolved or submitted.
+     */
+    private static final class Slot {
+        private CompletableFuture<Map<String, Object>> future;
+    }
+
+    /**
+     * Escalated rows waiting to be sent to Ollama together, with their output slots.
+     */
+    private static final class PendingChunk {
+        private final List<Slot> slots = new ArrayList<>();
+        private final List<PreparedRow> rows = new ArrayList<>();
+        private final List<RuleResult> ruleResults = new ArrayList<>();
+
+        void add(Slot slot, PreparedRow row, RuleResult rules) {
+            slots.add(slot);
+            rows.add(row);
+            ruleResults.add(rules);
+        }
+
+        int size() {
+            return rows.size();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,61 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running totals for one bulk detection run, updated as each result is emitted.
+ * Only counts are kept, so it stays the same size however many rows go through.
+ */
+public class DetectionRunSummary {
+
+    private final long startNanos = System.nanoTime();
+    private long rows;
+    private long anomalies;
+    private long errors;
+    private final Map<String, Long> resolvedBy = new TreeMap<>();
+
+    public synchronized void record(Map<String, Object> result) {
+        rows++;
+        if (result.containsKey("error")) {
+            errors++;
+            return;
+        }
+        if (Boolean.TRUE.equals(result.get("overallAnomaly"))) {
+            anomalies++;
+        }
+        Object tier = result.get("resolvedBy");
+        if (tier != null) {
+            resolvedBy.merge(tier.toString(), 1L, Long::sum);
+        }
+    }
+
+    public synchronized long getRows() {
+        return rows;
+    }
+
+    public synchronized long getAnomalies() {
+        return anomalies;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    public synchronized Map<String, Long> getResolvedBy() {
+        return new TreeMap<>(resolvedBy);
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("rows", rows);
+        summary.put("anomalies", anomalies);
+        summary.put("errors", errors);
+        summary.put("resolvedBy", new LinkedHashMap<>(resolvedBy));
+        summary.put("elapsedMs", elapsedMs);
+        summary.put("rowsPerSecond", elapsedMs > 0 ? rows * 1000.0 / elapsedMs : 0.0);
+        return summary;
+    }
+}
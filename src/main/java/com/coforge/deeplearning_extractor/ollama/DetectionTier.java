@@ -0,0 +1,12 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+/**
+ * The stage of the detection pipeline that produced a row's final verdict.
+ */
+public enum DetectionTier {
+    CACHE,
+    RULES,
+    AUTOENCODER,
+    OLLAMA,
+    FALLBACK
+}
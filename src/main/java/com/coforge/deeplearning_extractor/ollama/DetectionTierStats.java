@@ -0,0 +1,40 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how many rows each {@link DetectionTier} resolved.
+ */
+public class DetectionTierStats {
+
+    private final EnumMap<DetectionTier, LongAdder> counters = new EnumMap<>(DetectionTier.class);
+
+    public DetectionTierStats() {
+        for (DetectionTier tier : DetectionTier.values()) {
+            counters.put(tier, new LongAdder());
+        }
+    }
+
+    public void record(DetectionTier tier) {
+        counters.get(tier).increment();
+    }
+
+    public long get(DetectionTier tier) {
+        return counters.get(tier).sum();
+    }
+
+    public Map<String, Long> snapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        long total = 0;
+        for (DetectionTier tier : DetectionTier.values()) {
+            long count = counters.get(tier).sum();
+            snapshot.put(tier.name(), count);
+            total += count;
+        }
+        snapshot.put("TOTAL", total);
+        return snapshot;
+    }
+}
@@ -0,0 +1,13 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+/**
+ * Decides which rows are sent to Ollama once the cheaper tiers have run.
+ */
+public enum EscalationPolicy {
+
+    /** Every row that is not cached goes to the LLM, rule violations included. */
+    ALWAYS,
+
+    /** Rows already flagged by a cheaper tier are decided there; only ambiguous rows reach the LLM. */
+    AMBIGUOUS_ONLY
+}
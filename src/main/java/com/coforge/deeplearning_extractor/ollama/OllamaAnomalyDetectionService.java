@@ -1,14 +1,23 @@
 package com.coforge.deeplearning_extractor.ollama;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import com.coforge.deeplearning_extractor.autoencoder.*;
+import com.coforge.deeplearning_extractor.reference.CountryInfo;
+import com.coforge.deeplearning_extractor.reference.ReferenceDataLoader;
+import com.coforge.deeplearning_extractor.rules.Rule;
+import com.coforge.deeplearning_extractor.rules.RuleEngine;
+import com.coforge.deeplearning_extractor.rules.RuleResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.Arrays;
 
 @Service
 public class OllamaAnomalyDetectionService {
@@ -16,81 +25,229 @@ public class OllamaAnomalyDetectionService {
     @Autowired
     private OllamaService ollamaService;
     
+    @Autowired
+    private VerdictCache verdictCache;
+    
+    @Autowired
+    private ReferenceDataLoader referenceData;
+    
+    @Autowired
+    private AutoencoderScoringService autoencoder;
+    
+    @Value("${detection.escalation-policy:AMBIGUOUS_ONLY}")
+    private EscalationPolicy escalationPolicy;
+    
+    private final DetectionTierStats tierStats = new DetectionTierStats();
+    
     private final IataCodeExtractor iataExtractor;
+    private final RuleEngine ruleEngine;
     private final ObjectMapper objectMapper;
     
     public OllamaAnomalyDetectionService() {
-        this.iataExtractor = new IataCodeExtractor("src/main/resources/countries.csv", 1);
+        this.iataExtractor = new IataCodeExtractor();
+        this.ruleEngine = new RuleEngine();
         this.objectMapper = new ObjectMapper();
     }
     
-    public Map<String, Object> analyzePassenger(DataRow passengerData) {
-        Map<String, Object> result = new LinkedHashMap<>();
-        
+    public Map<String, Object> analyzePassenger(DataRow row) {
         try {
-            Map<String, Object> ruleResults = performRuleBasedAnalysis(passengerData);
+            PreparedRow passengerData = PreparedRow.of(row);
+            RuleResult ruleResults = performRuleBasedAnalysis(passengerData);
             
-            Map<String, Object> ollamaResults = new HashMap<>();
-            if (ollamaService.isOllamaAvailable()) {
-                ollamaResults = performOllamaAnalysis(passengerData, ruleResults);
-            } else {
-                ollamaResults.put("ollamaAnomaly", false);
-                ollamaResults.put("confidence", 0.0);
-                ollamaResults.put("reasoning", "Ollama service not available");
-                ollamaResults.put("concerns", new String[]{});
-                ollamaResults.put("recommendation", "FALLBACK_TO_RULES");
+            Map<String, Object> resolved = resolveWithoutOllama(passengerData, ruleResults);
+            if (resolved != null) {
+                return resolved;
             }
             
-            result = combineAnalyses(passengerData, ruleResults, ollamaResults);
+            return completeWithOllama(passengerData, ruleResults);
             
         } catch (Exception e) {
-            result.put("error", "Analysis failed: " + e.getMessage());
-            result.put("fallbackToRules", true);
+            return errorResult(e);
         }
-        
-        return result;
     }
     
-    private Map<String, Object> performRuleBasedAnalysis(DataRow row) {
-        Map<String, Object> result = new LinkedHashMap<>();
+    /**
+     * Returns the final result when the row can be decided without an LLM call,
+     * or {@code null} when it has to be escalated to Ollama.
+     */
+    Map<String, Object> resolveWithoutOllama(PreparedRow passengerData, RuleResult ruleResults) {
+        Map<String, Object> cached = verdictCache.get(cacheKey(passengerData));
+        if (cached != null) {
+            return resolvedBy(DetectionTier.CACHE, withRequestFields(cached, passengerData));
+        }
         
-        boolean dateInvalid = DateExtractor.isInvalidDate(row.getDate());
-        boolean nameInvalid = NameExtractor.isNameInvalid(row.getName());
-        boolean ageInvalid = isAgeInvalid(row);
-        boolean cabinInvalid = isCabinClassInvalid(row.getCabinClass());
-        boolean iataInvalid = !iataExtractor.validIataCode(row);
+        // Bulk rows arrive already scored with the rest of their chunk
+        autoencoder.score(passengerData);
         
-        boolean ruleAnomaly = dateInvalid || nameInvalid || ageInvalid || cabinInvalid || iataInvalid;
+        // An LLM verdict cannot overturn a rule violation, so don't pay for one
+        if (escalationPolicy == EscalationPolicy.AMBIGUOUS_ONLY && ruleResults.isAnomaly()) {
+            return resolvedBy(DetectionTier.RULES,
+                combineAnalyses(passengerData, ruleResults, ruleDecidedResults(ruleResults)));
+        }
         
-        result.put("ruleBasedAnomaly", ruleAnomaly);
-        result.put("dateInvalid", dateInvalid);
-        result.put("nameInvalid", nameInvalid);
-        result.put("ageInvalid", ageInvalid);
-        result.put("cabinInvalid", cabinInvalid);
-        result.put("iataInvalid", iataInvalid);
-        result.put("age", FeatureExtractor.calculateAge(row));
+        // Rows the autoencoder reconstructs well look like normal traffic
+        if (escalationPolicy == EscalationPolicy.AMBIGUOUS_ONLY && autoencoder.isWithinThreshold(passengerData)) {
+            return resolvedBy(DetectionTier.AUTOENCODER,
+                combineAnalyses(passengerData, ruleResults, autoencoderDecidedResults(passengerData)));
+        }
         
+        if (ollamaService.isOllamaAvailable()) {
+            return null;
+        }
+        
+        Map<String, Object> ollamaResults = new HashMap<>();
+        ollamaResults.put("ollamaAnomaly", false);
+        ollamaResults.put("confidence", 0.0);
+        ollamaResults.put("reasoning", "Ollama service not available");
+        ollamaResults.put("concerns", new String[]{});
+        ollamaResults.put("recommendation", "FALLBACK_TO_RULES");
+        
+        return resolvedBy(DetectionTier.FALLBACK, combineAnalyses(passengerData, ruleResults, ollamaResults));
+    }
+    
+    Map<String, Object> completeWithOllama(PreparedRow passengerData, RuleResult ruleResults) {
+        Map<String, Object> ollamaResults = performOllamaAnalysis(passengerData, ruleResults);
+        return finishOllamaResult(passengerData, combineAnalyses(passengerData, ruleResults, ollamaResults));
+    }
+    
+    /**
+     * Sends several escalated rows to Ollama in one prompt. Rows the model leaves
+     * out of its answer, or answers with an unusable entry, are retried one by one.
+     */
+    List<Map<String, Object>> completeWithOllamaBatch(List<PreparedRow> rows, List<RuleResult> ruleResults) {
+        List<String> passengerJsons = new ArrayList<>(rows.size());
+        List<String> extractorJsons = new ArrayList<>(rows.size());
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                passengerJsons.add(toPassengerJson(rows.get(i), ruleResults.get(i)));
+                extractorJsons.add(toExtractorJson(ruleResults.get(i)));
+            }
+        } catch (Exception e) {
+            List<Map<String, Object>> results = new ArrayList<>(rows.size());
+            for (int i = 0; i < rows.size(); i++) {
+                results.add(completeWithOllama(rows.get(i), ruleResults.get(i)));
+            }
+            return results;
+        }
+        
+        List<String> verdicts = ollamaService.analyzePassengerBatch(passengerJsons, extractorJsons);
+        
+        List<Map<String, Object>> results = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            PreparedRow row = rows.get(i);
+            String verdict = verdicts.get(i);
+            if (verdict == null) {
+                results.add(completeWithOllama(row, ruleResults.get(i)));
+            } else {
+                Map<String, Object> ollamaResults = parseOllamaResponse(verdict);
+                results.add(finishOllamaResult(row, combineAnalyses(row, ruleResults.get(i), ollamaResults)));
+            }
+        }
+        return results;
+    }
+    
+    private Map<String, Object> finishOllamaResult(PreparedRow passengerData, Map<String, Object> result) {
+        boolean fellBack = "FALLBACK_TO_RULES".equals(result.get("recommendation"));
+        resolvedBy(fellBack ? DetectionTier.FALLBACK : DetectionTier.OLLAMA, result);
+        return cacheIfDecided(passengerData, result);
+    }
+    
+    private Map<String, Object> resolvedBy(DetectionTier tier, Map<String, Object> result) {
+        tierStats.record(tier);
+        result.put("resolvedBy", tier.name());
         return result;
     }
     
-    private Map<String, Object> performOllamaAnalysis(DataRow passengerData, 
-                                                      Map<String, Object> ruleResults) {
+    private Map<String, Object> ruleDecidedResults(RuleResult ruleResults) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ollamaAnomaly", false);
+        result.put("confidence", 1.0);
+        result.put("reasoning", "Rule-based checks flagged this passenger, LLM analysis skipped");
+        result.put("concerns", new String[]{determineAnomalyType(ruleResults, result)});
+        result.put("recommendation", "INVESTIGATE");
+        return result;
+    }
+    
+    private Map<String, Object> autoencoderDecidedResults(PreparedRow passengerData) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ollamaAnomaly", false);
+        result.put("confidence", 1.0);
+        result.put("reasoning", "Autoencoder reconstruction error " + passengerData.getReconstructionError()
+            + " is within threshold " + thresholdFor(passengerData) + ", LLM analysis skipped");
+        result.put("concerns", new String[]{});
+        result.put("recommendation", "ALLOW");
+        return result;
+    }
+    
+    private String cacheKey(PreparedRow passengerData) {
+        return VerdictCache.keyFor(passengerData, ollamaService.getModelName());
+    }
+    
+    /**
+     * Only verdicts the LLM actually produced are cached; fallbacks are retried
+     * so a recovered Ollama is picked up on the next request.
+     */
+    private Map<String, Object> cacheIfDecided(PreparedRow passengerData, Map<String, Object> result) {
+        if (!"FALLBACK_TO_RULES".equals(result.get("recommendation"))) {
+            verdictCache.put(cacheKey(passengerData), result);
+        }
+        return result;
+    }
+    
+    private Map<String, Object> withRequestFields(Map<String, Object> cached, PreparedRow prepared) {
+        // Key is normalized, echo back exactly what this request sent
+        DataRow passengerData = prepared.getRow();
+        cached.put("NAME", passengerData.getName());
+        cached.put("DATE", passengerData.getDate());
+        cached.put("IATA_code", passengerData.getIata());
+        cached.put("SeatNumber", passengerData.getSeatNumber());
+        cached.put("CabinClass", passengerData.getCabinClass());
+        cached.put("cacheHit", true);
+        return cached;
+    }
+    
+    Map<String, Object> errorResult(Throwable e) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("error", "Analysis failed: " + e.getMessage());
+        result.put("fallbackToRules", true);
+        return result;
+    }
+    
+    RuleResult performRuleBasedAnalysis(PreparedRow row) {
+        return ruleEngine.evaluate(row);
+    }
+    
+    private Map<String, Object> performOllamaAnalysis(PreparedRow passengerData, 
+                                                      RuleResult ruleResults) {
+        try {
+            String ollamaResponse = ollamaService.analyzePassengerData(
+                toPassengerJson(passengerData, ruleResults), toExtractorJson(ruleResults));
+            return parseOllamaResponse(ollamaResponse);
+        } catch (Exception e) {
+            return ollamaErrorResult(e);
+        }
+    }
+    
+    private String toPassengerJson(PreparedRow prepared, RuleResult ruleResults) throws JsonProcessingException {
+        DataRow passengerData = prepared.getRow();
+        return objectMapper.writeValueAsString(Map.of(
+            "name", passengerData.getName(),
+            "birthDate", passengerData.getDate(),
+            "iataCode", passengerData.getIata(),
+            "seatNumber", passengerData.getSeatNumber(),
+            "cabinClass", passengerData.getCabinClass(),
+            "calculatedAge", ruleResults.getAge()
+        ));
+    }
+    
+    private String toExtractorJson(RuleResult ruleResults) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(Map.of(
+            "ruleBasedResults", ruleResults.toMap()
+        ));
+    }
+    
+    private Map<String, Object> parseOllamaResponse(String ollamaResponse) {
         try {
-            String passengerJson = objectMapper.writeValueAsString(Map.of(
-                "name", passengerData.getName(),
-                "birthDate", passengerData.getDate(),
-                "iataCode", passengerData.getIata(),
-                "seatNumber", passengerData.getSeatNumber(),
-                "cabinClass", passengerData.getCabinClass(),
-                "calculatedAge", FeatureExtractor.calculateAge(passengerData)
-            ));
-            
-            String extractorResults = objectMapper.writeValueAsString(Map.of(
-                "ruleBasedResults", ruleResults
-            ));
-            
-            String ollamaResponse = ollamaService.analyzePassengerData(passengerJson, extractorResults);
-            
             System.out.println("DEBUG: Ollama raw response: " + ollamaResponse);
             
             JsonNode ollamaJson = objectMapper.readTree(ollamaResponse);
@@ -115,30 +272,35 @@ public class OllamaAnomalyDetectionService {
             return result;
             
         } catch (Exception e) {
-            Map<String, Object> errorResult = new LinkedHashMap<>();
-            errorResult.put("ollamaAnomaly", false);
-            errorResult.put("confidence", 0.0);
-            errorResult.put("reasoning", "Failed to analyze with Ollama: " + e.getMessage());
-            errorResult.put("concerns", new String[]{});
-            errorResult.put("recommendation", "FALLBACK_TO_RULES");
-            return errorResult;
+            return ollamaErrorResult(e);
         }
     }
     
-    private Map<String, Object> combineAnalyses(DataRow passengerData,
-                                                Map<String, Object> ruleResults,
+    private Map<String, Object> ollamaErrorResult(Throwable e) {
+        Map<String, Object> errorResult = new LinkedHashMap<>();
+        errorResult.put("ollamaAnomaly", false);
+        errorResult.put("confidence", 0.0);
+        errorResult.put("reasoning", "Failed to analyze with Ollama: " + e.getMessage());
+        errorResult.put("concerns", new String[]{});
+        errorResult.put("recommendation", "FALLBACK_TO_RULES");
+        return errorResult;
+    }
+    
+    private Map<String, Object> combineAnalyses(PreparedRow prepared,
+                                                RuleResult ruleResults,
                                                 Map<String, Object> ollamaResults) {
+        DataRow passengerData = prepared.getRow();
         Map<String, Object> result = new LinkedHashMap<>();
         
         result.put("NAME", passengerData.getName());
         result.put("DATE", passengerData.getDate());
         result.put("IATA_code", passengerData.getIata());
-        result.put("Age", ruleResults.get("age"));
+        result.put("Age", ruleResults.getAge());
         result.put("SeatNumber", passengerData.getSeatNumber());
         result.put("CabinClass", passengerData.getCabinClass());
         result.put("currentDateTime", "2025-07-30 05:28:36");
         
-        result.put("ruleBasedAnomaly", ruleResults.get("ruleBasedAnomaly"));
+        result.put("ruleBasedAnomaly", ruleResults.isAnomaly());
         result.put("ollamaAnomaly", ollamaResults.get("ollamaAnomaly"));
         
         boolean isAnomaly = determineOverallAnomaly(ruleResults, ollamaResults);
@@ -151,14 +313,30 @@ public class OllamaAnomalyDetectionService {
         result.put("aiConcerns", ollamaResults.get("concerns"));
         result.put("recommendation", ollamaResults.get("recommendation"));
         
-        result.put("IATA_valid", !((Boolean) ruleResults.get("iataInvalid")));
+        result.put("IATA_valid", !ruleResults.has(Rule.IATA_INVALID));
+        
+        // Looked up once when the row was prepared
+        CountryInfo country = prepared.getCountry();
+        result.put("IATA_country", country != null ? country.getName() : null);
+        result.put("IATA_continent", country != null ? country.getContinent() : null);
+        
+        if (prepared.isScored()) {
+            result.put("autoencoderScore", prepared.getReconstructionError());
+            result.put("autoencoderThreshold", thresholdFor(prepared));
+        }
         
         return result;
     }
     
-    private boolean determineOverallAnomaly(Map<String, Object> ruleResults,
+    // The threshold of the model that scored the row, which may since have been swapped out
+    private double thresholdFor(PreparedRow prepared) {
+        double threshold = prepared.getReconstructionThreshold();
+        return Double.isNaN(threshold) ? autoencoder.getThreshold() : threshold;
+    }
+
+    private boolean determineOverallAnomaly(RuleResult ruleResults,
                                           Map<String, Object> ollamaResults) {
-        boolean ruleAnomaly = (Boolean) ruleResults.get("ruleBasedAnomaly");
+        boolean ruleAnomaly = ruleResults.isAnomaly();
         boolean ollamaAnomaly = (Boolean) ollamaResults.get("ollamaAnomaly");
         double ollamaConfidence = (Double) ollamaResults.get("confidence");
         
@@ -171,13 +349,10 @@ public class OllamaAnomalyDetectionService {
         return false;
     }
     
-    private String determineAnomalyType(Map<String, Object> ruleResults,
+    private String determineAnomalyType(RuleResult ruleResults,
                                        Map<String, Object> ollamaResults) {
-        if ((Boolean) ruleResults.get("dateInvalid")) return "invalid_date";
-        if ((Boolean) ruleResults.get("nameInvalid")) return "invalid_name";
-        if ((Boolean) ruleResults.get("ageInvalid")) return "invalid_age";
-        if ((Boolean) ruleResults.get("cabinInvalid")) return "invalid_cabin";
-        if ((Boolean) ruleResults.get("iataInvalid")) return "invalid_iata";
+        Rule violation = ruleResults.firstViolation();
+        if (violation != null) return violation.getAnomalyType();
         
         if ((Boolean) ollamaResults.get("ollamaAnomaly")) {
             return "ai_detected_anomaly";
@@ -186,19 +361,33 @@ public class OllamaAnomalyDetectionService {
         return "none";
     }
     
-    private boolean isAgeInvalid(DataRow row) {
-        int age = FeatureExtractor.calculateAge(row);
-        return age < 12 || age > 100;
+    public boolean isOllamaAvailable() {
+        return ollamaService.isOllamaAvailable();
     }
     
-    private boolean isCabinClassInvalid(String cabinClass) {
-        if (cabinClass == null || cabinClass.trim().isEmpty()) return true;
-        String[] validClasses = {"A", "B", "C", "D", "E", "F", "ECONOMY", "BUSINESS", "FIRST"};
-        String upper = cabinClass.toUpperCase().trim();
-        return !Arrays.asList(validClasses).contains(upper);
+    /**
+     * Reloads the country table from its configured location. Cached verdicts
+     * were decided against the old table, so they are dropped.
+     */
+    public int reloadCountryCodes() throws IOException {
+        int loaded = referenceData.reload().size();
+        verdictCache.clear();
+        return loaded;
     }
-
-    public boolean isOllamaAvailable() {
-        return ollamaService.isOllamaAvailable();
+    
+    public CountryInfo lookupCountry(String code) {
+        return iataExtractor.lookup(code);
+    }
+    
+    public Map<String, Object> getCacheStats() {
+        return verdictCache.getStats();
+    }
+    
+    public Map<String, Object> getTierStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("escalationPolicy", escalationPolicy.name());
+        stats.put("resolvedBy", tierStats.snapshot());
+        stats.put("autoencoder", autoencoder.getStatus());
+        return stats;
     }
 }
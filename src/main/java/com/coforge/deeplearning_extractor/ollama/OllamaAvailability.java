@@ -0,0 +1,56 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.time.Instant;
+
+/**
+ * Immutable snapshot of the last Ollama availability probe.
+ * Published by {@link OllamaAvailabilityMonitor} and read without any I/O.
+ */
+public final class OllamaAvailability {
+
+    private final boolean reachable;
+    private final boolean modelPresent;
+    private final long latencyMs;
+    private final Instant checkedAt;
+    private final String lastError;
+
+    public OllamaAvailability(boolean reachable, boolean modelPresent, long latencyMs,
+                              Instant checkedAt, String lastError) {
+        this.reachable = reachable;
+        this.modelPresent = modelPresent;
+        this.latencyMs = latencyMs;
+        this.checkedAt = checkedAt;
+        this.lastError = lastError;
+    }
+
+    public static OllamaAvailability unknown() {
+        return new OllamaAvailability(false, false, -1, null, "Not probed yet");
+    }
+
+    /**
+     * Ollama answered and the configured model is installed.
+     */
+    public boolean isUsable() {
+        return reachable && modelPresent;
+    }
+
+    public boolean isReachable() {
+        return reachable;
+    }
+
+    public boolean isModelPresent() {
+        return modelPresent;
+    }
+
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+
+    public Instant getCheckedAt() {
+        return checkedAt;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+}
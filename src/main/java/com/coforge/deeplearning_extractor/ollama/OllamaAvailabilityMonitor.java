@@ -0,0 +1,116 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Keeps a cached view of whether each Ollama backend is up and has the configured
+ * model. The /api/tags probes run on a schedule so the detection path only reads
+ * the last published {@link OllamaAvailability} and never waits on the network.
+ */
+@Component
+public class OllamaAvailabilityMonitor {
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    private OllamaBackendPool backendPool;
+
+    @Value("${ollama.model:gemma3:4b}")
+    private String modelName;
+
+    @Value("${ollama.availability.probe-timeout-ms:3000}")
+    private long probeTimeoutMs;
+
+    public OllamaAvailabilityMonitor() {
+        this.webClient = WebClient.builder()
+            .codecs(configurer -> configurer.defaultCodecs().maxInMemorySize(1024 * 1024))
+            .build();
+        this.objectMapper = new ObjectMapper();
+    }
+
+    /**
+     * The best backend's state: the fastest usable one, or the first backend's
+     * state when none is usable.
+     */
+    public OllamaAvailability getAvailability() {
+        OllamaAvailability best = null;
+        for (OllamaBackend backend : backendPool.getBackends()) {
+            OllamaAvailability availability = backend.getAvailability();
+            if (availability.isUsable() && (best == null || availability.getLatencyMs() < best.getLatencyMs())) {
+                best = availability;
+            }
+        }
+        return best != null ? best : backendPool.getBackends().get(0).getAvailability();
+    }
+
+    public String getBaseUrl() {
+        return backendPool.getBackends().stream()
+            .map(OllamaBackend::getBaseUrl)
+            .collect(Collectors.joining(","));
+    }
+
+    public String getModelName() {
+        return modelName;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${ollama.availability.refresh-interval-ms:15000}")
+    public void refresh() {
+        for (OllamaBackend backend : backendPool.getBackends()) {
+            backend.setAvailability(probe(backend.getBaseUrl()));
+        }
+    }
+
+    /**
+     * Lets the request path report a failed generate call so the next probe
+     * is not the first to notice a backend went away.
+     */
+    public void markUnavailable(OllamaBackend backend, String reason) {
+        OllamaAvailability previous = backend.getAvailability();
+        backend.setAvailability(new OllamaAvailability(false, previous.isModelPresent(), previous.getLatencyMs(),
+            Instant.now(), reason));
+    }
+
+    private OllamaAvailability probe(String baseUrl) {
+        long start = System.nanoTime();
+        try {
+            String response = webClient.get()
+                .uri(baseUrl + "/api/tags")
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofMillis(probeTimeoutMs))
+                .block();
+            long latencyMs = (System.nanoTime() - start) / 1_000_000;
+
+            boolean hasModel = hasModel(response);
+            String error = hasModel ? null : "Model " + modelName + " is not installed";
+            return new OllamaAvailability(response != null, hasModel, latencyMs, Instant.now(), error);
+        } catch (Exception e) {
+            long latencyMs = (System.nanoTime() - start) / 1_000_000;
+            return new OllamaAvailability(false, false, latencyMs, Instant.now(), e.getMessage());
+        }
+    }
+
+    private boolean hasModel(String tagsResponse) throws Exception {
+        if (tagsResponse == null) return false;
+
+        JsonNode models = objectMapper.readTree(tagsResponse).path("models");
+        for (JsonNode model : models) {
+            if (modelName.equals(model.path("name").asText()) || modelName.equals(model.path("model").asText())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
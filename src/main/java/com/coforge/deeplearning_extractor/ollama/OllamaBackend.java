@@ -0,0 +1,80 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One Ollama instance in the {@link OllamaBackendPool}, with its own probe result,
+ * circuit breaker and count of requests currently in flight.
+ */
+public class OllamaBackend {
+
+    private final String baseUrl;
+    private final OllamaCircuitBreaker circuitBreaker;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicLong served = new AtomicLong();
+
+    private volatile OllamaAvailability availability = OllamaAvailability.unknown();
+
+    public OllamaBackend(String baseUrl, OllamaCircuitBreaker circuitBreaker) {
+        this.baseUrl = baseUrl;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * In rotation: the last probe found the model and the breaker is not open.
+     * Backends drop out on a failed probe or an open breaker and come back on
+     * the next good probe or successful half-open call.
+     */
+    public boolean isEligible() {
+        return availability.isUsable() && circuitBreaker.isCallPermitted();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public OllamaCircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public OllamaAvailability getAvailability() {
+        return availability;
+    }
+
+    public void setAvailability(OllamaAvailability availability) {
+        this.availability = availability;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    void acquired() {
+        outstanding.incrementAndGet();
+        served.incrementAndGet();
+    }
+
+    void released() {
+        outstanding.decrementAndGet();
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("url", baseUrl);
+        status.put("eligible", isEligible());
+        status.put("reachable", availability.isReachable());
+        status.put("modelPresent", availability.isModelPresent());
+        status.put("probeLatencyMs", availability.getLatencyMs());
+        status.put("lastChecked", String.valueOf(availability.getCheckedAt()));
+        if (availability.getLastError() != null) {
+            status.put("lastError", availability.getLastError());
+        }
+        status.put("outstanding", outstanding.get());
+        status.put("served", served.get());
+        status.put("circuitBreaker", circuitBreaker.getStatus());
+        return status;
+    }
+}
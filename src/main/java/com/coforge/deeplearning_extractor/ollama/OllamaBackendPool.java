@@ -0,0 +1,80 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The Ollama instances configured in {@code ollama.base-urls}. Requests go to the
+ * eligible backend with the fewest requests in flight; ties rotate so an idle
+ * pool spreads load evenly.
+ */
+public class OllamaBackendPool {
+
+    private final List<OllamaBackend> backends;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    public OllamaBackendPool(List<String> baseUrls, int failureThreshold, long openDurationMs) {
+        if (baseUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one Ollama base URL is required");
+        }
+        List<OllamaBackend> list = new ArrayList<>(baseUrls.size());
+        for (String url : baseUrls) {
+            list.add(new OllamaBackend(url.trim(), new OllamaCircuitBreaker(failureThreshold, openDurationMs)));
+        }
+        this.backends = List.copyOf(list);
+    }
+
+    public List<OllamaBackend> getBackends() {
+        return backends;
+    }
+
+    public boolean hasEligibleBackend() {
+        for (OllamaBackend backend : backends) {
+            if (backend.isEligible()) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Picks the least loaded eligible backend and takes a slot on its circuit
+     * breaker. Returns {@code null} when no backend can take the request. A
+     * non-null result must be handed back through {@link #release}.
+     */
+    public OllamaBackend acquire() {
+        int size = backends.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), size);
+
+        List<OllamaBackend> candidates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            OllamaBackend backend = backends.get((start + i) % size);
+            if (backend.isEligible()) {
+                candidates.add(backend);
+            }
+        }
+        // Stable sort keeps the rotated order between equally loaded backends
+        candidates.sort(Comparator.comparingInt(OllamaBackend::getOutstanding));
+
+        for (OllamaBackend backend : candidates) {
+            if (backend.getCircuitBreaker().tryAcquire()) {
+                backend.acquired();
+                return backend;
+            }
+        }
+        return null;
+    }
+
+    public void release(OllamaBackend backend) {
+        backend.released();
+    }
+
+    public List<Map<String, Object>> getStatus() {
+        List<Map<String, Object>> status = new ArrayList<>(backends.size());
+        for (OllamaBackend backend : backends) {
+            status.add(backend.getStatus());
+        }
+        return status;
+    }
+}
@@ -0,0 +1,125 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker around the Ollama generate calls.
+ *
+ * CLOSED lets everything through and counts consecutive failures. After
+ * {@code failureThreshold} failures it goes OPEN and callers fail fast to the
+ * rule-only result. Once {@code openDurationMs} has passed a single probe call is
+ * let through (HALF_OPEN); its outcome closes the breaker or opens it again.
+ */
+public class OllamaCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long rejectedCalls;
+    private long timesOpened;
+
+    public OllamaCircuitBreaker(int failureThreshold, long openDurationMs) {
+        this(failureThreshold, openDurationMs, System::currentTimeMillis);
+    }
+
+    public OllamaCircuitBreaker(int failureThreshold, long openDurationMs, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns {@code true} if the caller may send a request now. A {@code true}
+     * must be followed by exactly one of {@link #onSuccess}, {@link #onFailure}
+     * or {@link #onCancelled}.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt >= openDurationMs) {
+                    state = State.HALF_OPEN;
+                    probeInFlight = true;
+                    return true;
+                }
+                rejectedCalls++;
+                return false;
+            default:
+                if (!probeInFlight) {
+                    probeInFlight = true;
+                    return true;
+                }
+                rejectedCalls++;
+                return false;
+        }
+    }
+
+    /**
+     * Cheap check for callers that only want to know whether a request would be
+     * allowed, without taking the half-open probe slot.
+     */
+    public synchronized boolean isCallPermitted() {
+        if (state == State.OPEN) {
+            return clock.getAsLong() - openedAt >= openDurationMs;
+        }
+        return state == State.CLOSED || !probeInFlight;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                timesOpened++;
+            }
+            state = State.OPEN;
+            openedAt = clock.getAsLong();
+        }
+    }
+
+    /**
+     * The caller gave up on the request (e.g. the client went away); this says
+     * nothing about Ollama's health, so only the probe slot is released.
+     */
+    public synchronized void onCancelled() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", state.name());
+        status.put("consecutiveFailures", consecutiveFailures);
+        status.put("failureThreshold", failureThreshold);
+        status.put("openDurationMs", openDurationMs);
+        status.put("timesOpened", timesOpened);
+        status.put("rejectedCalls", rejectedCalls);
+        if (state != State.CLOSED) {
+            status.put("retryInMs", Math.max(0, openDurationMs - (clock.getAsLong() - openedAt)));
+        }
+        return status;
+    }
+}
@@ -1,22 +1,51 @@
 package com.coforge.deeplearning_extractor.ollama;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+import reactor.core.publisher.Mono;
 
 @Service
 public class OllamaService {
     
+    private static final String NO_BACKEND_MESSAGE = "No healthy Ollama backend available, using rule-based result";
+    
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
     
-    @Value("${ollama.base-url:http://localhost:11434}")
-    private String ollamaBaseUrl;
+    @Autowired
+    private OllamaAvailabilityMonitor availabilityMonitor;
+    
+    @Autowired
+    private OllamaBackendPool backendPool;
+    
+    @Autowired
+    private AdaptiveTimeout adaptiveTimeout;
+    
+    @Value("${ollama.model:gemma3:4b}")
+    private String modelName;
+    
+    // How long Ollama keeps the model loaded after a request, e.g. "30m" or "-1" for forever
+    @Value("${ollama.keep-alive:30m}")
+    private String keepAlive;
+    
+    @Value("${ollama.prewarm:false}")
+    private boolean prewarm;
     
     public OllamaService() {
         this.webClient = WebClient.builder()
@@ -25,51 +54,127 @@ public class OllamaService {
         this.objectMapper = new ObjectMapper();
     }
     
+    /**
+     * Reads the cached state published by {@link OllamaAvailabilityMonitor};
+     * no network call is made here.
+     */
     public boolean isOllamaAvailable() {
-        try {
-            String response = webClient.get()
-                .uri(ollamaBaseUrl + "/api/tags")
-                .retrieve()
-                .bodyToMono(String.class)
-                .timeout(Duration.ofSeconds(10))
-                .block();
-            
-            // Check if gemma3:4b model is available
-            boolean hasModel = response != null && response.contains("gemma3:4b");
-            System.out.println("Ollama available: " + (response != null) + ", has gemma3:4b: " + hasModel);
-            
-            return hasModel;
-        } catch (Exception e) {
-            System.err.println("Ollama not available: " + e.getMessage());
-            return false;
-        }
+        return backendPool.hasEligibleBackend();
+    }
+    
+    public Map<String, Object> getResilienceStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("backends", backendPool.getStatus());
+        status.put("timeout", adaptiveTimeout.getStatus());
+        return status;
+    }
+    
+    public OllamaAvailability getAvailability() {
+        return availabilityMonitor.getAvailability();
+    }
+    
+    public String getModelName() {
+        return modelName;
     }
     
     public String analyzePassengerData(String passengerJson, String extractorResults) {
-        try {
-            // Create a detailed prompt for anomaly detection
-            String prompt = buildAnalysisPrompt(passengerJson, extractorResults);
-            
-            Map<String, Object> requestBody = Map.of(
-                "model", "gemma3:4b", // Using your local model
-                "prompt", prompt,
-                "stream", false,
-                "format", "json",
-                "options", Map.of(
-                    "temperature", 0.1, // Lower temperature for more consistent responses
-                    "top_p", 0.8,
-                    "num_predict", 200  // Limit response length for faster processing
-                )
-            );
+        return analyzePassengerDataReactive(passengerJson, extractorResults).block();
+    }
+    
+    /**
+     * Non-blocking variant of {@link #analyzePassengerData}. Never errors:
+     * failures are mapped to the same FALLBACK_TO_RULES JSON the blocking call returns.
+     */
+    public Mono<String> analyzePassengerDataReactive(String passengerJson, String extractorResults) {
+        Map<String, Object> requestBody = generateRequest(AnalysisPrompts.SYSTEM_PROMPT,
+            AnalysisPrompts.passengerPrompt(passengerJson, extractorResults), "json", 200);
+        
+        return generate(requestBody, 1)
+            .map(response -> extractGeneratedJson(response, extractorResults))
+            .onErrorResume(e -> Mono.just(handleFailure(e)));
+    }
+    
+    /**
+     * Analyzes several passengers with one /api/generate call. The returned list is
+     * aligned with the input; an entry is {@code null} when the model omitted or garbled
+     * that passenger, and callers should retry those rows with {@link #analyzePassengerData}.
+     */
+    public List<String> analyzePassengerBatch(List<String> passengerJsons, List<String> extractorResults) {
+        int size = passengerJsons.size();
+        Map<String, Object> requestBody = generateRequest(AnalysisPrompts.BATCH_SYSTEM_PROMPT,
+            AnalysisPrompts.batchPrompt(passengerJsons, extractorResults),
+            AnalysisPrompts.BATCH_RESPONSE_SCHEMA, 200 * size);
+        
+        return generate(requestBody, size)
+            .map(response -> extractBatchVerdicts(response, size))
+            .onErrorResume(e -> Mono.just(new ArrayList<>(Collections.nCopies(size, handleFailure(e)))))
+            .block();
+    }
+    
+    /**
+     * Issues one /api/generate call on the least loaded healthy backend, under that
+     * backend's circuit breaker. Fails fast when no backend can take the call. The
+     * timeout follows recent latencies for {@code rows} passengers.
+     */
+    private Mono<String> generate(Map<String, Object> requestBody, int rows) {
+        return Mono.defer(() -> {
+            OllamaBackend backend = backendPool.acquire();
+            if (backend == null) {
+                return Mono.error(new IllegalStateException(NO_BACKEND_MESSAGE));
+            }
             
-            String response = webClient.post()
-                .uri(ollamaBaseUrl + "/api/generate")
+            OllamaCircuitBreaker circuitBreaker = backend.getCircuitBreaker();
+            long start = System.nanoTime();
+            Duration timeout = adaptiveTimeout.timeoutFor(rows);
+            return webClient.post()
+                .uri(backend.getBaseUrl() + "/api/generate")
                 .bodyValue(requestBody)
                 .retrieve()
                 .bodyToMono(String.class)
-                .timeout(Duration.ofSeconds(120)) // 2 minute timeout for gemma3:4b
-                .block();
-            
+                .switchIfEmpty(Mono.error(new IllegalStateException("Empty response from Ollama")))
+                .timeout(timeout)
+                .doOnSuccess(response -> {
+                    circuitBreaker.onSuccess();
+                    adaptiveTimeout.record((System.nanoTime() - start) / 1_000_000, rows);
+                })
+                .doOnError(e -> {
+                    circuitBreaker.onFailure();
+                    // A timed-out call took at least this long; leaving it out would pull the percentile down
+                    if (e instanceof TimeoutException) {
+                        adaptiveTimeout.record(timeout.toMillis(), rows);
+                    }
+                    if (e instanceof WebClientRequestException) {
+                        availabilityMonitor.markUnavailable(backend, e.getMessage());
+                    }
+                })
+                .doOnCancel(circuitBreaker::onCancelled)
+                .doFinally(signal -> backendPool.release(backend));
+        });
+    }
+    
+    private List<String> extractBatchVerdicts(String response, int size) {
+        List<String> verdicts = new ArrayList<>(Collections.nCopies(size, (String) null));
+        try {
+            String generatedText = objectMapper.readTree(response).get("response").asText();
+            JsonNode results = objectMapper.readTree(generatedText).path("results");
+            for (JsonNode item : results) {
+                if (!item.path("index").canConvertToInt() || !item.path("ollamaAnomaly").isBoolean()) {
+                    continue;
+                }
+                int index = item.get("index").asInt();
+                if (index >= 0 && index < size && verdicts.get(index) == null) {
+                    verdicts.set(index, item.toString());
+                }
+            }
+        } catch (Exception e) {
+            // Whole response unusable, every passenger goes back through the single-row path
+            System.err.println("Unparseable batch response from Ollama: " + e.getMessage());
+        }
+        return verdicts;
+    }
+    
+    private String extractGeneratedJson(String response, String extractorResults) {
+        try {
             // Parse Ollama response to extract the actual generated content
             JsonNode responseJson = objectMapper.readTree(response);
             String generatedText = responseJson.get("response").asText();
@@ -82,43 +187,67 @@ public class OllamaService {
                 // If the AI didn't return valid JSON, create a structured response
                 return createFallbackResponse(generatedText, extractorResults);
             }
-            
-        } catch (WebClientResponseException e) {
+        } catch (Exception e) {
+            return handleFailure(e);
+        }
+    }
+    
+    private String handleFailure(Throwable e) {
+        if (e instanceof WebClientRequestException) {
+            System.err.println("Ollama unreachable: " + e.getMessage());
+            return createErrorResponse("Ollama unreachable: " + e.getMessage());
+        }
+        if (e instanceof WebClientResponseException) {
             System.err.println("Ollama API error: " + e.getMessage());
             return createErrorResponse("Ollama API error: " + e.getMessage());
-        } catch (Exception e) {
-            System.err.println("Failed to analyze with Ollama: " + e.getMessage());
-            return createErrorResponse("Analysis failed: " + e.getMessage());
         }
+        System.err.println("Failed to analyze with Ollama: " + e.getMessage());
+        return createErrorResponse("Analysis failed: " + e.getMessage());
     }
     
-    private String buildAnalysisPrompt(String passengerData, String extractorResults) {
-        return String.format("""
-            You are an expert airline security analyst. Analyze this passenger data for anomalies.
-            
-            Passenger Data: %s
-            Rule-based Analysis: %s
-            
-            IMPORTANT: Consider cultural diversity - names like Anamika, Kumar, Zhang, Mohammed, etc. are legitimate names from different cultures.
-            
-            Focus on:
-            - Obviously fake names (Test User, John Doe, Admin, etc.)
-            - Invalid date formats or impossible dates
-            - Invalid country codes or geographic inconsistencies
-            - Suspicious booking patterns or data combinations
-            - Technical data corruption or formatting issues
-            
-            DO NOT flag legitimate names from different cultures as suspicious.
-            
-            You MUST respond with ONLY valid JSON in this exact format (no additional text):
-            {
-              "ollamaAnomaly": false,
-              "confidence": 0.0,
-              "reasoning": "Normal passenger data with legitimate international name",
-              "concerns": [],
-              "recommendation": "ALLOW"
-            }
-            """, passengerData, extractorResults);
+    /**
+     * Static instructions go in the system field so every request shares the same
+     * prompt prefix; only the passenger data differs between calls.
+     */
+    private Map<String, Object> generateRequest(String system, String prompt, Object format, int numPredict) {
+        return Map.of(
+            "model", modelName,
+            "system", system,
+            "prompt", prompt,
+            "stream", false,
+            "format", format,
+            "keep_alive", keepAlive,
+            "options", Map.of(
+                "temperature", 0.1, // Lower temperature for more consistent responses
+                "top_p", 0.8,
+                "num_predict", numPredict  // Limit response length for faster processing
+            )
+        );
+    }
+    
+    /**
+     * Loads the model and evaluates the shared system prompt once at startup so the
+     * first real passenger does not pay for model load and prefix evaluation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        if (!prewarm) return;
+        
+        Map<String, Object> requestBody = generateRequest(AnalysisPrompts.SYSTEM_PROMPT,
+            AnalysisPrompts.passengerPrompt("{}", "{}"), "json", 1);
+        for (OllamaBackend backend : backendPool.getBackends()) {
+            long start = System.nanoTime();
+            webClient.post()
+                .uri(backend.getBaseUrl() + "/api/generate")
+                .bodyValue(requestBody)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(Duration.ofMinutes(5))
+                .subscribe(
+                    response -> System.out.println("Ollama model " + modelName + " pre-warmed on "
+                        + backend.getBaseUrl() + " in " + (System.nanoTime() - start) / 1_000_000 + " ms"),
+                    e -> System.err.println("Ollama pre-warm failed on " + backend.getBaseUrl() + ": " + e.getMessage()));
+        }
     }
     
     private String createFallbackResponse(String aiResponse, String extractorResults) {
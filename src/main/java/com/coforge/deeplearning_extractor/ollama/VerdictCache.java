@@ -0,0 +1,158 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.coforge.deeplearning_extractor.autoencoder.CabinClass;
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.autoencoder.PreparedRow;
+
+/**
+ * Bounded LRU cache of combined detection results with a time-to-live.
+ * Keys are a SHA-256 over the normalized passenger fields plus the model name,
+ * so re-submitted PNRs and front-end retries skip the LLM entirely.
+ */
+@Component
+public class VerdictCache {
+
+    private static final char FIELD_SEPARATOR = '\u001F';
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public VerdictCache(@Value("${detection.cache.max-entries:10000}") int maxEntries,
+                        @Value("${detection.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Canonical key for a passenger record: fields are trimmed, codes are
+     * upper-cased the same way the rule checks compare them.
+     */
+    public static String keyFor(DataRow row, String modelName) {
+        return hash(normalize(row.getName(), false), normalize(row.getDate(), false),
+            normalize(row.getIata(), true), normalize(row.getSeatNumber(), true),
+            normalize(row.getCabinClass(), true), modelName);
+    }
+
+    /**
+     * Same key as {@link #keyFor(DataRow, String)}, reusing the fields the
+     * prepared row has already trimmed and resolved.
+     */
+    public static String keyFor(PreparedRow prepared, String modelName) {
+        DataRow row = prepared.getRow();
+        String iata = prepared.getIataCode();
+        CabinClass cabin = prepared.getCabinClass();
+        return hash(prepared.getName() != null ? prepared.getName() : "", normalize(row.getDate(), false),
+            iata != null ? iata : normalize(row.getIata(), true), normalize(prepared.getSeat(), true),
+            cabin != null ? cabin.name() : normalize(row.getCabinClass(), true), modelName);
+    }
+
+    private static String hash(String name, String date, String iata, String seat, String cabin, String modelName) {
+        StringBuilder canonical = new StringBuilder(96)
+            .append(name).append(FIELD_SEPARATOR)
+            .append(date).append(FIELD_SEPARATOR)
+            .append(iata).append(FIELD_SEPARATOR)
+            .append(seat).append(FIELD_SEPARATOR)
+            .append(cabin).append(FIELD_SEPARATOR)
+            .append(modelName);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String normalize(String value, boolean upperCase) {
+        if (value == null) return "";
+        String trimmed = value.trim();
+        return upperCase ? trimmed.toUpperCase(Locale.ROOT) : trimmed;
+    }
+
+    /**
+     * Returns a copy of the cached result, or {@code null} on a miss.
+     */
+    public Map<String, Object> get(String key) {
+        if (maxEntries <= 0) return null;
+
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (System.nanoTime() - entry.createdAt > ttlNanos) {
+                entries.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return new LinkedHashMap<>(entry.value);
+        }
+    }
+
+    public void put(String key, Map<String, Object> result) {
+        if (maxEntries <= 0) return;
+
+        Entry entry = new Entry(new LinkedHashMap<>(result), System.nanoTime());
+        synchronized (entries) {
+            entries.put(key, entry);
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlNanos / 1_000_000_000L);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private static final class Entry {
+        private final Map<String, Object> value;
+        private final long createdAt;
+
+        private Entry(Map<String, Object> value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+}
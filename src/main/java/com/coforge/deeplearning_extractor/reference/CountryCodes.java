@@ -0,0 +1,53 @@
+package com.coforge.deeplearning_extractor.reference;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The country table every extractor reads. {@link ReferenceDataLoader} publishes
+ * it at startup and on reload; code running outside Spring (training, tools)
+ * falls back to the bundled classpath copy on first use.
+ */
+public final class CountryCodes {
+
+    static final String BUNDLED_RESOURCE = "countries.csv";
+    static final int CODE_COLUMN = 1;
+
+    private static volatile CountryIndex current;
+
+    private CountryCodes() {
+    }
+
+    public static CountryIndex get() {
+        CountryIndex index = current;
+        if (index == null) {
+            synchronized (CountryCodes.class) {
+                if (current == null) {
+                    current = loadBundled();
+                }
+                index = current;
+            }
+        }
+        return index;
+    }
+
+    static void publish(CountryIndex index) {
+        current = index;
+    }
+
+    private static CountryIndex loadBundled() {
+        InputStream in = CountryCodes.class.getClassLoader().getResourceAsStream(BUNDLED_RESOURCE);
+        if (in == null) {
+            throw new IllegalStateException(BUNDLED_RESOURCE + " is not on the classpath");
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return CountryIndex.fromCsv(reader, CODE_COLUMN);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + BUNDLED_RESOURCE, e);
+        }
+    }
+}
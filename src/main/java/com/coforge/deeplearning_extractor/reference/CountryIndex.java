@@ -0,0 +1,112 @@
+package com.coforge.deeplearning_extractor.reference;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import au.com.bytecode.opencsv.CSVReader;
+
+/**
+ * Immutable lookup table for two-letter country codes. Every code maps to a
+ * fixed slot in a 26x26 grid, so membership is one bit test in a 676-bit set
+ * and the country details sit in an array at the same slot. Lookups are
+ * case-insensitive and allocate nothing.
+ */
+public final class CountryIndex {
+
+    private static final int SLOTS = 26 * 26;
+
+    private final long[] present = new long[(SLOTS + 63) / 64];
+    private final CountryInfo[] countries = new CountryInfo[SLOTS];
+    private final List<String> codes;
+
+    private CountryIndex(List<CountryInfo> entries) {
+        List<String> loaded = new ArrayList<>(entries.size());
+        for (CountryInfo country : entries) {
+            int slot = slotOf(country.getCode());
+            if (slot < 0 || countries[slot] != null) continue;
+            present[slot >>> 6] |= 1L << slot;
+            countries[slot] = country;
+            loaded.add(country.getCode());
+        }
+        this.codes = Collections.unmodifiableList(loaded);
+    }
+
+    public static CountryIndex of(List<CountryInfo> entries) {
+        return new CountryIndex(entries);
+    }
+
+    /**
+     * Reads a countries CSV. The code column is {@code codeColumn}; name and
+     * continent are taken from the columns headed "name" and "continent" when
+     * there is a header. Rows whose code is not two ASCII letters, the header
+     * included, are skipped.
+     */
+    public static CountryIndex fromCsv(Reader source, int codeColumn) throws IOException {
+        List<CountryInfo> entries = new ArrayList<>();
+        try (CSVReader reader = new CSVReader(source)) {
+            int nameColumn = -1;
+            int continentColumn = -1;
+            String[] line;
+            boolean first = true;
+            while ((line = reader.readNext()) != null) {
+                if (first) {
+                    first = false;
+                    for (int i = 0; i < line.length; i++) {
+                        if ("name".equalsIgnoreCase(line[i].trim())) nameColumn = i;
+                        if ("continent".equalsIgnoreCase(line[i].trim())) continentColumn = i;
+                    }
+                }
+                if (codeColumn >= line.length) continue;
+                String code = line[codeColumn].trim();
+                if (slotOf(code) < 0) continue;
+                entries.add(new CountryInfo(code.toUpperCase(),
+                    column(line, nameColumn), column(line, continentColumn)));
+            }
+        }
+        return new CountryIndex(entries);
+    }
+
+    public boolean contains(CharSequence code) {
+        int slot = slotOf(code);
+        return slot >= 0 && (present[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * The country for a code, or {@code null} when the code is unknown.
+     */
+    public CountryInfo lookup(CharSequence code) {
+        int slot = slotOf(code);
+        return slot >= 0 ? countries[slot] : null;
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    /**
+     * Codes in the order they were loaded.
+     */
+    public List<String> codes() {
+        return codes;
+    }
+
+    // Slot in the 26x26 grid, or -1 when the value is not exactly two ASCII letters
+    private static int slotOf(CharSequence code) {
+        if (code == null || code.length() != 2) return -1;
+        int first = letterIndex(code.charAt(0));
+        int second = letterIndex(code.charAt(1));
+        return (first < 0 || second < 0) ? -1 : first * 26 + second;
+    }
+
+    private static int letterIndex(char c) {
+        int upper = c & ~0x20;
+        return (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') ? upper - 'A' : -1;
+    }
+
+    private static String column(String[] line, int index) {
+        return index >= 0 && index < line.length ? line[index].trim() : null;
+    }
+}
@@ -0,0 +1,34 @@
+package com.coforge.deeplearning_extractor.reference;
+
+/**
+ * One row of the country reference data.
+ */
+public final class CountryInfo {
+
+    private final String code;
+    private final String name;
+    private final String continent;
+
+    public CountryInfo(String code, String name, String continent) {
+        this.code = code;
+        this.name = name;
+        this.continent = continent;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getContinent() {
+        return continent;
+    }
+
+    @Override
+    public String toString() {
+        return code + " (" + name + ", " + continent + ")";
+    }
+}
@@ -0,0 +1,88 @@
+package com.coforge.deeplearning_extractor.reference;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Loads the country reference data once at startup from
+ * {@code reference.countries.location} (the bundled classpath copy by default,
+ * or any {@code file:} path) and publishes it through {@link CountryCodes}.
+ * A missing or empty file stops startup instead of leaving every IATA code invalid.
+ */
+@Component
+public class ReferenceDataLoader {
+
+    private final Resource countriesLocation;
+
+    private volatile Map<String, Object> lastLoad = Map.of();
+    private long reloads;
+
+    public ReferenceDataLoader(@Value("${reference.countries.location:classpath:countries.csv}") Resource countriesLocation) {
+        this.countriesLocation = countriesLocation;
+    }
+
+    @PostConstruct
+    public void loadAtStartup() throws IOException {
+        load();
+    }
+
+    /**
+     * Re-reads the configured location and swaps the table in for every extractor.
+     * The previous table stays in place if the new one cannot be read or is empty.
+     */
+    public synchronized CountryIndex reload() throws IOException {
+        CountryIndex index = load();
+        reloads++;
+        return index;
+    }
+
+    public CountryIndex getCountries() {
+        return CountryCodes.get();
+    }
+
+    /**
+     * What the last load read, how long it took, and how many reloads there have been.
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(lastLoad);
+        synchronized (this) {
+            stats.put("reloads", reloads);
+        }
+        return stats;
+    }
+
+    private CountryIndex load() throws IOException {
+        long start = System.nanoTime();
+        CountryIndex index;
+        try (Reader reader = new InputStreamReader(countriesLocation.getInputStream(), StandardCharsets.UTF_8)) {
+            index = CountryIndex.fromCsv(reader, CountryCodes.CODE_COLUMN);
+        }
+        if (index.size() == 0) {
+            throw new IOException("No country codes found in " + countriesLocation.getDescription());
+        }
+        double loadMs = (System.nanoTime() - start) / 1_000_000.0;
+        CountryCodes.publish(index);
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("source", countriesLocation.getDescription());
+        stats.put("countryCodes", index.size());
+        stats.put("loadTimeMs", Math.round(loadMs * 100) / 100.0);
+        stats.put("loadedAt", String.valueOf(Instant.now()));
+        lastLoad = stats;
+
+        System.out.println("Loaded " + index.size() + " country codes from "
+            + countriesLocation.getDescription() + " in " + stats.get("loadTimeMs") + " ms");
+        return index;
+    }
+}
@@ -0,0 +1,115 @@
+package com.coforge.deeplearning_extractor.registry;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+
+/**
+ * MongoDB storage for versioned models. Archives go to a GridFS bucket, which
+ * has no 16 MB document limit; one document per (modelId, version) holds what
+ * is known about the archive, and one document per model id points at the
+ * version that is active, so every instance agrees on what to serve.
+ */
+@Component
+public class ModelRegistryRepository {
+
+    static final String VERSIONS_COLLECTION = "model_versions";
+    static final String ACTIVE_COLLECTION = "model_active";
+
+    private final MongoCollection<Document> versions;
+    private final MongoCollection<Document> active;
+    private final GridFSBucket blobs;
+    private volatile boolean indexesCreated;
+
+    public ModelRegistryRepository(MongoClient mongoClient,
+                                   @Value("${spring.data.mongodb.database:pnr_validator}") String database,
+                                   @Value("${model-registry.bucket:model_blobs}") String bucket) {
+        MongoDatabase db = mongoClient.getDatabase(database);
+        this.versions = db.getCollection(VERSIONS_COLLECTION);
+        this.active = db.getCollection(ACTIVE_COLLECTION);
+        this.blobs = GridFSBuckets.create(db, bucket);
+    }
+
+    /**
+     * Created on first use rather than at startup so the app still boots when Mongo is down.
+     */
+    void ensureIndexes() {
+        if (indexesCreated) return;
+        versions.createIndex(Indexes.ascending("modelId", "version"), new IndexOptions().unique(true));
+        indexesCreated = true;
+    }
+
+    /**
+     * One more than the highest version stored for {@code modelId}.
+     */
+    public int nextVersion(String modelId) {
+        ensureIndexes();
+        Document latest = versions.find(Filters.eq("modelId", modelId))
+            .sort(Sorts.descending("version"))
+            .projection(Projections.include("version"))
+            .first();
+        return latest == null ? 1 : latest.getInteger("version") + 1;
+    }
+
+    public ObjectId uploadArchive(String modelId, int version, byte[] archive) {
+        return blobs.uploadFromStream(modelId + "-v" + version + ".zip", new ByteArrayInputStream(archive));
+    }
+
+    public byte[] downloadArchive(ObjectId fileId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        blobs.downloadToStream(fileId, out);
+        return out.toByteArray();
+    }
+
+    public void deleteArchive(ObjectId fileId) {
+        blobs.delete(fileId);
+    }
+
+    /**
+     * Records a stored archive. Fails with a duplicate key error when another
+     * writer took the same version first.
+     */
+    public void insertVersion(Document version) {
+        ensureIndexes();
+        versions.insertOne(version.append("createdAt", new Date()));
+    }
+
+    public Document findVersion(String modelId, int version) {
+        return versions.find(Filters.and(Filters.eq("modelId", modelId), Filters.eq("version", version))).first();
+    }
+
+    public List<Document> findVersions(String modelId) {
+        return versions.find(Filters.eq("modelId", modelId))
+            .sort(Sorts.descending("version"))
+            .into(new ArrayList<>());
+    }
+
+    public Document findActive(String modelId) {
+        return active.find(Filters.eq("_id", modelId)).first();
+    }
+
+    public void setActive(String modelId, int version) {
+        active.replaceOne(Filters.eq("_id", modelId),
+            new Document("_id", modelId).append("version", version).append("promotedAt", new Date()),
+            new ReplaceOptions().upsert(true));
+    }
+}
@@ -0,0 +1,268 @@
+package com.coforge.deeplearning_extractor.registry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.coforge.deeplearning_extractor.autoencoder.DL4JAutoencoderModel;
+import com.coforge.deeplearning_extractor.autoencoder.DenseNetwork;
+import com.coforge.deeplearning_extractor.autoencoder.FeatureExtractor;
+import com.coforge.deeplearning_extractor.autoencoder.ThresholdCalibration;
+import com.coforge.deeplearning_extractor.ollama.AutoencoderScoringService;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+
+/**
+ * Versioned autoencoders for the pre-filter. Every registered archive gets the
+ * next version number and is kept; promoting a version records it as active
+ * in MongoDB and swaps it into {@link AutoencoderScoringService} without a
+ * pause. Deserialized networks are cached, so promoting back to a recent
+ * version does not read or parse the archive again. Other instances pick up a
+ * promotion on their next poll of {@code model-registry.poll-ms}.
+ */
+@Service
+public class ModelRegistryService {
+
+    private static final int MAX_REGISTER_ATTEMPTS = 3;
+
+    @Autowired
+    private ModelRegistryRepository repository;
+
+    @Autowired
+    private AutoencoderScoringService scoring;
+
+    // Model served by the pre-filter; empty leaves the pre-filter to autoencoder.* settings
+    @Value("${model-registry.model-id:}")
+    private String modelId = "";
+
+    @Value("${model-registry.cache-size:3}")
+    private int cacheSize = 3;
+
+    private final Map<String, LoadedModel> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private long cacheHits;
+    private long cacheMisses;
+
+    private volatile LoadedModel active;
+
+    /**
+     * A deserialized version, ready to install.
+     */
+    static final class LoadedModel {
+        final String modelId;
+        final int version;
+        final DenseNetwork network;
+        final ThresholdCalibration calibration;
+        final long sizeBytes;
+        final long loadMillis;
+        final Date loadedAt = new Date();
+
+        LoadedModel(String modelId, int version, DenseNetwork network, ThresholdCalibration calibration,
+                    long sizeBytes, long loadMillis) {
+            this.modelId = modelId;
+            this.version = version;
+            this.network = network;
+            this.calibration = calibration;
+            this.sizeBytes = sizeBytes;
+            this.loadMillis = loadMillis;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("modelId", modelId);
+            map.put("version", version);
+            map.put("sizeBytes", sizeBytes);
+            map.put("loadMillis", loadMillis);
+            map.put("loadedAt", loadedAt);
+            map.put("calibration", calibration != null ? calibration.toMap() : null);
+            return map;
+        }
+    }
+
+    /**
+     * Stores {@code archive} as the next version of {@code modelId}, without
+     * promoting it. The archive is parsed first, so a file that is not a
+     * DL4JAutoencoderModel for FeatureExtractor rows is rejected before
+     * anything is written.
+     */
+    public Map<String, Object> register(String modelId, byte[] archive, String description) throws IOException {
+        long started = System.nanoTime();
+        DL4JAutoencoderModel model = DL4JAutoencoderModel.restore(archive, 0.5);
+        checkInputSize(model.getInputSize(), modelId);
+        long loadMillis = (System.nanoTime() - started) / 1_000_000;
+
+        for (int attempt = 1; ; attempt++) {
+            int version = repository.nextVersion(modelId);
+            ObjectId fileId = repository.uploadArchive(modelId, version, archive);
+            Document record = new Document("modelId", modelId)
+                .append("version", version)
+                .append("fileId", fileId)
+                .append("sizeBytes", (long) archive.length)
+                .append("inputSize", model.getInputSize())
+                .append("threshold", model.getCalibration() != null ? model.getCalibration().getThreshold() : null)
+                .append("description", description);
+            try {
+                repository.insertVersion(record);
+            } catch (MongoWriteException e) {
+                repository.deleteArchive(fileId);
+                // Another instance registered the same version number first
+                if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY && attempt < MAX_REGISTER_ATTEMPTS) {
+                    continue;
+                }
+                throw e;
+            }
+            remember(new LoadedModel(modelId, version, model.toDenseNetwork(), model.getCalibration(),
+                archive.length, loadMillis));
+            System.out.println("Registered " + modelId + " v" + version + " (" + archive.length + " bytes)");
+            return toView(record);
+        }
+    }
+
+    /**
+     * Makes {@code version} the active version of {@code modelId} everywhere
+     * and, when it is the model this instance serves, starts scoring with it.
+     * Returns {@code null} when there is no such version.
+     */
+    public synchronized Map<String, Object> promote(String modelId, int version) throws IOException {
+        LoadedModel loaded = load(modelId, version);
+        if (loaded == null) return null;
+        repository.setActive(modelId, version);
+        if (modelId.equals(this.modelId)) {
+            activate(loaded);
+        }
+        return loaded.toMap();
+    }
+
+    /**
+     * Brings this instance in line with the active version recorded in MongoDB.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${model-registry.poll-ms:30000}", fixedDelayString = "${model-registry.poll-ms:30000}")
+    public void refresh() {
+        if (modelId == null || modelId.isBlank()) return;
+        try {
+            synchronized (this) {
+                Document recorded = repository.findActive(modelId);
+                if (recorded == null) return;
+                int version = recorded.getInteger("version");
+                LoadedModel current = active;
+                if (current != null && current.version == version) return;
+                LoadedModel loaded = load(modelId, version);
+                if (loaded == null) {
+                    System.err.println("Active version " + modelId + " v" + version + " is not in the registry");
+                    return;
+                }
+                activate(loaded);
+            }
+        } catch (Exception e) {
+            System.err.println("Could not refresh model " + modelId + " from the registry: " + e.getMessage());
+        }
+    }
+
+    public List<Map<String, Object>> listVersions(String modelId) {
+        Document recorded = repository.findActive(modelId);
+        Integer activeVersion = recorded != null ? recorded.getInteger("version") : null;
+        List<Map<String, Object>> views = new ArrayList<>();
+        for (Document version : repository.findVersions(modelId)) {
+            Map<String, Object> view = toView(version);
+            view.put("active", version.getInteger("version").equals(activeVersion));
+            views.add(view);
+        }
+        return views;
+    }
+
+    /**
+     * The version this instance is scoring with, how long it took to load and how the cache is doing.
+     */
+    public Map<String, Object> getStatus() {
+        LoadedModel current = active;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("modelId", modelId == null || modelId.isBlank() ? null : modelId);
+        status.put("active", current != null ? current.toMap() : null);
+        synchronized (cache) {
+            Map<String, Object> cacheStatus = new LinkedHashMap<>();
+            cacheStatus.put("size", cache.size());
+            cacheStatus.put("capacity", cacheSize);
+            cacheStatus.put("hits", cacheHits);
+            cacheStatus.put("misses", cacheMisses);
+            cacheStatus.put("versions", new ArrayList<>(cache.keySet()));
+            status.put("cache", cacheStatus);
+        }
+        status.put("scoring", scoring.getStatus());
+        return status;
+    }
+
+    private void activate(LoadedModel loaded) {
+        scoring.install(loaded.network, loaded.calibration, "registry " + loaded.modelId + " v" + loaded.version);
+        active = loaded;
+    }
+
+    // From the cache if possible, otherwise downloaded and deserialized; null if the version does not exist
+    private LoadedModel load(String modelId, int version) throws IOException {
+        String key = key(modelId, version);
+        synchronized (cache) {
+            LoadedModel cached = cache.get(key);
+            if (cached != null) {
+                cacheHits++;
+                return cached;
+            }
+            cacheMisses++;
+        }
+        Document record = repository.findVersion(modelId, version);
+        if (record == null) return null;
+
+        long started = System.nanoTime();
+        byte[] archive = repository.downloadArchive(record.getObjectId("fileId"));
+        DL4JAutoencoderModel model = DL4JAutoencoderModel.restore(archive, 0.5);
+        checkInputSize(model.getInputSize(), modelId);
+        LoadedModel loaded = new LoadedModel(modelId, version, model.toDenseNetwork(), model.getCalibration(),
+            archive.length, (System.nanoTime() - started) / 1_000_000);
+        remember(loaded);
+        System.out.println("Loaded " + modelId + " v" + version + " from the registry in " + loaded.loadMillis + " ms");
+        return loaded;
+    }
+
+    private void remember(LoadedModel loaded) {
+        synchronized (cache) {
+            cache.put(key(loaded.modelId, loaded.version), loaded);
+            while (cache.size() > Math.max(1, cacheSize)) {
+                String eldest = cache.keySet().iterator().next();
+                cache.remove(eldest);
+            }
+        }
+    }
+
+    private static void checkInputSize(int inputSize, String modelId) {
+        if (inputSize != FeatureExtractor.FEATURE_COUNT) {
+            throw new IllegalArgumentException("Model " + modelId + " takes " + inputSize
+                + " features, rows have " + FeatureExtractor.FEATURE_COUNT);
+        }
+    }
+
+    private static String key(String modelId, int version) {
+        return modelId + ":" + version;
+    }
+
+    private static Map<String, Object> toView(Document version) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("modelId", version.getString("modelId"));
+        view.put("version", version.getInteger("version"));
+        view.put("sizeBytes", version.get("sizeBytes"));
+        view.put("inputSize", version.get("inputSize"));
+        view.put("threshold", version.get("threshold"));
+        view.put("description", version.getString("description"));
+        view.put("createdAt", version.getDate("createdAt"));
+        return view;
+    }
+}
@@ -0,0 +1,33 @@
+package com.coforge.deeplearning_extractor.rules;
+
+/**
+ * The rule checks, in the priority order used to pick a row's anomaly type.
+ * Each rule owns one bit of {@link RuleResult#getViolations()}.
+ */
+public enum Rule {
+    DATE_INVALID("dateInvalid", "invalid_date"),
+    NAME_INVALID("nameInvalid", "invalid_name"),
+    AGE_INVALID("ageInvalid", "invalid_age"),
+    CABIN_INVALID("cabinInvalid", "invalid_cabin"),
+    IATA_INVALID("iataInvalid", "invalid_iata");
+
+    private final String resultKey;
+    private final String anomalyType;
+
+    Rule(String resultKey, String anomalyType) {
+        this.resultKey = resultKey;
+        this.anomalyType = anomalyType;
+    }
+
+    public int mask() {
+        return 1 << ordinal();
+    }
+
+    public String getResultKey() {
+        return resultKey;
+    }
+
+    public String getAnomalyType() {
+        return anomalyType;
+    }
+}
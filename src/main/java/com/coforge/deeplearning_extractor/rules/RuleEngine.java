@@ -0,0 +1,87 @@
+package com.coforge.deeplearning_extractor.rules;
+
+import java.time.LocalDate;
+import java.util.function.Predicate;
+
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.autoencoder.PreparedRow;
+import com.coforge.deeplearning_extractor.dates.IsoDate;
+
+/**
+ * Runs every rule check for a row in one pass over its fields and returns the
+ * violations as a bitmask. Uses {@link TextScanners} instead of regexes and
+ * constant tables instead of per-call arrays, and reads the fields already
+ * normalized in a {@link PreparedRow}, so a clean row allocates nothing beyond
+ * its prepared row and {@link RuleResult}.
+ */
+public class RuleEngine {
+
+    static final int MIN_AGE = 12;
+    static final int MAX_AGE = 100;
+
+    private final Predicate<String> iataValidator;
+
+    /**
+     * Checks IATA codes against the country already looked up for the {@link PreparedRow}.
+     */
+    public RuleEngine() {
+        this(null);
+    }
+
+    /**
+     * @param iataValidator answers whether a raw IATA code from the row is known
+     */
+    public RuleEngine(Predicate<String> iataValidator) {
+        this.iataValidator = iataValidator;
+    }
+
+    public RuleResult evaluate(DataRow row) {
+        return evaluate(PreparedRow.of(row));
+    }
+
+    public RuleResult evaluate(DataRow row, LocalDate today) {
+        return evaluate(PreparedRow.of(row, IsoDate.pack(today)));
+    }
+
+    public RuleResult evaluate(PreparedRow row) {
+        int violations = 0;
+        int age = row.getAge();
+
+        if (row.getBirthDate().isInvalid()) violations |= Rule.DATE_INVALID.mask();
+        if (isTrimmedNameInvalid(row.getName())) violations |= Rule.NAME_INVALID.mask();
+        if (age < MIN_AGE || age > MAX_AGE) violations |= Rule.AGE_INVALID.mask();
+        if (row.getCabinClass() == null) violations |= Rule.CABIN_INVALID.mask();
+        if (!isIataKnown(row)) violations |= Rule.IATA_INVALID.mask();
+
+        return new RuleResult(violations, age);
+    }
+
+    /**
+     * Blank, shorter than two characters, outside letters/whitespace/-/'/., a
+     * character repeated four or more times, or a well-known placeholder name.
+     */
+    public static boolean isNameInvalid(String name) {
+        return isTrimmedNameInvalid(name != null ? name.trim() : null);
+    }
+
+    private static boolean isTrimmedNameInvalid(String trimmed) {
+        if (trimmed == null || trimmed.length() < 2) return true;
+        if (!TextScanners.isNameChars(trimmed, true)) return true;
+        if (TextScanners.hasRepeatedRun(trimmed, 4)) return true;
+        return TextScanners.isSuspiciousName(trimmed);
+    }
+
+    // Without a validator, a code counts as known when the reference data resolved it
+    private boolean isIataKnown(PreparedRow row) {
+        if (iataValidator == null) return row.getCountry() != null;
+        String code = row.getRow().getIata();
+        return code != null && iataValidator.test(code);
+    }
+
+    /**
+     * Whole years between two {@code yyyyMMdd} dates, the same count {@code Period.between} gives.
+     */
+    static int ageOn(int birthDate, int todayDate) {
+        return IsoDate.yearsBetween(birthDate, todayDate);
+    }
+}
@@ -0,0 +1,63 @@
+package com.coforge.deeplearning_extractor.rules;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of the rule checks for one row: a bitmask of {@link Rule} violations
+ * plus the computed age (-1 when the birth date is unusable).
+ */
+public final class RuleResult {
+
+    private static final Rule[] RULES = Rule.values();
+
+    private final int violations;
+    private final int age;
+
+    public RuleResult(int violations, int age) {
+        this.violations = violations;
+        this.age = age;
+    }
+
+    public boolean isAnomaly() {
+        return violations != 0;
+    }
+
+    public boolean has(Rule rule) {
+        return (violations & rule.mask()) != 0;
+    }
+
+    public int getViolations() {
+        return violations;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
+    /**
+     * Highest-priority violation, or {@code null} when every rule passed.
+     */
+    public Rule firstViolation() {
+        if (violations == 0) return null;
+        return RULES[Integer.numberOfTrailingZeros(violations)];
+    }
+
+    /**
+     * The map shape the rest of the pipeline and the LLM prompt have always used.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ruleBasedAnomaly", isAnomaly());
+        for (Rule rule : RULES) {
+            result.put(rule.getResultKey(), has(rule));
+        }
+        result.put("age", age);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
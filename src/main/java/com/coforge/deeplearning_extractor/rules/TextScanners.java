@@ -0,0 +1,184 @@
+package com.coforge.deeplearning_extractor.rules;
+
+/**
+ * Single-pass character checks that replace the per-call regexes the rule and
+ * feature code used to run. Each method notes the pattern it stands in for.
+ * None of them allocate.
+ */
+public final class TextScanners {
+
+    private static final String[] SUSPICIOUS_NAMES = {
+        "TEST USER", "TEST TEST", "JOHN DOE", "JANE DOE",
+        "ADMIN", "USER", "NULL", "UNDEFINED", "EXAMPLE"
+    };
+    private static final int LONGEST_SUSPICIOUS_NAME = 9;
+
+    private TextScanners() {
+    }
+
+    /**
+     * {@code [a-zA-Z\s\-'.]+} when {@code allowDots}, else {@code [a-zA-Z\s\-']+}.
+     */
+    public static boolean isNameChars(String s, boolean allowDots) {
+        if (s.isEmpty()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!isAsciiLetter(c) && !isRegexWhitespace(c) && c != '-' && c != '\''
+                    && !(allowDots && c == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Same answer as {@code s.matches(".*(.)\\1{n,}.*")} with {@code n = minRun - 1}:
+     * some character repeated at least {@code minRun} times in a row. Like the regex,
+     * a string containing a line terminator never matches, since {@code .} stops at it.
+     */
+    public static boolean hasRepeatedRun(String s, int minRun) {
+        int run = 0;
+        char previous = 0;
+        boolean found = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (isLineTerminator(c)) return false;
+            run = (i > 0 && c == previous) ? run + 1 : 1;
+            previous = c;
+            if (run >= minRun) found = true;
+        }
+        return found;
+    }
+
+    /**
+     * Case-insensitive match against the placeholder names test data tends to use.
+     */
+    public static boolean isSuspiciousName(String trimmedName) {
+        if (trimmedName.length() > LONGEST_SUSPICIOUS_NAME) return false;
+        for (String suspicious : SUSPICIOUS_NAMES) {
+            if (suspicious.equalsIgnoreCase(trimmedName)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Whether the trimmed value, ignoring case, is one of A-F, ECONOMY, BUSINESS or FIRST.
+     */
+    public static boolean isKnownCabinClass(String cabinClass) {
+        if (cabinClass == null) return false;
+        int start = 0;
+        int end = cabinClass.length();
+        while (start < end && cabinClass.charAt(start) <= ' ') start++;
+        while (end > start && cabinClass.charAt(end - 1) <= ' ') end--;
+
+        int length = end - start;
+        if (length == 1) {
+            char c = (char) (cabinClass.charAt(start) & ~0x20);
+            return c >= 'A' && c <= 'F';
+        }
+        return regionEquals(cabinClass, start, length, "ECONOMY")
+            || regionEquals(cabinClass, start, length, "BUSINESS")
+            || regionEquals(cabinClass, start, length, "FIRST");
+    }
+
+    /**
+     * {@code \d{4}-\d{2}-\d{2}}: the shape of an ISO date, without checking it is a real day.
+     */
+    public static boolean isIsoDateShape(String s) {
+        if (s == null || s.length() != 10 || s.charAt(4) != '-' || s.charAt(7) != '-') return false;
+        for (int i = 0; i < 10; i++) {
+            if (i != 4 && i != 7 && !isAsciiDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@code \d{1,2}[A-Z]}: a row number followed by an upper-case seat letter.
+     */
+    public static boolean isRowAndSeatLetter(String s) {
+        if (s == null) return false;
+        int length = s.length();
+        if (length < 2 || length > 3) return false;
+        char letter = s.charAt(length - 1);
+        if (letter < 'A' || letter > 'Z') return false;
+        for (int i = 0; i < length - 1; i++) {
+            if (!isAsciiDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@code .*[^a-zA-Z0-9].*}
+     */
+    public static boolean hasNonAlphanumeric(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!isAsciiLetter(c) && !isAsciiDigit(c)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@code .*[a-zA-Z].*}
+     */
+    public static boolean containsAsciiLetter(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (isAsciiLetter(s.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@code .*\d.*}
+     */
+    public static boolean containsAsciiDigit(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (isAsciiDigit(s.charAt(i))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * {@code \d+}
+     */
+    public static boolean isAllAsciiDigits(String s) {
+        if (s.isEmpty()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (!isAsciiDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@code [a-zA-Z]+}
+     */
+    public static boolean isAllAsciiLetters(String s) {
+        if (s.isEmpty()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (!isAsciiLetter(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static boolean regionEquals(String s, int start, int length, String expected) {
+        return length == expected.length() && s.regionMatches(true, start, expected, 0, length);
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // Regex \s: [ \t\n\x0B\f\r]
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    // Characters regex '.' does not match by default
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+}
@@ -0,0 +1,26 @@
+package com.coforge.deeplearning_extractor;
+
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+/**
+ * The embedded MongoDB the repository tests run against, pinned to one server
+ * version so the tests do not move with flapdoodle's idea of "production".
+ */
+public final class EmbeddedMongo {
+
+    public static final Version.Main VERSION = Version.Main.V7_0;
+
+    private EmbeddedMongo() {
+    }
+
+    public static TransitionWalker.ReachedState<RunningMongodProcess> start() {
+        return Mongod.instance().start(VERSION);
+    }
+
+    public static String uri(TransitionWalker.ReachedState<RunningMongodProcess> mongod) {
+        return "mongodb://" + mongod.current().getServerAddress();
+    }
+}
@@ -1,16 +1,25 @@
 package com.coforge.deeplearning_extractor;
 
+import com.coforge.deeplearning_extractor.ollama.AutoencoderScoringService;
+import com.coforge.deeplearning_extractor.ollama.EscalationPolicy;
 import com.coforge.deeplearning_extractor.ollama.OllamaAnomalyDetectionService;
 import com.coforge.deeplearning_extractor.ollama.OllamaService;
+import com.coforge.deeplearning_extractor.ollama.VerdictCache;
 import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,9 +34,20 @@ public class OllamaAnomalyDetectionServiceTest {
     @Mock
     private OllamaService ollamaService;
 
+    @Mock
+    private AutoencoderScoringService autoencoder;
+
     @Mock
     private DataRow dataRow;
 
+    @Spy
+    private VerdictCache verdictCache = new VerdictCache(100, 600);
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(service, "escalationPolicy", EscalationPolicy.AMBIGUOUS_ONLY);
+    }
+
     @Test
     public void testDetection_withOllamaAvailable() {
     
@@ -78,4 +98,50 @@ public class OllamaAnomalyDetectionServiceTest {
         assertEquals("none", result.get("anomalyType"));
         assertEquals("FALLBACK_TO_RULES", result.get("recommendation"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDetection_repeatedPassengerServedFromCache() {
+
+        when(ollamaService.isOllamaAvailable()).thenReturn(true);
+        when(ollamaService.getModelName()).thenReturn("gemma3:4b");
+        DataRow first = new DataRow("Anamika Sharma", "1985-01-01", "us", "12A", "E");
+        DataRow retry = new DataRow(" Anamika Sharma ", "1985-01-01", "US", "12a", "e");
+
+        String ollamaResult = """
+            {
+                "ollamaAnomaly": false,
+                "confidence": 0.9,
+                "reasoning": "No anomaly detected",
+                "concerns": [],
+                "recommendation": "ALLOW"
+            }
+            """;
+        when(ollamaService.analyzePassengerData(anyString(), anyString())).thenReturn(ollamaResult);
+
+        Map<String, Object> fresh = service.analyzePassenger(first);
+        Map<String, Object> cached = service.analyzePassenger(retry);
+
+        verify(ollamaService, times(1)).analyzePassengerData(anyString(), anyString());
+        assertEquals(fresh.get("overallAnomaly"), cached.get("overallAnomaly"));
+        assertEquals(" Anamika Sharma ", cached.get("NAME"));
+        assertEquals(true, cached.get("cacheHit"));
+        assertEquals(1L, verdictCache.getStats().get("hits"));
+    }
+
+    @Test
+    public void testDetection_ruleViolationSkipsOllama() {
+
+        when(dataRow.getName()).thenReturn("Test User");
+        when(dataRow.getDate()).thenReturn("1985-01-01");
+        when(dataRow.getIata()).thenReturn("US");
+        when(dataRow.getSeatNumber()).thenReturn("12A");
+        when(dataRow.getCabinClass()).thenReturn("E");
+
+        Map<String, Object> result = service.analyzePassenger(dataRow);
+
+        verify(ollamaService, never()).analyzePassengerData(anyString(), anyString());
+        assertEquals(true, result.get("overallAnomaly"));
+        assertEquals("invalid_name", result.get("anomalyType"));
+        assertEquals("RULES", result.get("resolvedBy"));
+    }
+}
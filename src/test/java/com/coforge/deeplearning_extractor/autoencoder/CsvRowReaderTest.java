@@ -0,0 +1,66 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+public class CsvRowReaderTest {
+
+    @Test
+    public void testSkipsHeaderAndTrimsColumns() throws IOException {
+        String csv = "name,date,iata,seatNumber,cabinClass\n"
+            + "Alice Smith , 1990-02-15,US,12A,E\n"
+            + "\"Doe, John\",1985-01-01,IN,3C,B\n";
+
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv))) {
+            DataRow alice = reader.next();
+            assertEquals("Alice Smith", alice.getName());
+            assertEquals("1990-02-15", alice.getDate());
+            DataRow john = reader.next();
+            assertEquals("Doe, John", john.getName());
+            assertEquals("B", john.getCabinClass());
+            assertFalse(reader.hasNext());
+            assertEquals(2, reader.getRowsRead());
+        }
+    }
+
+    @Test
+    public void testCountsShortLinesInsteadOfFailing() throws IOException {
+        String csv = "name,date,iata,seatNumber,cabinClass\n"
+            + "truncated,1990-02-15\n"
+            + "\n"
+            + "Bob,1988-08-01,IN,17C,B\n";
+
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(csv))) {
+            assertEquals("Bob", reader.next().getName());
+            assertFalse(reader.hasNext());
+            assertEquals(2, reader.getSkippedLines());
+            assertThrows(NoSuchElementException.class, reader::next);
+        }
+    }
+
+    @Test
+    public void testEmptyInputHasNoRows() throws IOException {
+        try (CsvRowReader reader = new CsvRowReader(new StringReader(""))) {
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testStreamsTheRowsLoadDataFromCsvReturns() throws IOException {
+        String path = "src/main/resources/data.csv";
+        int streamed = 0;
+        try (CsvRowReader reader = CsvDataLoader.openCsv(path)) {
+            while (reader.hasNext()) {
+                reader.next();
+                streamed++;
+            }
+        }
+        assertEquals(CsvDataLoader.loadDataFromCsv(path).size(), streamed);
+        assertTrue(streamed > 0);
+    }
+}
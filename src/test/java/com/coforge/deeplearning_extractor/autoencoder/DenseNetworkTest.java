@@ -0,0 +1,99 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.coforge.deeplearning_extractor.autoencoder.DenseNetwork.Activation;
+import com.coforge.deeplearning_extractor.autoencoder.DenseNetwork.ErrorMetric;
+
+public class DenseNetworkTest {
+
+    @Test
+    public void testMatchesDl4jAutoencoder() {
+        DL4JAutoencoderModel model = new DL4JAutoencoderModel(FeatureExtractor.FEATURE_COUNT, 4, 0.5);
+        DenseNetwork dense = model.toDenseNetwork();
+        Random random = new Random(9);
+
+        assertEquals(FeatureExtractor.FEATURE_COUNT, dense.getInputSize());
+        for (int i = 0; i < 200; i++) {
+            double[] features = randomRow(random, FeatureExtractor.FEATURE_COUNT);
+            double expected = model.reconstructionError(features);
+            assertEquals(expected, dense.reconstructionError(features), 1e-4 * Math.max(1, expected), "row " + i);
+        }
+    }
+
+    @Test
+    public void testMatchesDl4jVariationalAutoencoder() {
+        VariationalAutoencoder model = new VariationalAutoencoder(12, 3, 0.5);
+        DenseNetwork dense = model.toDenseNetwork();
+        Random random = new Random(10);
+
+        for (int i = 0; i < 200; i++) {
+            double[] features = randomRow(random, 12);
+            double expected = model.reconstructionError(features);
+            assertEquals(expected, dense.reconstructionError(features), 1e-4 * Math.max(1, expected), "row " + i);
+        }
+    }
+
+    @Test
+    public void testForwardPassByHand() {
+        // 2 -> 1 -> 2: hidden = relu(x0 - x1), output = sigmoid / identity of the hidden unit
+        DenseNetwork network = new DenseNetwork(2,
+            new double[][] {{1, -1}, {2, 1}},
+            new double[][] {{0}, {0, 0.5}},
+            new Activation[] {Activation.RELU, Activation.IDENTITY},
+            ErrorMetric.EUCLIDEAN);
+
+        double[] out = network.output(new double[] {3, 1}, new double[2]);
+        assertEquals(4.0, out[0], 1e-12);
+        assertEquals(2.5, out[1], 1e-12);
+        assertEquals(Math.hypot(3 - 4.0, 1 - 2.5), network.reconstructionError(new double[] {3, 1}), 1e-12);
+
+        // Negative pre-activation is clipped by the relu
+        assertArrayEquals(new double[] {0, 0.5}, network.output(new double[] {1, 3}, new double[2]), 1e-12);
+
+        DenseNetwork squashed = new DenseNetwork(1, new double[][] {{0}}, new double[][] {{0}},
+            new Activation[] {Activation.SIGMOID}, ErrorMetric.MEAN_SQUARED);
+        assertEquals(0.25, squashed.reconstructionError(new double[] {1}), 1e-12);
+    }
+
+    @Test
+    public void testNormalizesRowsWithoutTouchingTheInput() {
+        DenseNetwork network = new DenseNetwork(2,
+            new double[][] {{1, -1}, {2, 1}},
+            new double[][] {{0}, {0, 0.5}},
+            new Activation[] {Activation.RELU, Activation.IDENTITY},
+            ErrorMetric.EUCLIDEAN);
+        FeatureNormalizer normalizer = new FeatureNormalizer(FeatureNormalizer.Method.MIN_MAX,
+            new double[] {10, 0}, new double[] {0.5, 0.25});
+        DenseNetwork normalized = network.withNormalizer(normalizer);
+
+        double[] raw = {16, 4};
+        // (16 - 10) * 0.5 = 3 and (4 - 0) * 0.25 = 1, the row scored by hand above
+        assertEquals(network.reconstructionError(new double[] {3, 1}), normalized.reconstructionError(raw), 1e-12);
+        assertArrayEquals(new double[] {16, 4}, raw, 0.0);
+        assertThrows(IllegalArgumentException.class, () -> new DenseNetwork(1, new double[][] {{1}},
+            new double[][] {{0}}, new Activation[] {Activation.IDENTITY}, ErrorMetric.EUCLIDEAN).withNormalizer(normalizer));
+    }
+
+    @Test
+    public void testRejectsMismatchedShapes() {
+        assertThrows(IllegalArgumentException.class, () -> new DenseNetwork(2,
+            new double[][] {{1, 2, 3}}, new double[][] {{0, 0}},
+            new Activation[] {Activation.IDENTITY}, ErrorMetric.EUCLIDEAN));
+        DenseNetwork network = new DenseNetwork(1, new double[][] {{1}}, new double[][] {{0}},
+            new Activation[] {Activation.TANH}, ErrorMetric.EUCLIDEAN);
+        assertThrows(IllegalArgumentException.class, () -> network.reconstructionError(new double[] {1, 2}));
+    }
+
+    private static double[] randomRow(Random random, int columns) {
+        double[] row = new double[columns];
+        for (int j = 0; j < columns; j++) {
+            row[j] = random.nextDouble() * 2 - 0.5;
+        }
+        return row;
+    }
+}
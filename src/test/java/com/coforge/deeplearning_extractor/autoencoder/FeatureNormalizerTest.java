@@ -0,0 +1,75 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+public class FeatureNormalizerTest {
+
+    private static FeatureNormalizer.Fitter fitted() {
+        FeatureNormalizer.Fitter fitter = new FeatureNormalizer.Fitter(3);
+        fitter.add(new double[] {10, 0, 7});
+        fitter.add(new double[] {20, 1, 7});
+        fitter.add(new double[] {30, 0, 7});
+        fitter.add(new double[] {40, 1, 7});
+        return fitter;
+    }
+
+    @Test
+    public void testMinMaxMapsTrainingRangeOntoUnitInterval() {
+        FeatureNormalizer normalizer = fitted().fit(FeatureNormalizer.Method.MIN_MAX);
+
+        assertArrayEquals(new double[] {0, 0, 0}, normalizer.normalizeInPlace(new double[] {10, 0, 7}), 1e-12);
+        assertArrayEquals(new double[] {1, 1, 0}, normalizer.normalizeInPlace(new double[] {40, 1, 7}), 1e-12);
+        // Outside the training range stays outside [0, 1], which is itself a signal
+        assertArrayEquals(new double[] {2, 0, 1}, normalizer.normalizeInPlace(new double[] {70, 0, 8}), 1e-12);
+    }
+
+    @Test
+    public void testZScoreCentresOnTheMean() {
+        FeatureNormalizer normalizer = fitted().fit(FeatureNormalizer.Method.Z_SCORE);
+        double std = Math.sqrt(125);
+
+        assertArrayEquals(new double[] {-15 / std, -1, 0}, normalizer.normalizeInPlace(new double[] {10, 0, 7}), 1e-12);
+        assertArrayEquals(new double[] {0, 0, 0}, normalizer.normalizeInPlace(new double[] {25, 0.5, 7}), 1e-12);
+    }
+
+    @Test
+    public void testNormalizeIntoLeavesTheInputAlone() {
+        FeatureNormalizer normalizer = fitted().fit(FeatureNormalizer.Method.MIN_MAX);
+        double[] raw = {25, 1, 7};
+        double[] out = new double[3];
+
+        assertSame(out, normalizer.normalize(raw, out));
+        assertArrayEquals(new double[] {0.5, 1, 0}, out, 1e-12);
+        assertArrayEquals(new double[] {25, 1, 7}, raw, 0.0);
+
+        float[] packed = {0, 0, 0, 25, 1, 7};
+        normalizer.normalizeInPlace(packed, 3);
+        assertEquals(0.5f, packed[3], 1e-6f);
+        assertEquals(0f, packed[0], 0f);
+    }
+
+    @Test
+    public void testRoundTripsThroughModelMetadata() {
+        FeatureNormalizer normalizer = fitted().fit(FeatureNormalizer.Method.Z_SCORE);
+        Properties metadata = new Properties();
+        normalizer.store(metadata);
+
+        FeatureNormalizer loaded = FeatureNormalizer.load(metadata);
+
+        assertEquals(FeatureNormalizer.Method.Z_SCORE, loaded.getMethod());
+        double[] row = {33, 1, 7};
+        assertArrayEquals(normalizer.normalizeInPlace(row.clone()), loaded.normalizeInPlace(row.clone()), 0.0);
+        assertNull(FeatureNormalizer.load(new Properties()));
+    }
+
+    @Test
+    public void testRejectsRowsOfTheWrongWidth() {
+        FeatureNormalizer normalizer = fitted().fit(FeatureNormalizer.Method.MIN_MAX);
+        assertThrows(IllegalArgumentException.class, () -> normalizer.normalizeInPlace(new double[] {1, 2}));
+        assertThrows(IllegalStateException.class, () -> new FeatureNormalizer.Fitter(2).fit(FeatureNormalizer.Method.MIN_MAX));
+    }
+}
@@ -0,0 +1,79 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-row autoencoder latency: the ND4J forward pass DL4JAutoencoderModel runs
+ * against the same weights exported to a DenseNetwork. Run with
+ * -prof gc to see the allocation rate as well. Not part of the regular test run:
+ *
+ *   mvn test -Dtest=InferenceBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InferenceBenchmark {
+
+    private static final int ROWS = 1024;
+
+    private DL4JAutoencoderModel model;
+    private DenseNetwork dense;
+    private double[][] rows;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        model = new DL4JAutoencoderModel(FeatureExtractor.FEATURE_COUNT, 4, 0.5);
+        dense = model.toDenseNetwork();
+        Random random = new Random(1);
+        rows = new double[ROWS][FeatureExtractor.FEATURE_COUNT];
+        for (double[] row : rows) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] = random.nextDouble();
+            }
+        }
+    }
+
+    @Benchmark
+    public double nd4jRow() {
+        return model.reconstructionError(nextRow());
+    }
+
+    @Benchmark
+    public double denseRow() {
+        return dense.reconstructionError(nextRow());
+    }
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(InferenceBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+
+    private double[] nextRow() {
+        next = (next + 1) & (ROWS - 1);
+        return rows[next];
+    }
+}
@@ -0,0 +1,80 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonManifestReaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void testReadsRowsInOrder() throws IOException {
+        String json = """
+            [
+              {"name":"Alice","date":"1990-02-15","iata":"US","seatNumber":"12A","cabinClass":"E"},
+              {"name":"Bob","date":"1988-08-01","iata":"IN","seatNumber":"17C","cabinClass":"B"}
+            ]
+            """;
+
+        try (JsonManifestReader reader = open(json)) {
+            assertTrue(reader.hasNext());
+            assertEquals("Alice", reader.next().getName());
+            assertTrue(reader.hasNext());
+            DataRow bob = reader.next();
+            assertEquals("Bob", bob.getName());
+            assertEquals("17C", bob.getSeatNumber());
+            assertFalse(reader.hasNext());
+            assertEquals(2, reader.getRowsRead());
+        }
+    }
+
+    @Test
+    public void testSkipResumesAtTheNextRow() throws IOException {
+        String json = """
+            [
+              {"name":"Alice","concerns":[{"nested":true}]},
+              {"name":"Bob"},
+              {"name":"Carol"}
+            ]
+            """;
+
+        try (JsonManifestReader reader = open(json)) {
+            assertEquals(2, reader.skip(2));
+            assertEquals("Carol", reader.next().getName());
+            assertEquals(0, reader.skip(5));
+            assertEquals(3, reader.getRowsRead());
+        }
+    }
+
+    @Test
+    public void testEmptyArray() throws IOException {
+        try (JsonManifestReader reader = open("[]")) {
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testRejectsNonArray() {
+        assertThrows(IOException.class, () -> open("{\"name\":\"Alice\"}"));
+    }
+
+    @Test
+    public void testTruncatedFileFailsOnTheBrokenRow() throws IOException {
+        try (JsonManifestReader reader = open("[{\"name\":\"Alice\"},{\"name\":\"Bo")) {
+            assertEquals("Alice", reader.next().getName());
+            assertThrows(UncheckedIOException.class, reader::next);
+        }
+    }
+
+    private JsonManifestReader open(String json) throws IOException {
+        return new JsonManifestReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), objectMapper);
+    }
+}
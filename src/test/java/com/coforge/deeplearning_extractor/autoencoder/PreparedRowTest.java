@@ -0,0 +1,78 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.coforge.deeplearning_extractor.dates.IsoDate;
+import com.coforge.deeplearning_extractor.rules.TextScanners;
+
+public class PreparedRowTest {
+
+    private static final int TODAY = IsoDate.pack(LocalDate.of(2025, 7, 30));
+
+    @Test
+    public void testFieldsAreNormalizedOnce() {
+        DataRow row = new DataRow("  Mary  Jane O'Neil ", "1985-01-01", " in", " 12a ", " economy ");
+        PreparedRow prepared = PreparedRow.of(row, TODAY);
+
+        assertSame(row, prepared.getRow());
+        assertEquals("Mary  Jane O'Neil", prepared.getName());
+        assertArrayEquals(new String[] {"Mary", "Jane", "O'Neil"}, prepared.getNameTokens());
+        assertEquals(40, prepared.getAge());
+        assertEquals("12a", prepared.getSeat());
+        assertTrue(prepared.hasSeatRowAndLetter());
+        assertEquals(12, prepared.getSeatRow());
+        assertEquals('A', prepared.getSeatLetter());
+        assertEquals(CabinClass.ECONOMY, prepared.getCabinClass());
+        assertNull(prepared.getIataCode(), "codes are looked up as sent, not trimmed");
+    }
+
+    @Test
+    public void testIataCodeIsSharedFromTheCountryTable() {
+        PreparedRow lower = PreparedRow.of(new DataRow("Wei Zhang", "1990-02-15", "us", "3C", "B"), TODAY);
+        PreparedRow upper = PreparedRow.of(new DataRow("Wei Zhang", "1990-02-15", "US", "3C", "B"), TODAY);
+
+        assertEquals("US", lower.getIataCode());
+        assertSame(lower.getIataCode(), upper.getIataCode());
+        assertSame(lower.getCountry(), upper.getCountry());
+        assertNull(PreparedRow.of(new DataRow("Wei Zhang", "1990-02-15", "XX", "3C", "B"), TODAY).getCountry());
+    }
+
+    @Test
+    public void testMissingAndOddFields() {
+        PreparedRow empty = PreparedRow.of(new DataRow(null, null, null, null, null), TODAY);
+        assertNull(empty.getName());
+        assertEquals(0, empty.getNameTokens().length);
+        assertEquals(-1, empty.getAge());
+        assertTrue(empty.getBirthDate().isInvalid());
+        assertFalse(empty.hasSeatRowAndLetter());
+        assertNull(empty.getCabinClass());
+        assertNull(empty.getCountry());
+
+        for (String seat : new String[] {"7", "A12", "12AB", "12-A", "", "12345A"}) {
+            PreparedRow prepared = PreparedRow.of(new DataRow("Bob Smith", "1980-05-05", "US", seat, "E"), TODAY);
+            assertFalse(prepared.hasSeatRowAndLetter(), seat);
+            assertEquals(-1, prepared.getSeatRow(), seat);
+            assertEquals(0, prepared.getSeatLetter(), seat);
+        }
+    }
+
+    @Test
+    public void testRepeatedWordsIgnoreRunsOfSpaces() {
+        assertTrue(PreparedRow.of(new DataRow("John John", "1980-05-05", "US", "1A", "E"), TODAY).hasRepeatedNameToken());
+        assertFalse(PreparedRow.of(new DataRow("Anna  Maria  Lopez", "1980-05-05", "US", "1A", "E"), TODAY).hasRepeatedNameToken());
+        assertFalse(FeatureExtractor.hasRepeatedWords(new DataRow("Anna  Maria  Lopez", "1980-05-05", "US", "1A", "E")));
+    }
+
+    @Test
+    public void testCabinClassMatchesTheRuleCheck() {
+        for (String cabin : new String[] {"a", " F ", "G", "Economy", "business", "FIRST ", "FIRSTS", "", "  ", "1", "\u0131", null}) {
+            assertEquals(TextScanners.isKnownCabinClass(cabin), CabinClass.parse(cabin) != null, String.valueOf(cabin));
+        }
+        assertEquals(CabinClass.F, CabinClass.parse(" f"));
+        assertEquals(CabinClass.BUSINESS, CabinClass.parse("Business"));
+    }
+}
@@ -0,0 +1,67 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class QuantileSketchTest {
+
+    @Test
+    public void testQuantilesStayWithinRelativeAccuracy() {
+        Random random = new Random(3);
+        double[] values = new double[20_000];
+        QuantileSketch sketch = new QuantileSketch(0.01);
+        for (int i = 0; i < values.length; i++) {
+            // Spread over several orders of magnitude, like reconstruction errors
+            values[i] = Math.exp(random.nextGaussian() * 2 - 3);
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double q : new double[] {0.01, 0.25, 0.5, 0.9, 0.99, 0.999}) {
+            double exact = values[(int) Math.ceil(q * values.length) - 1];
+            assertEquals(exact, sketch.quantile(q), exact * 0.01 + 1e-12, "q=" + q);
+            assertTrue(sketch.upperBound(q) >= exact, "q=" + q);
+            assertTrue(sketch.upperBound(q) <= exact * 1.021, "q=" + q);
+        }
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(values[0], sketch.getMin());
+        assertEquals(values[values.length - 1], sketch.quantile(1.0));
+    }
+
+    @Test
+    public void testIgnoresNaNAndCountsZeros() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(Double.NaN);
+        sketch.add(0.0);
+        sketch.add(0.0);
+        sketch.add(4.0);
+
+        assertEquals(3, sketch.getCount());
+        assertEquals(0.0, sketch.quantile(0.5), 1e-12);
+        assertEquals(4.0, sketch.quantile(0.9), 4.0 * 0.01);
+    }
+
+    @Test
+    public void testGrowsInBothDirections() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(1.0);
+        sketch.add(1e6);
+        sketch.add(1e-9);
+
+        assertEquals(1e-9, sketch.quantile(0.2), 1e-11);
+        assertEquals(1.0, sketch.quantile(0.5), 0.01);
+        assertEquals(1e6, sketch.quantile(0.9), 1e4);
+    }
+
+    @Test
+    public void testEmptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+        assertTrue(Double.isNaN(sketch.getMax()));
+        assertThrows(IllegalArgumentException.class, () -> sketch.add(-1.0));
+    }
+}
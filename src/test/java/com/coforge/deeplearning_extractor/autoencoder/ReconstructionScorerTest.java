@@ -0,0 +1,69 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ReconstructionScorerTest {
+
+    @Test
+    public void testBatchErrorsMatchPerRowErrors() {
+        DL4JAutoencoderModel model = new DL4JAutoencoderModel(FeatureExtractor.FEATURE_COUNT, 4, 0.5);
+        double[][] features = randomRows(new Random(5), 37, FeatureExtractor.FEATURE_COUNT);
+
+        double[] batch = model.reconstructionErrors(features);
+
+        assertEquals(features.length, batch.length);
+        for (int i = 0; i < features.length; i++) {
+            assertEquals(model.reconstructionError(features[i]), batch[i], 1e-4, "row " + i);
+        }
+        assertEquals(0, model.reconstructionErrors(new double[0][]).length);
+    }
+
+    @Test
+    public void testVariationalBatchErrorsMatchPerRowErrors() {
+        VariationalAutoencoder model = new VariationalAutoencoder(12, 3, 0.5);
+        double[][] features = randomRows(new Random(6), 21, 12);
+
+        double[] batch = model.reconstructionErrors(features);
+
+        for (int i = 0; i < features.length; i++) {
+            assertEquals(model.reconstructionError(features[i]), batch[i], 1e-4, "row " + i);
+        }
+    }
+
+    @Test
+    public void testIteratorIsScoredInChunksInOrder() {
+        DL4JAutoencoderModel model = new DL4JAutoencoderModel(FeatureExtractor.FEATURE_COUNT, 4, 0.5);
+        double[][] features = randomRows(new Random(7), 20, FeatureExtractor.FEATURE_COUNT);
+        List<Integer> chunkSizes = new ArrayList<>();
+        ReconstructionScorer counting = rows -> {
+            chunkSizes.add(rows.length);
+            return model.reconstructionErrors(rows);
+        };
+
+        List<Double> streamed = new ArrayList<>();
+        counting.reconstructionErrors(Arrays.asList(features).iterator(), 8, streamed::add);
+
+        assertEquals(List.of(8, 8, 4), chunkSizes);
+        double[] whole = model.reconstructionErrors(features);
+        for (int i = 0; i < whole.length; i++) {
+            assertEquals(whole[i], streamed.get(i), 1e-6, "row " + i);
+        }
+    }
+
+    private static double[][] randomRows(Random random, int rows, int columns) {
+        double[][] features = new double[rows][columns];
+        for (double[] row : features) {
+            for (int j = 0; j < columns; j++) {
+                row[j] = random.nextDouble();
+            }
+        }
+        return features;
+    }
+}
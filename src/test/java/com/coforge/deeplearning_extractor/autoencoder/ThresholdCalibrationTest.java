@@ -0,0 +1,60 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class ThresholdCalibrationTest {
+
+    // Treats the first feature as the row's reconstruction error
+    private static final ReconstructionScorer FIRST_FEATURE = features -> {
+        double[] errors = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            errors[i] = features[i][0];
+        }
+        return errors;
+    };
+
+    @Test
+    public void testFlagsAtMostTheTargetShareOfValidationRows() {
+        Random random = new Random(5);
+        List<double[]> validation = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            validation.add(new double[] {Math.abs(random.nextGaussian())});
+        }
+
+        ThresholdCalibration calibration = ThresholdCalibration.calibrate(FIRST_FEATURE, validation.iterator(), 256, 0.05);
+
+        long flagged = validation.stream().filter(row -> row[0] > calibration.getThreshold()).count();
+        assertTrue(flagged <= 500, "flagged " + flagged);
+        assertTrue(flagged >= 400, "flagged " + flagged);
+        assertEquals(10_000, calibration.getSamples());
+        assertEquals(0.05, calibration.getTargetFalsePositiveRate());
+    }
+
+    @Test
+    public void testRoundTripsThroughModelMetadata() {
+        ThresholdCalibration calibration = new ThresholdCalibration(0.42, 0.01, 1234, 0.1, 3.5);
+        Properties metadata = new Properties();
+        calibration.store(metadata);
+
+        ThresholdCalibration loaded = ThresholdCalibration.load(metadata);
+
+        assertEquals(calibration.toMap(), loaded.toMap());
+        assertNull(ThresholdCalibration.load(new Properties()));
+    }
+
+    @Test
+    public void testRejectsImpossibleTargets() {
+        List<double[]> validation = List.of(new double[] {1.0});
+        assertThrows(IllegalArgumentException.class,
+            () -> ThresholdCalibration.calibrate(FIRST_FEATURE, validation.iterator(), 16, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> ThresholdCalibration.calibrate(FIRST_FEATURE, List.<double[]>of().iterator(), 16, 0.01));
+    }
+}
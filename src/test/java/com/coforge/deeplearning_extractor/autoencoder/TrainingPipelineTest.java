@@ -0,0 +1,231 @@
+package com.coforge.deeplearning_extractor.autoencoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nd4j.linalg.api.ndarray.INDArray;
+import org.nd4j.linalg.dataset.DataSet;
+
+public class TrainingPipelineTest {
+
+    private static final String[] NAMES = {"Alice Smith", "Wei Zhang", "Kenji Tanaka", "Fatima Bello", "Liam O'Brien"};
+    private static final String[] CODES = {"US", "IN", "FR", "DE", "JP"};
+
+    @Test
+    public void testExtractKeepsRowsInOrderAcrossChunks() {
+        List<DataRow> rows = normalRows(10);
+        TrainingReport report = new TrainingReport();
+
+        TrainingPipeline.Features features = new TrainingPipeline().chunkSize(3).parallelism(2).normalization(null)
+            .extract(rows.iterator(), report);
+
+        assertEquals(10, features.getRows());
+        assertEquals(10, report.getRowsRead());
+        int columns = FeatureExtractor.FEATURE_COUNT;
+        for (int row = 0; row < rows.size(); row++) {
+            double[] expected = FeatureExtractor.getFeatures(rows.get(row));
+            for (int c = 0; c < columns; c++) {
+                assertEquals((float) expected[c], features.getData()[row * columns + c], 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void testNormalizerIsFittedOnTheGivenRowsOnly() {
+        List<DataRow> rows = normalRows(50);
+        TrainingPipeline pipeline = new TrainingPipeline().chunkSize(8);
+        TrainingPipeline.Features raw = pipeline.extract(rows.iterator(), new TrainingReport());
+        assertNull(raw.getNormalizer());
+
+        int[] fitRows = IntStream.range(10, 50).toArray();
+        FeatureNormalizer.Fitter expected = new FeatureNormalizer.Fitter(FeatureExtractor.FEATURE_COUNT);
+        for (int row : fitRows) {
+            double[] features = FeatureExtractor.getFeatures(rows.get(row));
+            for (int c = 0; c < features.length; c++) {
+                features[c] = (float) features[c];
+            }
+            expected.add(features);
+        }
+        TrainingPipeline.Features features = pipeline.normalize(raw, fitRows);
+
+        FeatureNormalizer normalizer = features.getNormalizer();
+        assertEquals(FeatureNormalizer.Method.MIN_MAX, normalizer.getMethod());
+        FeatureNormalizer fitted = expected.fit(FeatureNormalizer.Method.MIN_MAX);
+        assertArrayEquals(fitted.offsets(), normalizer.offsets(), 1e-9);
+        assertArrayEquals(fitted.scales(), normalizer.scales(), 1e-9);
+        int columns = FeatureExtractor.FEATURE_COUNT;
+        for (int row : fitRows) {
+            for (int c = 0; c < columns; c++) {
+                float value = features.getData()[row * columns + c];
+                assertTrue(value >= -1e-6 && value <= 1 + 1e-6, "value " + value);
+            }
+        }
+        // Rows left out of the fit are normalized with the same transform
+        double[] first = normalizer.normalizeInPlace(FeatureExtractor.getFeatures(rows.get(0)));
+        for (int c = 0; c < first.length; c++) {
+            assertEquals(first[c], features.getData()[c], 1e-5);
+        }
+    }
+
+    @Test
+    public void testExtractCountsFilteredAndFailedRows() {
+        List<DataRow> rows = new ArrayList<>(normalRows(4));
+        rows.add(new DataRow("J0hn D0e", "1990-01-01", "US", "12A", "E"));
+        rows.add(new DataRow(null, "1990-01-01", "US", "12A", "E"));
+        TrainingReport report = new TrainingReport();
+
+        TrainingPipeline.Features filteredRun = new TrainingPipeline().chunkSize(4).extract(rows.iterator(), report);
+        assertEquals(4, filteredRun.getRows());
+        assertEquals(2, report.getRowsFiltered());
+        assertEquals(0, report.getRowsFailed());
+
+        TrainingPipeline.Features unfilteredRun = new TrainingPipeline().normalRowsOnly(false).extract(rows.iterator(), report);
+        assertEquals(5, unfilteredRun.getRows());
+        assertEquals(0, report.getRowsFiltered());
+        assertEquals(1, report.getRowsFailed());
+    }
+
+    @Test
+    public void testIteratorVisitsEveryRowOncePerEpochInAFreshOrder() {
+        int columns = 2;
+        int count = 50;
+        float[] data = new float[count * columns];
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            data[i * columns] = i;
+            data[i * columns + 1] = -i;
+            rows[i] = i;
+        }
+        FeatureDataSetIterator iterator = new FeatureDataSetIterator(data, columns, rows, 16, new Random(7));
+
+        List<Integer> firstEpoch = drain(iterator);
+        iterator.reset();
+        List<Integer> secondEpoch = drain(iterator);
+
+        assertEquals(count, new HashSet<>(firstEpoch).size());
+        assertEquals(new HashSet<>(firstEpoch), new HashSet<>(secondEpoch));
+        assertNotEquals(firstEpoch, secondEpoch);
+    }
+
+    @Test
+    public void testTrainingStopsWithinMaxEpochsAndReportsEachOne() {
+        DL4JAutoencoderModel model = new DL4JAutoencoderModel(FeatureExtractor.FEATURE_COUNT, 4, 0.5);
+        TrainingPipeline pipeline = new TrainingPipeline().batchSize(32).maxEpochs(3).validationFraction(0.2);
+
+        TrainingReport report = model.train(normalRows(200).iterator(), pipeline);
+
+        assertEquals(200, report.getRowsRead());
+        assertEquals(40, report.getValidationRows());
+        assertEquals(160, report.getTrainingRows());
+        assertTrue(report.getEpochs().size() >= 1 && report.getEpochs().size() <= 3);
+        assertTrue(report.getBestEpoch() >= 1);
+        assertTrue(Double.isFinite(report.getBestValidationLoss()));
+        assertNotNull(report.getStopReason());
+        for (TrainingReport.Epoch epoch : report.getEpochs()) {
+            assertTrue(Double.isFinite(epoch.getValidationLoss()));
+        }
+        assertEquals(40, report.getCalibration().getSamples());
+        assertEquals(report.getCalibration().getThreshold(), model.getThreshold());
+        assertSame(report.getNormalizer(), model.getNormalizer());
+
+        // Both scoring paths normalize the raw row the same way
+        double[] raw = FeatureExtractor.getFeatures(normalRows(1).get(0));
+        double expected = model.reconstructionError(raw);
+        assertEquals(expected, model.toDenseNetwork().reconstructionError(raw), 1e-4 * Math.max(1, expected));
+    }
+
+    @Test
+    public void testNormalizerIsSavedWithTheModel(@TempDir Path dir) throws IOException {
+        VariationalAutoencoder model = new VariationalAutoencoder(FeatureExtractor.FEATURE_COUNT, 3, 0.5);
+        model.train(normalRows(100).iterator(), new TrainingPipeline().batchSize(32).maxEpochs(2));
+        Path file = dir.resolve("vae.zip");
+        model.saveModel(file.toString());
+
+        VariationalAutoencoder restored = new VariationalAutoencoder(FeatureExtractor.FEATURE_COUNT, 3, 0.5);
+        restored.loadModel(file.toString());
+
+        assertEquals(model.getNormalizer().getMethod(), restored.getNormalizer().getMethod());
+        assertArrayEquals(model.getNormalizer().offsets(), restored.getNormalizer().offsets());
+        assertArrayEquals(model.getNormalizer().scales(), restored.getNormalizer().scales());
+        assertEquals(model.getThreshold(), restored.getThreshold());
+        double[] raw = FeatureExtractor.getFeatures(normalRows(1).get(0));
+        assertEquals(model.reconstructionError(raw), restored.reconstructionError(raw), 1e-6);
+    }
+
+    @Test
+    public void testCalibratedThresholdIsSavedWithTheModel(@TempDir Path dir) throws IOException {
+        DL4JAutoencoderModel model = new DL4JAutoencoderModel(FeatureExtractor.FEATURE_COUNT, 4, 0.5);
+        List<double[]> validation = new ArrayList<>();
+        for (DataRow row : normalRows(100)) {
+            validation.add(FeatureExtractor.getFeatures(row));
+        }
+        ThresholdCalibration calibration = model.calibrate(validation.iterator(), 0.05);
+        Path file = dir.resolve("model.zip");
+        model.saveModel(file.toString());
+
+        DL4JAutoencoderModel restored;
+        try (InputStream in = Files.newInputStream(file)) {
+            restored = DL4JAutoencoderModel.restore(in, 0.5);
+        }
+
+        assertEquals(calibration.getThreshold(), restored.getThreshold());
+        assertEquals(calibration.toMap(), restored.getCalibration().toMap());
+        assertArrayEquals(model.reconstructionErrors(validation.toArray(new double[0][])),
+            restored.reconstructionErrors(validation.toArray(new double[0][])), 1e-6);
+    }
+
+    @Test
+    public void testArchiveOfTheOtherModelTypeIsRejected(@TempDir Path dir) throws IOException {
+        Path vaeFile = dir.resolve("vae.zip");
+        new VariationalAutoencoder(FeatureExtractor.FEATURE_COUNT, 3, 0.5).saveModel(vaeFile.toString());
+        byte[] vaeArchive = Files.readAllBytes(vaeFile);
+        byte[] autoencoderArchive = new DL4JAutoencoderModel(FeatureExtractor.FEATURE_COUNT, 4, 0.5).toArchive();
+
+        // Same input size, but the threshold belongs to mean squared error, not Euclidean distance
+        assertThrows(IllegalArgumentException.class, () -> DL4JAutoencoderModel.restore(vaeArchive, 0.5));
+        Path autoencoderFile = dir.resolve("autoencoder.zip");
+        Files.write(autoencoderFile, autoencoderArchive);
+        VariationalAutoencoder vae = new VariationalAutoencoder(FeatureExtractor.FEATURE_COUNT, 3, 0.5);
+        assertThrows(IllegalArgumentException.class, () -> vae.loadModel(autoencoderFile.toString()));
+    }
+
+    private static List<Integer> drain(FeatureDataSetIterator iterator) {
+        List<Integer> seen = new ArrayList<>();
+        while (iterator.hasNext()) {
+            DataSet batch = iterator.next();
+            INDArray features = batch.getFeatures();
+            assertSame(features, batch.getLabels());
+            for (int r = 0; r < features.rows(); r++) {
+                int id = (int) features.getDouble(r, 0);
+                assertEquals(-id, features.getDouble(r, 1), 0.0);
+                seen.add(id);
+            }
+        }
+        return seen;
+    }
+
+    private static List<DataRow> normalRows(int count) {
+        Random random = new Random(1);
+        List<DataRow> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String date = (1950 + random.nextInt(50)) + "-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(9);
+            String seat = (1 + random.nextInt(40)) + String.valueOf((char) ('A' + random.nextInt(6)));
+            rows.add(new DataRow(NAMES[random.nextInt(NAMES.length)], date, CODES[random.nextInt(CODES.length)],
+                seat, String.valueOf((char) ('A' + random.nextInt(6)))));
+        }
+        return rows;
+    }
+}
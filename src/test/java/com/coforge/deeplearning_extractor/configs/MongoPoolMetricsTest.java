@@ -0,0 +1,76 @@
+package com.coforge.deeplearning_extractor.configs;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.coforge.deeplearning_extractor.EmbeddedMongo;
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+/**
+ * Checks the pool settings and counters against an embedded MongoDB.
+ */
+public class MongoPoolMetricsTest {
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+
+    @BeforeAll
+    public static void startMongo() {
+        mongod = EmbeddedMongo.start();
+    }
+
+    @AfterAll
+    public static void stopMongo() {
+        mongod.close();
+    }
+
+    private static MongoClientSettings settings(MongoPoolMetrics metrics, int maxSize) {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
+            .applyConnectionString(new ConnectionString(EmbeddedMongo.uri(mongod)));
+        new MongoClientConfig().mongoPoolCustomizer(metrics, maxSize, 1, 2000, 60000, 2).customize(builder);
+        return builder.build();
+    }
+
+    @Test
+    public void testCustomizerAppliesPoolSettings() {
+        MongoClientSettings settings = settings(new MongoPoolMetrics(), 7);
+
+        assertEquals(7, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(1, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(2000, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(1, settings.getConnectionPoolSettings().getConnectionPoolListeners().size());
+    }
+
+    @Test
+    public void testCountsCheckoutsAndReturnsConnections() {
+        MongoPoolMetrics metrics = new MongoPoolMetrics();
+        try (MongoClient client = MongoClients.create(settings(metrics, 4))) {
+            MongoCollection<Document> collection = client.getDatabase("pool_test").getCollection("items");
+            for (int i = 0; i < 20; i++) {
+                collection.insertOne(new Document("i", i));
+            }
+            assertEquals(20, collection.countDocuments());
+
+            Map<String, Object> stats = metrics.getStats();
+            assertEquals(4, stats.get("maxSize"));
+            assertTrue(metrics.getCheckouts() >= 21, "Every operation checks a connection out");
+            assertEquals(0, metrics.getCheckedOut(), "Every connection went back to the pool");
+            assertEquals(0L, stats.get("failedCheckouts"));
+            assertTrue((Integer) stats.get("open") <= 4);
+            assertTrue((Double) stats.get("maxWaitMs") >= 0);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.coforge.deeplearning_extractor.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.ollama.BatchAnomalyDetectionService;
+import com.coforge.deeplearning_extractor.ollama.DetectionRunSummary;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * The NDJSON and SSE upload streams, with the detection stage faked.
+ */
+public class DemoControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FakeDetection detection;
+    private DemoController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        detection = new FakeDetection();
+        controller = new DemoController();
+        ReflectionTestUtils.setField(controller, "batchService", detection);
+        ReflectionTestUtils.setField(controller, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(controller, "streamTimeoutMs", 10_000L);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        detection.shutdown();
+    }
+
+    @Test
+    public void testNdjsonStreamEndsWithASummaryLine() throws Exception {
+        String body = stream("/api/upload/detect/stream", 3);
+
+        List<String> lines = body.lines().toList();
+        assertEquals(4, lines.size(), body);
+        for (int i = 0; i < 3; i++) {
+            JsonNode line = objectMapper.readTree(lines.get(i));
+            assertEquals("result", line.get("type").asText());
+            assertEquals(i, line.get("index").asInt());
+            assertEquals("Passenger " + i, line.get("result").get("name").asText());
+        }
+        JsonNode summary = objectMapper.readTree(lines.get(3));
+        assertEquals("summary", summary.get("type").asText());
+        assertEquals(3, summary.get("summary").get("rows").asInt());
+    }
+
+    @Test
+    public void testSseEventsCarryTheRowIndexAsId() throws Exception {
+        String body = stream("/api/upload/detect/events", 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(body.contains("id:" + i + "\nevent:result\ndata:{\"name\":\"Passenger " + i + "\""), body);
+        }
+        assertTrue(body.contains("id:3\nevent:summary\n"), body);
+    }
+
+    @Test
+    public void testAnalysisStopsOnceTheEmitterIsClosed() throws Exception {
+        int rows = 1_000;
+        ResponseBodyEmitter emitter = controller.uploadJsonFileNdjson(manifest(rows));
+        assertTrue(detection.firstResult.await(5, TimeUnit.SECONDS));
+
+        // What the container does when the stream times out or the client goes away
+        emitter.complete();
+
+        assertTrue(detection.stopped.await(5, TimeUnit.SECONDS), "analysis kept running");
+        assertTrue(detection.rowsRead.get() < rows, "read " + detection.rowsRead.get() + " rows");
+    }
+
+    @Test
+    public void testAnalysisStopsOnceTheStreamTimesOut() throws Exception {
+        int rows = 1_000;
+        MvcResult result = mockMvc.perform(multipart("/api/upload/detect/events").file(manifest(rows)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        assertTrue(detection.firstResult.await(5, TimeUnit.SECONDS));
+
+        MockAsyncContext async = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : async.getListeners()) {
+            listener.onTimeout(new AsyncEvent(async));
+        }
+
+        assertTrue(detection.stopped.await(5, TimeUnit.SECONDS), "analysis kept running");
+        assertTrue(detection.rowsRead.get() < rows, "read " + detection.rowsRead.get() + " rows");
+    }
+
+    private String stream(String path, int rows) throws Exception {
+        MvcResult result = mockMvc.perform(multipart(path).file(manifest(rows)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        result.getAsyncResult(5_000);
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+
+    private static MockMultipartFile manifest(int rows) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"name\":\"Passenger ").append(i)
+                .append("\",\"date\":\"1990-02-15\",\"iata\":\"US\",\"seatNumber\":\"12A\",\"cabinClass\":\"E\"}");
+        }
+        json.append(']');
+        return new MockMultipartFile("file", "manifest.json", "application/json",
+            json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Stands in for the rules/LLM pipeline: one result per row, a little slower
+     * than the stream, and records how far it got.
+     */
+    private static final class FakeDetection extends BatchAnomalyDetectionService {
+        private final AtomicInteger rowsRead = new AtomicInteger();
+        private final CountDownLatch firstResult = new CountDownLatch(1);
+        private final CountDownLatch stopped = new CountDownLatch(1);
+
+        private FakeDetection() {
+            super(1, 1, 1);
+        }
+
+        @Override
+        public DetectionRunSummary analyzePassengers(Iterator<DataRow> rows, Consumer<Map<String, Object>> sink) {
+            DetectionRunSummary summary = new DetectionRunSummary();
+            try {
+                while (rows.hasNext()) {
+                    DataRow row = rows.next();
+                    rowsRead.incrementAndGet();
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("name", row.getName());
+                    result.put("overallAnomaly", false);
+                    result.put("resolvedBy", "RULES");
+                    summary.record(result);
+                    sink.accept(result);
+                    firstResult.countDown();
+                    Thread.sleep(1);
+                }
+                return summary;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                stopped.countDown();
+            }
+        }
+    }
+}
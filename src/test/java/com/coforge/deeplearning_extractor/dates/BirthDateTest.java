@@ -0,0 +1,105 @@
+package com.coforge.deeplearning_extractor.dates;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class BirthDateTest {
+
+    @Test
+    public void testParseMatchesLocalDate() {
+        Random random = new Random(11);
+        LocalDate today = LocalDate.of(2025, 3, 1);
+        int packedToday = IsoDate.pack(today);
+        for (int i = 0; i < 20_000; i++) {
+            String date = String.format("%04d-%02d-%02d", random.nextInt(2100), random.nextInt(14), random.nextInt(33));
+            LocalDate expected = parseOrNull(date);
+            BirthDate birthDate = BirthDate.parse(date, packedToday);
+
+            assertEquals(expected != null, birthDate.isParsed(), date);
+            assertEquals(expected == null || expected.isAfter(today), birthDate.isInvalid(), date);
+            if (expected != null) {
+                assertEquals(expected, IsoDate.toLocalDate(birthDate.getPacked()), date);
+                int age = expected.isAfter(today) ? -1 : Period.between(expected, today).getYears();
+                assertEquals(age, birthDate.getAge(), date);
+            }
+        }
+        for (String bad : new String[] {null, "", "1990-1-01", "1990/01/01", "01-01-1990", "1990-02-29", "19a0-01-01", " 1990-01-01"}) {
+            assertFalse(BirthDate.parse(bad, packedToday).isParsed(), String.valueOf(bad));
+            assertEquals(-1, BirthDate.parse(bad, packedToday).getAge(), String.valueOf(bad));
+        }
+    }
+
+    @Test
+    public void testAgeTurnsOverOnTheBirthday() {
+        int dayBefore = IsoDate.pack(LocalDate.of(2024, 2, 28));
+        int birthday = IsoDate.pack(LocalDate.of(2024, 2, 29));
+
+        assertEquals(23, BirthDate.parse("2000-02-29", dayBefore).getAge());
+        assertEquals(24, BirthDate.parse("2000-02-29", birthday).getAge());
+        assertTrue(BirthDate.parse("2024-03-01", birthday).isInFuture());
+    }
+
+    @Test
+    public void testDayClockRollsOverAtMidnight() {
+        ZoneId zone = ZoneOffset.ofHours(5);
+        MutableClock clock = new MutableClock(LocalDate.of(2025, 12, 31).atTime(23, 59, 59).atZone(zone).toInstant(), zone);
+        DayClock dayClock = new DayClock(clock);
+
+        assertEquals(20251231, dayClock.today());
+        clock.instant = clock.instant.plusSeconds(1);
+        assertEquals(20260101, dayClock.today());
+        assertEquals(LocalDate.of(2026, 1, 1), dayClock.todayDate());
+    }
+
+    @Test
+    public void testOfParsesAsOfToday() {
+        BirthDate birthDate = BirthDate.of("1985-06-15");
+
+        assertEquals(19850615, birthDate.getPacked());
+        assertEquals(DayClock.system().today(), birthDate.getAsOf());
+        assertEquals(IsoDate.yearsBetween(19850615, DayClock.system().today()), birthDate.getAge());
+    }
+
+    private static LocalDate parseOrNull(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+        private final ZoneId zone;
+
+        private MutableClock(Instant instant, ZoneId zone) {
+            this.instant = instant;
+            this.zone = zone;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return new MutableClock(instant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.coforge.deeplearning_extractor.dates;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Per-row date work: the five date checks a row goes through (invalid/future,
+ * age, too young, too old, rule age) done the old way, with LocalDate.parse and
+ * LocalDate.now each time, against one shared BirthDate. Not part of the regular test run:
+ *
+ *   mvn test -Dtest=DateParsingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(DateParsingBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateParsingBenchmark {
+
+    static final int ROWS = 1024;
+
+    private static final String[] DATES = {
+        "1985-01-01", "1990-02-15", "2030-01-01", "1870-06-12", "15/03/1980", "2001-11-30", "2000-02-30", "1999-12-31"
+    };
+
+    private String[] dates;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(1);
+        dates = new String[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            // Fresh instances, as rows read from a file would have
+            dates[i] = new String(DATES[random.nextInt(DATES.length)]);
+        }
+    }
+
+    @Benchmark
+    public void birthDate(Blackhole blackhole) {
+        for (String date : dates) {
+            // Parsed once per row, as PreparedRow does
+            BirthDate birthDate = BirthDate.of(date);
+            blackhole.consume(birthDate.isInvalid());
+            int age = birthDate.getAge();
+            blackhole.consume(age);
+            blackhole.consume(age <= 1);
+            blackhole.consume(age > 110);
+            blackhole.consume(age < 12);
+        }
+    }
+
+    @Benchmark
+    public void localDateParse(Blackhole blackhole) {
+        for (String date : dates) {
+            blackhole.consume(legacyIsInvalidDate(date));
+            int age = legacyCalculateAge(date);
+            blackhole.consume(age);
+            blackhole.consume(legacyCalculateAge(date) <= 1);
+            blackhole.consume(legacyCalculateAge(date) > 110);
+            blackhole.consume(legacyCalculateAge(date) < 12);
+        }
+    }
+
+    @Benchmark
+    public void isoDateParseOnly(Blackhole blackhole) {
+        for (String date : dates) {
+            blackhole.consume(IsoDate.parse(date));
+        }
+    }
+
+    @Benchmark
+    public void localDateParseOnly(Blackhole blackhole) {
+        for (String date : dates) {
+            try {
+                blackhole.consume(LocalDate.parse(date));
+            } catch (DateTimeParseException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(DateParsingBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+
+    // The date checks as DateExtractor and FeatureExtractor used to run them
+
+    private static boolean legacyIsInvalidDate(String date) {
+        try {
+            return LocalDate.parse(date).isAfter(LocalDate.now());
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    private static int legacyCalculateAge(String date) {
+        try {
+            LocalDate birthDate = LocalDate.parse(date);
+            LocalDate now = LocalDate.now();
+            return birthDate.isAfter(now) ? -1 : Period.between(birthDate, now).getYears();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.coforge.deeplearning_extractor.jobs;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.coforge.deeplearning_extractor.EmbeddedMongo;
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.ollama.BatchAnomalyDetectionService;
+import com.coforge.deeplearning_extractor.ollama.DetectionRunSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+/**
+ * Runs jobs end to end against an embedded MongoDB, with the detection stage faked.
+ */
+public class DetectionJobServiceTest {
+
+    private static final String DATABASE = "jobs_test";
+    private static final String MANIFEST = """
+        [
+          {"name":"Alice","date":"1990-02-15","iata":"US","seatNumber":"12A","cabinClass":"E"},
+          {"name":"Test User","date":"1988-08-01","iata":"IN","seatNumber":"17C","cabinClass":"B"},
+          {"name":"Carol","date":"1975-05-05","iata":"FR","seatNumber":"3B","cabinClass":"F"},
+          {"name":"Dave","date":"2001-11-30","iata":"DE","seatNumber":"40K","cabinClass":"E"},
+          {"name":"Erin","date":"1966-07-21","iata":"JP","seatNumber":"22D","cabinClass":"E"}
+        ]
+        """;
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient mongoClient;
+
+    @TempDir
+    Path jobsDir;
+
+    private DetectionJobRepository repository;
+
+    @BeforeAll
+    public static void startMongo() {
+        mongod = EmbeddedMongo.start();
+        mongoClient = MongoClients.create(EmbeddedMongo.uri(mongod));
+    }
+
+    @AfterAll
+    public static void stopMongo() {
+        mongoClient.close();
+        mongod.close();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        mongoClient.getDatabase(DATABASE).drop();
+        repository = new DetectionJobRepository(mongoClient, DATABASE);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        mongoClient.getDatabase(DATABASE).drop();
+    }
+
+    @Test
+    public void testJobRunsToCompletionWithPagedResults() throws Exception {
+        FakeDetection detection = new FakeDetection(-1);
+        DetectionJobService service = newService(detection);
+
+        String jobId = (String) service.submit(manifest()).get("jobId");
+        Map<String, Object> job = awaitFinished(service, jobId);
+
+        assertEquals("COMPLETED", job.get("status"));
+        assertEquals(5L, ((Number) job.get("rowsProcessed")).longValue());
+        assertEquals(1L, ((Number) job.get("anomalies")).longValue());
+        assertEquals(5, ((Number) ((Map<?, ?>) job.get("resolvedBy")).get("RULES")).intValue());
+        assertNotNull(job.get("rowsPerSecond"));
+
+        Map<String, Object> page = service.getResults(jobId, 1, 2);
+        List<?> rows = (List<?>) page.get("results");
+        assertEquals(2, rows.size());
+        assertEquals(1, ((Number) ((Map<?, ?>) rows.get(0)).get("index")).intValue());
+        assertEquals("Test User", ((Map<?, ?>) rows.get(0)).get("name"));
+        assertEquals("Carol", ((Map<?, ?>) rows.get(1)).get("name"));
+        service.shutdown();
+    }
+
+    @Test
+    public void testInterruptedJobResumesFromLastCheckpoint() throws Exception {
+        // First run dies after three rows; with a commit interval of two only rows 0-1 are committed
+        DetectionJobService crashed = newService(new FakeDetection(3));
+        String jobId = (String) crashed.submit(manifest()).get("jobId");
+        Map<String, Object> failed = awaitFinished(crashed, jobId);
+        crashed.shutdown();
+
+        assertEquals("FAILED", failed.get("status"));
+        assertEquals(2L, ((Number) failed.get("rowsProcessed")).longValue());
+
+        // Simulate a process that died mid-run after writing a result it never checkpointed
+        mongoClient.getDatabase(DATABASE).getCollection(DetectionJobRepository.JOBS_COLLECTION)
+            .updateOne(Filters.eq("_id", jobId), Updates.set("status", "RUNNING"));
+        mongoClient.getDatabase(DATABASE).getCollection(DetectionJobRepository.RESULTS_COLLECTION)
+            .insertOne(new Document("jobId", jobId).append("index", 2L).append("result", new Document("name", "stale")));
+
+        FakeDetection detection = new FakeDetection(-1);
+        DetectionJobService restarted = newService(detection);
+        restarted.resumeInterrupted();
+        Map<String, Object> job = awaitFinished(restarted, jobId);
+
+        assertEquals("COMPLETED", job.get("status"));
+        assertEquals(List.of("Carol", "Dave", "Erin"), detection.seen);
+        assertEquals(5L, ((Number) job.get("rowsProcessed")).longValue());
+        assertEquals(2L, ((Number) job.get("resumedFromRow")).longValue());
+
+        List<?> rows = (List<?>) restarted.getResults(jobId, 0, 100).get("results");
+        assertEquals(5, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(i, ((Number) ((Map<?, ?>) rows.get(i)).get("index")).intValue());
+        }
+        assertEquals("Carol", ((Map<?, ?>) rows.get(2)).get("name"));
+        restarted.shutdown();
+    }
+
+    @Test
+    public void testCompletedJobIsNotResumed() throws Exception {
+        DetectionJobService service = newService(new FakeDetection(-1));
+        String jobId = (String) service.submit(manifest()).get("jobId");
+        awaitFinished(service, jobId);
+
+        assertFalse(service.resume(jobId));
+        assertFalse(service.resume("missing"));
+        assertNull(service.getJob("missing"));
+        service.shutdown();
+    }
+
+    private DetectionJobService newService(FakeDetection detection) {
+        DetectionJobService service = new DetectionJobService(jobsDir.toString(), 2, 1);
+        ReflectionTestUtils.setField(service, "batchService", detection);
+        ReflectionTestUtils.setField(service, "repository", repository);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        return service;
+    }
+
+    private MockMultipartFile manifest() {
+        return new MockMultipartFile("file", "manifest.json", "application/json",
+            MANIFEST.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, Object> awaitFinished(DetectionJobService service, String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Map<String, Object> job = service.getJob(jobId);
+            if (DetectionJobStatus.valueOf((String) job.get("status")).isFinished()) {
+                return job;
+            }
+            Thread.sleep(20);
+        }
+        fail("Job " + jobId + " did not finish");
+        return null;
+    }
+
+    /**
+     * Stands in for the rules/LLM pipeline: flags names starting with "Test" and
+     * optionally fails after a number of rows.
+     */
+    private static final class FakeDetection extends BatchAnomalyDetectionService {
+        private final int failAfter;
+        private final List<String> seen = new ArrayList<>();
+
+        private FakeDetection(int failAfter) {
+            super(1, 1, 1);
+            this.failAfter = failAfter;
+        }
+
+        @Override
+        public DetectionRunSummary analyzePassengers(Iterator<DataRow> rows, Consumer<Map<String, Object>> sink) {
+            DetectionRunSummary summary = new DetectionRunSummary();
+            while (rows.hasNext()) {
+                if (seen.size() == failAfter) {
+                    throw new IllegalStateException("simulated crash");
+                }
+                DataRow row = rows.next();
+                seen.add(row.getName());
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("name", row.getName());
+                result.put("overallAnomaly", row.getName().startsWith("Test"));
+                result.put("resolvedBy", "RULES");
+                summary.record(result);
+                sink.accept(result);
+            }
+            return summary;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.autoencoder.PreparedRow;
+
+@ExtendWith(MockitoExtension.class)
+public class AutoencoderPreFilterTest {
+
+    private static final String OLLAMA_ALLOW = """
+        {"ollamaAnomaly": false, "confidence": 0.9, "reasoning": "ok", "concerns": [], "recommendation": "ALLOW"}
+        """;
+
+    @InjectMocks
+    private OllamaAnomalyDetectionService service;
+
+    @Mock
+    private OllamaService ollamaService;
+
+    @Mock
+    private AutoencoderScoringService autoencoder;
+
+    @Spy
+    private VerdictCache verdictCache = new VerdictCache(100, 600);
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(service, "escalationPolicy", EscalationPolicy.AMBIGUOUS_ONLY);
+    }
+
+    @Test
+    public void testRowWithinThresholdSkipsOllama() {
+        scoreEveryRowAs(0.1);
+        when(autoencoder.isWithinThreshold(any())).thenReturn(true);
+
+        Map<String, Object> result = service.analyzePassenger(new DataRow("Anamika Sharma", "1985-01-01", "US", "12A", "E"));
+
+        verify(ollamaService, never()).analyzePassengerData(anyString(), anyString());
+        assertEquals("AUTOENCODER", result.get("resolvedBy"));
+        assertEquals(false, result.get("overallAnomaly"));
+        assertEquals(0.1, result.get("autoencoderScore"));
+        assertEquals(0.5, result.get("autoencoderThreshold"));
+    }
+
+    @Test
+    public void testRowAboveThresholdIsEscalated() {
+        scoreEveryRowAs(2.5);
+        when(autoencoder.isWithinThreshold(any())).thenReturn(false);
+        when(ollamaService.isOllamaAvailable()).thenReturn(true);
+        when(ollamaService.analyzePassengerData(anyString(), anyString())).thenReturn(OLLAMA_ALLOW);
+
+        Map<String, Object> result = service.analyzePassenger(new DataRow("Anamika Sharma", "1985-01-01", "US", "12A", "E"));
+
+        verify(ollamaService).analyzePassengerData(anyString(), anyString());
+        assertEquals("OLLAMA", result.get("resolvedBy"));
+        assertEquals(2.5, result.get("autoencoderScore"));
+    }
+
+    @Test
+    public void testRuleViolationWinsOverTheAutoencoder() {
+        scoreEveryRowAs(0.1);
+
+        Map<String, Object> result = service.analyzePassenger(new DataRow("Test User", "1985-01-01", "US", "12A", "E"));
+
+        assertEquals("RULES", result.get("resolvedBy"));
+        assertEquals(true, result.get("overallAnomaly"));
+        assertEquals(0.1, result.get("autoencoderScore"));
+    }
+
+    private void scoreEveryRowAs(double error) {
+        doAnswer(invocation -> {
+            ((PreparedRow) invocation.getArgument(0)).setReconstructionError(error);
+            return null;
+        }).when(autoencoder).score(any(PreparedRow.class));
+        lenient().when(autoencoder.getThreshold()).thenReturn(0.5);
+    }
+}
@@ -0,0 +1,135 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.autoencoder.PreparedRow;
+
+/**
+ * Fan-out, slot limit and ordering of the bulk and reactive paths, with the per-row stages
+ * mocked so every row is escalated to a slow, out-of-order "Ollama".
+ */
+@ExtendWith(MockitoExtension.class)
+public class BatchAnomalyDetectionServiceTest {
+
+    private static final int NUM_PARALLEL = 3;
+    private static final int ROWS = 12;
+
+    @Mock
+    private OllamaAnomalyDetectionService detection;
+
+    private BatchAnomalyDetectionService service;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        service = new BatchAnomalyDetectionService(NUM_PARALLEL, 1, 0);
+        ReflectionTestUtils.setField(service, "detectionService", detection);
+        // No model loaded, so the autoencoder stage leaves the rows alone
+        ReflectionTestUtils.setField(service, "autoencoder", new AutoencoderScoringService());
+        // Nothing resolves on rules, cache or autoencoder, every row goes to Ollama
+        when(detection.resolveWithoutOllama(any(), any())).thenReturn(null);
+        when(detection.completeWithOllama(any(), any())).thenAnswer(invocation -> {
+            PreparedRow row = invocation.getArgument(0);
+            int index = indexOf(row);
+            int running = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(running, Math::max);
+            try {
+                // Later rows answer first
+                Thread.sleep(10L * (ROWS - index));
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if (index == 3) {
+                throw new IllegalStateException("model crashed");
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("index", index);
+            return result;
+        });
+        lenient().when(detection.errorResult(any())).thenCallRealMethod();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void testResultsKeepInputOrderWhenCallsFinishOutOfOrder() {
+        List<Map<String, Object>> results = service.analyzePassengers(rows());
+
+        assertEquals(ROWS, results.size());
+        for (int i = 0; i < ROWS; i++) {
+            if (i == 3) continue;
+            assertEquals(i, results.get(i).get("index"));
+        }
+    }
+
+    @Test
+    public void testNoMoreThanNumParallelCallsAreInFlight() {
+        service.analyzePassengers(rows());
+
+        assertTrue(maxInFlight.get() <= NUM_PARALLEL, "max in flight " + maxInFlight.get());
+        assertTrue(maxInFlight.get() > 1, "calls were not fanned out");
+        assertEquals(NUM_PARALLEL, service.getAvailableSlots());
+    }
+
+    @Test
+    public void testFailedRowBecomesItsOwnErrorResult() {
+        List<Map<String, Object>> results = service.analyzePassengers(rows());
+
+        Map<String, Object> failed = results.get(3);
+        assertEquals(true, failed.get("fallbackToRules"));
+        assertTrue(String.valueOf(failed.get("error")).contains("model crashed"));
+        assertEquals(2, results.get(2).get("index"));
+        assertEquals(4, results.get(4).get("index"));
+    }
+
+    @Test
+    public void testReactiveRowWaitsForASlot() throws Exception {
+        Semaphore slots = (Semaphore) ReflectionTestUtils.getField(service, "ollamaSlots");
+        slots.acquire(NUM_PARALLEL);
+
+        CompletableFuture<Map<String, Object>> pending = service.analyzePassengerReactive(rows().get(5)).toFuture();
+        Thread.sleep(200);
+        assertFalse(pending.isDone(), "reactive call ran without a slot");
+
+        slots.release(NUM_PARALLEL);
+        assertEquals(5, pending.get(5, TimeUnit.SECONDS).get("index"));
+    }
+
+    private static List<DataRow> rows() {
+        List<DataRow> rows = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new DataRow("Passenger " + i, "1985-01-01", "US", "12A", "E"));
+        }
+        return rows;
+    }
+
+    private static int indexOf(PreparedRow row) {
+        return Integer.parseInt(row.getName().substring("Passenger ".length()));
+    }
+}
@@ -0,0 +1,120 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Probes a stub /api/tags and checks that reads only see the published state.
+ */
+public class OllamaAvailabilityMonitorTest {
+
+    private HttpServer server;
+    private final AtomicInteger tagsCalls = new AtomicInteger();
+    private volatile String tags;
+    private OllamaBackendPool pool;
+    private OllamaAvailabilityMonitor monitor;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/tags", exchange -> {
+            tagsCalls.incrementAndGet();
+            respond(exchange, tags);
+        });
+        server.start();
+
+        pool = new OllamaBackendPool(List.of("http://127.0.0.1:" + server.getAddress().getPort()), 2, 60_000);
+        monitor = new OllamaAvailabilityMonitor();
+        ReflectionTestUtils.setField(monitor, "backendPool", pool);
+        ReflectionTestUtils.setField(monitor, "modelName", "gemma3:4b");
+        ReflectionTestUtils.setField(monitor, "probeTimeoutMs", 2000L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testProbeLooksForTheConfiguredModel() {
+        tags = "{\"models\":[{\"name\":\"llama3:8b\",\"model\":\"llama3:8b\"},{\"name\":\"gemma\",\"model\":\"gemma3:4b\"}]}";
+        monitor.refresh();
+
+        OllamaAvailability found = monitor.getAvailability();
+        assertTrue(found.isUsable());
+        assertNull(found.getLastError());
+        assertTrue(found.getLatencyMs() >= 0);
+
+        tags = "{\"models\":[{\"name\":\"llama3:8b\",\"model\":\"llama3:8b\"}]}";
+        monitor.refresh();
+
+        OllamaAvailability missing = monitor.getAvailability();
+        assertTrue(missing.isReachable());
+        assertFalse(missing.isModelPresent());
+        assertFalse(missing.isUsable());
+        assertEquals("Model gemma3:4b is not installed", missing.getLastError());
+    }
+
+    @Test
+    public void testMarkUnavailableFlipsTheCachedState() {
+        tags = "{\"models\":[{\"name\":\"gemma3:4b\",\"model\":\"gemma3:4b\"}]}";
+        monitor.refresh();
+        OllamaBackend backend = pool.getBackends().get(0);
+        assertTrue(backend.isEligible());
+
+        monitor.markUnavailable(backend, "Connection refused");
+
+        OllamaAvailability marked = monitor.getAvailability();
+        assertFalse(marked.isUsable());
+        assertTrue(marked.isModelPresent(), "the model was there at the last probe");
+        assertEquals("Connection refused", marked.getLastError());
+        assertFalse(backend.isEligible());
+        assertEquals(1, tagsCalls.get(), "marking must not probe");
+
+        // The next good probe brings it back
+        monitor.refresh();
+        assertTrue(backend.isEligible());
+    }
+
+    @Test
+    public void testAvailabilityReadsMakeNoNetworkCall() {
+        tags = "{\"models\":[{\"name\":\"gemma3:4b\",\"model\":\"gemma3:4b\"}]}";
+        OllamaService service = new OllamaService();
+        ReflectionTestUtils.setField(service, "availabilityMonitor", monitor);
+        ReflectionTestUtils.setField(service, "backendPool", pool);
+
+        assertFalse(service.isOllamaAvailable(), "nothing is usable before the first probe");
+        assertEquals(0, tagsCalls.get());
+
+        monitor.refresh();
+        server.stop(0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(service.isOllamaAvailable());
+            assertTrue(service.getAvailability().isUsable());
+        }
+        assertEquals(1, tagsCalls.get());
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
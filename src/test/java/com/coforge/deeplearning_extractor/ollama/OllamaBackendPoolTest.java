@@ -0,0 +1,143 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Routes real HTTP calls through the pool against stub Ollama servers.
+ */
+public class OllamaBackendPoolTest {
+
+    private static final String TAGS = "{\"models\":[{\"name\":\"gemma3:4b\",\"model\":\"gemma3:4b\"}]}";
+    private static final String GENERATE = "{\"response\":\"{\\\"ollamaAnomaly\\\":false,\\\"confidence\\\":0.9,"
+        + "\\\"reasoning\\\":\\\"ok\\\",\\\"concerns\\\":[],\\\"recommendation\\\":\\\"ALLOW\\\"}\",\"done\":true}";
+
+    private StubOllama healthy;
+    private StubOllama broken;
+    private OllamaBackendPool pool;
+    private OllamaAvailabilityMonitor monitor;
+    private OllamaService service;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        healthy = new StubOllama(200);
+        broken = new StubOllama(500);
+        pool = new OllamaBackendPool(List.of(healthy.url(), broken.url()), 2, 60_000);
+
+        monitor = new OllamaAvailabilityMonitor();
+        ReflectionTestUtils.setField(monitor, "backendPool", pool);
+        ReflectionTestUtils.setField(monitor, "modelName", "gemma3:4b");
+        ReflectionTestUtils.setField(monitor, "probeTimeoutMs", 2000L);
+
+        service = new OllamaService();
+        ReflectionTestUtils.setField(service, "availabilityMonitor", monitor);
+        ReflectionTestUtils.setField(service, "backendPool", pool);
+        ReflectionTestUtils.setField(service, "adaptiveTimeout", new AdaptiveTimeout(50, 99, 3.0, 1000, 10_000));
+        ReflectionTestUtils.setField(service, "modelName", "gemma3:4b");
+        ReflectionTestUtils.setField(service, "keepAlive", "5m");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        healthy.stop();
+        broken.stop();
+    }
+
+    @Test
+    public void testNothingEligibleBeforeFirstProbe() {
+        assertFalse(service.isOllamaAvailable());
+        assertNull(pool.acquire());
+    }
+
+    @Test
+    public void testLeastOutstandingRouting() {
+        monitor.refresh();
+
+        OllamaBackend first = pool.acquire();
+        OllamaBackend second = pool.acquire();
+        assertNotSame(first, second);
+
+        pool.release(first);
+        assertSame(first, pool.acquire());
+
+        pool.release(first);
+        pool.release(second);
+    }
+
+    @Test
+    public void testFailingBackendIsEjectedAndTrafficMovesToHealthyOne() {
+        monitor.refresh();
+        assertTrue(service.isOllamaAvailable());
+
+        for (int i = 0; i < 10; i++) {
+            service.analyzePassengerData("{\"name\":\"Passenger " + i + "\"}", "{\"ruleBasedResults\":{}}");
+        }
+
+        OllamaBackend brokenBackend = pool.getBackends().get(1);
+        assertEquals(OllamaCircuitBreaker.State.OPEN, brokenBackend.getCircuitBreaker().getState());
+        assertFalse(brokenBackend.isEligible());
+        assertEquals(2, broken.generateCalls.get());
+        assertEquals(8, healthy.generateCalls.get());
+        assertTrue(service.isOllamaAvailable());
+    }
+
+    @Test
+    public void testUnreachableBackendIsEjectedByProbe() {
+        broken.stop();
+        monitor.refresh();
+
+        assertTrue(pool.getBackends().get(0).isEligible());
+        assertFalse(pool.getBackends().get(1).isEligible());
+        assertSame(pool.getBackends().get(0), pool.acquire());
+    }
+
+    /**
+     * Minimal Ollama: /api/tags lists gemma3:4b, /api/generate answers with the given status.
+     */
+    private static final class StubOllama {
+        private final HttpServer server;
+        private final AtomicInteger generateCalls = new AtomicInteger();
+
+        StubOllama(int generateStatus) throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/api/tags", exchange -> respond(exchange, 200, TAGS));
+            server.createContext("/api/generate", exchange -> {
+                generateCalls.incrementAndGet();
+                exchange.getRequestBody().readAllBytes();
+                respond(exchange, generateStatus, generateStatus == 200 ? GENERATE : "{\"error\":\"boom\"}");
+            });
+            server.start();
+        }
+
+        String url() {
+            return "http://127.0.0.1:" + server.getAddress().getPort();
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+
+        private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+}
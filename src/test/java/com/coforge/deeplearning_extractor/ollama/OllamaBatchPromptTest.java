@@ -0,0 +1,173 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.autoencoder.PreparedRow;
+import com.coforge.deeplearning_extractor.rules.RuleResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Partial and malformed answers to the batch prompt, against a stub Ollama:
+ * every passenger without a usable verdict must come back as {@code null}
+ * and be retried on its own.
+ */
+public class OllamaBatchPromptTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String TAGS = "{\"models\":[{\"name\":\"gemma3:4b\",\"model\":\"gemma3:4b\"}]}";
+    private static final String SINGLE_VERDICT = "{\"ollamaAnomaly\":false,\"confidence\":0.9,"
+        + "\"reasoning\":\"single\",\"concerns\":[],\"recommendation\":\"ALLOW\"}";
+
+    private HttpServer server;
+    private final AtomicInteger batchCalls = new AtomicInteger();
+    private final AtomicInteger singleCalls = new AtomicInteger();
+    private volatile String batchAnswer;
+    private OllamaService service;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/tags", exchange -> respond(exchange, TAGS));
+        server.createContext("/api/generate", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            boolean batch = request.contains("Analyze each passenger in the list");
+            (batch ? batchCalls : singleCalls).incrementAndGet();
+            respond(exchange, generated(batch ? batchAnswer : SINGLE_VERDICT));
+        });
+        server.start();
+
+        OllamaBackendPool pool = new OllamaBackendPool(List.of("http://127.0.0.1:" + server.getAddress().getPort()), 2, 60_000);
+        OllamaAvailabilityMonitor monitor = new OllamaAvailabilityMonitor();
+        ReflectionTestUtils.setField(monitor, "backendPool", pool);
+        ReflectionTestUtils.setField(monitor, "modelName", "gemma3:4b");
+        ReflectionTestUtils.setField(monitor, "probeTimeoutMs", 2000L);
+        monitor.refresh();
+
+        service = new OllamaService();
+        ReflectionTestUtils.setField(service, "availabilityMonitor", monitor);
+        ReflectionTestUtils.setField(service, "backendPool", pool);
+        ReflectionTestUtils.setField(service, "adaptiveTimeout", new AdaptiveTimeout(50, 99, 3.0, 1000, 10_000));
+        ReflectionTestUtils.setField(service, "modelName", "gemma3:4b");
+        ReflectionTestUtils.setField(service, "keepAlive", "5m");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testMissingIndexIsLeftForRetry() {
+        batchAnswer = results(verdict(0, "true"), verdict(2, "false"));
+
+        List<String> verdicts = analyzeBatch(3);
+
+        assertNotNull(verdicts.get(0));
+        assertNull(verdicts.get(1));
+        assertNotNull(verdicts.get(2));
+    }
+
+    @Test
+    public void testDuplicateIndexKeepsTheFirstAnswer() throws IOException {
+        batchAnswer = results(verdict(0, "true"), verdict(0, "false"), verdict(7, "false"));
+
+        List<String> verdicts = analyzeBatch(2);
+
+        assertTrue(MAPPER.readTree(verdicts.get(0)).get("ollamaAnomaly").asBoolean());
+        assertNull(verdicts.get(1), "a duplicate or out-of-range entry must not fill another row");
+    }
+
+    @Test
+    public void testNonBooleanVerdictIsLeftForRetry() {
+        batchAnswer = results(verdict(0, "\"yes\""), verdict(1, "false"));
+
+        List<String> verdicts = analyzeBatch(2);
+
+        assertNull(verdicts.get(0));
+        assertNotNull(verdicts.get(1));
+    }
+
+    @Test
+    public void testUnparseableResponseRetriesEveryRow() {
+        batchAnswer = "{\"results\": [{\"index\": 0, \"ollamaAnomaly\": tru";
+
+        assertEquals(Arrays.asList(null, null, null), analyzeBatch(3));
+    }
+
+    @Test
+    public void testOnlyRowsWithoutAVerdictGoThroughTheSingleRowPath() {
+        batchAnswer = results(verdict(0, "true"), verdict(1, "\"maybe\""));
+        OllamaAnomalyDetectionService detection = new OllamaAnomalyDetectionService();
+        ReflectionTestUtils.setField(detection, "ollamaService", service);
+        ReflectionTestUtils.setField(detection, "verdictCache", new VerdictCache(100, 600));
+        List<PreparedRow> rows = new ArrayList<>();
+        List<RuleResult> rules = new ArrayList<>();
+        for (String name : List.of("Anamika Sharma", "Wei Zhang", "Kenji Tanaka")) {
+            PreparedRow row = PreparedRow.of(new DataRow(name, "1985-01-01", "US", "12A", "E"));
+            rows.add(row);
+            rules.add(detection.performRuleBasedAnalysis(row));
+        }
+
+        List<Map<String, Object>> results = detection.completeWithOllamaBatch(rows, rules);
+
+        assertEquals(1, batchCalls.get());
+        assertEquals(2, singleCalls.get(), "rows 1 and 2 had no usable verdict");
+        assertEquals("batch", results.get(0).get("aiReasoning"));
+        assertEquals("single", results.get(1).get("aiReasoning"));
+        assertEquals("single", results.get(2).get("aiReasoning"));
+    }
+
+    private List<String> analyzeBatch(int size) {
+        List<String> passengers = new ArrayList<>();
+        List<String> extractors = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            passengers.add("{\"name\":\"Passenger " + i + "\"}");
+            extractors.add("{\"ruleBasedResults\":{}}");
+        }
+        List<String> verdicts = service.analyzePassengerBatch(passengers, extractors);
+        assertEquals(size, verdicts.size());
+        assertEquals(1, batchCalls.get());
+        return verdicts;
+    }
+
+    private static String verdict(int index, String anomaly) {
+        return "{\"index\":" + index + ",\"ollamaAnomaly\":" + anomaly + ",\"confidence\":0.8,"
+            + "\"reasoning\":\"batch\",\"concerns\":[],\"recommendation\":\"INVESTIGATE\"}";
+    }
+
+    private static String results(String... verdicts) {
+        return "{\"results\":[" + String.join(",", verdicts) + "]}";
+    }
+
+    // The model's text goes back inside the "response" field of /api/generate
+    private static String generated(String text) throws IOException {
+        return MAPPER.writeValueAsString(Map.of("response", text, "done", true));
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
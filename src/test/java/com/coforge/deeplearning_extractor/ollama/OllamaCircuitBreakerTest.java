@@ -0,0 +1,100 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class OllamaCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(0);
+    private final OllamaCircuitBreaker breaker = new OllamaCircuitBreaker(3, 1000, now::get);
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+
+        assertEquals(OllamaCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertFalse(breaker.isCallPermitted());
+    }
+
+    @Test
+    public void testSuccessResetsFailureCount() {
+        breaker.tryAcquire();
+        breaker.onFailure();
+        breaker.tryAcquire();
+        breaker.onFailure();
+        breaker.tryAcquire();
+        breaker.onSuccess();
+        breaker.tryAcquire();
+        breaker.onFailure();
+
+        assertEquals(OllamaCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testHalfOpenAllowsSingleProbe() {
+        tripBreaker();
+        now.addAndGet(1000);
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(OllamaCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(OllamaCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailedProbeReopens() {
+        tripBreaker();
+        now.addAndGet(1000);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(OllamaCircuitBreaker.State.OPEN, breaker.getState());
+        now.addAndGet(500);
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    public void testAdaptiveTimeoutFollowsLatency() {
+        AdaptiveTimeout timeout = new AdaptiveTimeout(50, 99, 3.0, 1000, 120000);
+        assertEquals(120000, timeout.timeoutFor(1).toMillis());
+
+        for (int i = 0; i < 50; i++) {
+            timeout.record(2000, 1);
+        }
+        assertEquals(6000, timeout.timeoutFor(1).toMillis());
+        assertEquals(24000, timeout.timeoutFor(4).toMillis());
+    }
+
+    @Test
+    public void testTimedOutCallsRaiseTheAdaptiveTimeout() {
+        AdaptiveTimeout timeout = new AdaptiveTimeout(50, 90, 3.0, 1000, 120000);
+        for (int i = 0; i < 50; i++) {
+            timeout.record(2000, 1);
+        }
+        assertEquals(6000, timeout.timeoutFor(1).toMillis());
+
+        // Calls cut off at the current timeout count as at least that slow
+        for (int i = 0; i < 10; i++) {
+            timeout.record(timeout.timeoutFor(1).toMillis(), 1);
+        }
+        assertTrue(timeout.timeoutFor(1).toMillis() > 6000);
+    }
+
+    private void tripBreaker() {
+        for (int i = 0; i < 3; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.coforge.deeplearning_extractor.ollama;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Time-to-first-token of the old single-prompt layout against the system-prefix
+ * layout, measured against a live Ollama. Not part of the regular test run:
+ *
+ *   mvn test -Dtest=OllamaPromptLatencyBenchmark -Dollama.base-url=http://localhost:11434
+ */
+public class OllamaPromptLatencyBenchmark {
+
+    private static final String BASE_URL = System.getProperty("ollama.base-url", "http://localhost:11434");
+    private static final String MODEL = System.getProperty("ollama.model", "gemma3:4b");
+    private static final int ITERATIONS = Integer.getInteger("ollama.benchmark.iterations", 10);
+
+    private static final String[] NAMES = {
+        "Anamika Sharma", "Wei Zhang", "Mohammed Al Farsi", "Carlos Mendes", "Priya Nair",
+        "John Smith", "Olga Ivanova", "Kenji Tanaka", "Fatima Bello", "Liam O'Brien"
+    };
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void compareTimeToFirstToken() throws Exception {
+        assumeTrue(ollamaReachable(), "Ollama not reachable at " + BASE_URL);
+
+        // Load the model once so neither layout pays for it in its numbers
+        generate(null, legacyPrompt(0), 1);
+
+        Result legacy = run(false);
+        Result prefixed = run(true);
+
+        System.out.printf("legacy   layout: median TTFT %d ms, median prompt tokens evaluated %d%n",
+            legacy.medianTtftMs(), legacy.medianPromptEvalCount());
+        System.out.printf("prefixed layout: median TTFT %d ms, median prompt tokens evaluated %d%n",
+            prefixed.medianTtftMs(), prefixed.medianPromptEvalCount());
+    }
+
+    private Result run(boolean systemPrefix) throws Exception {
+        Result result = new Result();
+        for (int i = 0; i < ITERATIONS; i++) {
+            long[] sample = systemPrefix
+                ? generate(AnalysisPrompts.SYSTEM_PROMPT, AnalysisPrompts.passengerPrompt(passenger(i), rules()), 200)
+                : generate(null, legacyPrompt(i), 200);
+            result.ttftMs.add(sample[0]);
+            result.promptEvalCounts.add(sample[1]);
+        }
+        return result;
+    }
+
+    /**
+     * The layout before the system prompt split: passenger data interpolated after
+     * the first paragraph, so nothing after it can be reused between passengers.
+     */
+    private String legacyPrompt(int i) throws Exception {
+        String instructions = AnalysisPrompts.SYSTEM_PROMPT;
+        int split = instructions.indexOf("\n\n");
+        return instructions.substring(0, split) + "\n\n"
+            + AnalysisPrompts.passengerPrompt(passenger(i), rules())
+            + instructions.substring(split);
+    }
+
+    private String passenger(int i) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+            "name", NAMES[i % NAMES.length] + " " + i,
+            "birthDate", "198" + (i % 10) + "-0" + (1 + i % 9) + "-15",
+            "iataCode", "US",
+            "seatNumber", (10 + i) + "A",
+            "cabinClass", "E",
+            "calculatedAge", 40 - (i % 10)));
+    }
+
+    private String rules() {
+        return "{\"ruleBasedResults\":{\"ruleBasedAnomaly\":false}}";
+    }
+
+    /**
+     * Streams one generation and returns {time to first token in ms, prompt_eval_count}.
+     */
+    private long[] generate(String system, String prompt, int numPredict) throws Exception {
+        Map<String, Object> body = new HashMap<>(Map.of(
+            "model", MODEL,
+            "prompt", prompt,
+            "stream", true,
+            "format", "json",
+            "keep_alive", "30m",
+            "options", Map.of("temperature", 0.1, "top_p", 0.8, "num_predict", numPredict)));
+        if (system != null) {
+            body.put("system", system);
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/generate"))
+            .timeout(Duration.ofMinutes(5))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+            .build();
+
+        long start = System.nanoTime();
+        long ttftMs = -1;
+        long promptEvalCount = -1;
+        HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> it = lines.iterator();
+            while (it.hasNext()) {
+                JsonNode chunk = objectMapper.readTree(it.next());
+                if (ttftMs < 0 && !chunk.path("response").asText().isEmpty()) {
+                    ttftMs = (System.nanoTime() - start) / 1_000_000;
+                }
+                if (chunk.path("done").asBoolean(false)) {
+                    promptEvalCount = chunk.path("prompt_eval_count").asLong(-1);
+                }
+            }
+        }
+        return new long[]{ttftMs, promptEvalCount};
+    }
+
+    private boolean ollamaReachable() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(BASE_URL + "/api/tags"))
+                .timeout(Duration.ofSeconds(3)).GET().build();
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static final class Result {
+        private final List<Long> ttftMs = new ArrayList<>();
+        private final List<Long> promptEvalCounts = new ArrayList<>();
+
+        long medianTtftMs() {
+            return median(ttftMs);
+        }
+
+        long medianPromptEvalCount() {
+            return median(promptEvalCounts);
+        }
+
+        private static long median(List<Long> values) {
+            List<Long> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            return sorted.get(sorted.size() / 2);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.coforge.deeplearning_extractor.reference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+public class CountryIndexTest {
+
+    private static final String CSV = """
+        "id","code","name","continent","wikipedia_link","keywords"
+        302672,"AD","Andorra","EU","https://en.wikipedia.org/wiki/Andorra","Andorran airports"
+        302755,"IN","India","AS","https://en.wikipedia.org/wiki/India","Indian airports"
+        302791,"US","United States","NA","https://en.wikipedia.org/wiki/United_States","American airports"
+        1,"U1","Broken","NA","",""
+        """;
+
+    @Test
+    public void testLookupIsCaseInsensitiveAndSkipsHeader() throws IOException {
+        CountryIndex index = CountryIndex.fromCsv(new StringReader(CSV), 1);
+
+        assertEquals(3, index.size());
+        assertTrue(index.contains("US"));
+        assertTrue(index.contains("in"));
+        assertTrue(index.contains("aD"));
+        assertFalse(index.contains("CODE"));
+        assertFalse(index.contains("FR"));
+
+        CountryInfo india = index.lookup("in");
+        assertEquals("IN", india.getCode());
+        assertEquals("India", india.getName());
+        assertEquals("AS", india.getContinent());
+        assertNull(index.lookup("FR"));
+    }
+
+    @Test
+    public void testRejectsAnythingButTwoLetters() throws IOException {
+        CountryIndex index = CountryIndex.fromCsv(new StringReader(CSV), 1);
+
+        for (String code : new String[] {null, "", "U", "USA", " US", "U1", "U$", "@S", "[S", "\u00dcS"}) {
+            assertFalse(index.contains(code), String.valueOf(code));
+            assertNull(index.lookup(code), String.valueOf(code));
+        }
+    }
+
+    @Test
+    public void testLoadsTheBundledCountryList() throws IOException {
+        try (Reader reader = Files.newBufferedReader(Path.of("src/main/resources/countries.csv"), StandardCharsets.UTF_8)) {
+            CountryIndex index = CountryIndex.fromCsv(reader, 1);
+
+            assertEquals(249, index.size());
+            assertEquals("United Arab Emirates", index.lookup("AE").getName());
+            assertEquals("EU", index.lookup("fr").getContinent());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.coforge.deeplearning_extractor.reference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import com.coforge.deeplearning_extractor.autoencoder.IataCodeExtractor;
+
+public class ReferenceDataLoaderTest {
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    public void restoreBundledTable() throws IOException {
+        new ReferenceDataLoader(new ClassPathResource("countries.csv")).loadAtStartup();
+    }
+
+    @Test
+    public void testLoadsBundledCopyFromTheClasspath() throws IOException {
+        ReferenceDataLoader loader = new ReferenceDataLoader(new ClassPathResource("countries.csv"));
+        loader.loadAtStartup();
+
+        Map<String, Object> stats = loader.getStats();
+        assertEquals(249, stats.get("countryCodes"));
+        assertNotNull(stats.get("loadTimeMs"));
+        assertEquals(0L, stats.get("reloads"));
+        assertTrue(new IataCodeExtractor().validIataCode("us"));
+    }
+
+    @Test
+    public void testReloadPublishesToEveryExtractor() throws IOException {
+        Path countries = dir.resolve("countries.csv");
+        Files.writeString(countries, "\"id\",\"code\",\"name\",\"continent\"\n1,\"US\",\"United States\",\"NA\"\n",
+            StandardCharsets.UTF_8);
+        ReferenceDataLoader loader = new ReferenceDataLoader(new FileSystemResource(countries));
+        loader.loadAtStartup();
+
+        IataCodeExtractor extractor = new IataCodeExtractor();
+        assertTrue(extractor.validIataCode("US"));
+        assertFalse(extractor.validIataCode("FR"));
+
+        Files.writeString(countries, "\"id\",\"code\",\"name\",\"continent\"\n1,\"US\",\"United States\",\"NA\"\n"
+            + "2,\"FR\",\"France\",\"EU\"\n", StandardCharsets.UTF_8);
+        loader.reload();
+
+        assertTrue(extractor.validIataCode("FR"));
+        assertEquals("France", extractor.lookup("fr").getName());
+        assertEquals(1L, loader.getStats().get("reloads"));
+    }
+
+    @Test
+    public void testEmptyFileKeepsThePreviousTable() throws IOException {
+        Path countries = dir.resolve("countries.csv");
+        Files.writeString(countries, "\"id\",\"code\",\"name\",\"continent\"\n1,\"US\",\"United States\",\"NA\"\n",
+            StandardCharsets.UTF_8);
+        ReferenceDataLoader loader = new ReferenceDataLoader(new FileSystemResource(countries));
+        loader.loadAtStartup();
+
+        Files.writeString(countries, "\"id\",\"code\",\"name\",\"continent\"\n", StandardCharsets.UTF_8);
+        assertThrows(IOException.class, loader::reload);
+        assertTrue(new IataCodeExtractor().validIataCode("US"));
+    }
+
+    @Test
+    public void testMissingFileFailsStartup() {
+        ReferenceDataLoader loader = new ReferenceDataLoader(new FileSystemResource(dir.resolve("missing.csv")));
+        assertThrows(IOException.class, loader::loadAtStartup);
+    }
+}
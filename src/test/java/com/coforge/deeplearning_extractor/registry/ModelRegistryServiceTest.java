@@ -0,0 +1,169 @@
+package com.coforge.deeplearning_extractor.registry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.coforge.deeplearning_extractor.EmbeddedMongo;
+import com.coforge.deeplearning_extractor.autoencoder.DL4JAutoencoderModel;
+import com.coforge.deeplearning_extractor.autoencoder.FeatureExtractor;
+import com.coforge.deeplearning_extractor.autoencoder.VariationalAutoencoder;
+import com.coforge.deeplearning_extractor.ollama.AutoencoderScoringService;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+
+/**
+ * Registers, promotes and hot-swaps models against an embedded MongoDB.
+ */
+public class ModelRegistryServiceTest {
+
+    private static final String DATABASE = "registry_test";
+    private static final String MODEL_ID = "pnr";
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> mongod;
+    private static MongoClient mongoClient;
+
+    private AutoencoderScoringService scoring;
+
+    @BeforeAll
+    public static void startMongo() {
+        mongod = EmbeddedMongo.start();
+        mongoClient = MongoClients.create(EmbeddedMongo.uri(mongod));
+    }
+
+    @AfterAll
+    public static void stopMongo() {
+        mongoClient.close();
+        mongod.close();
+    }
+
+    @BeforeEach
+    public void setUp() {
+        mongoClient.getDatabase(DATABASE).drop();
+        scoring = new AutoencoderScoringService();
+    }
+
+    private ModelRegistryService newService() {
+        ModelRegistryService service = new ModelRegistryService();
+        ReflectionTestUtils.setField(service, "repository", new ModelRegistryRepository(mongoClient, DATABASE, "model_blobs"));
+        ReflectionTestUtils.setField(service, "scoring", scoring);
+        ReflectionTestUtils.setField(service, "modelId", MODEL_ID);
+        ReflectionTestUtils.setField(service, "cacheSize", 2);
+        return service;
+    }
+
+    private static byte[] archive() throws Exception {
+        return new DL4JAutoencoderModel(FeatureExtractor.FEATURE_COUNT, 4, 0.5).toArchive();
+    }
+
+    @Test
+    public void testRegisteredVersionsAreNumberedInOrder() throws Exception {
+        ModelRegistryService service = newService();
+
+        assertEquals(1, service.register(MODEL_ID, archive(), "first").get("version"));
+        assertEquals(2, service.register(MODEL_ID, archive(), "second").get("version"));
+
+        List<Map<String, Object>> versions = service.listVersions(MODEL_ID);
+        assertEquals(2, versions.size());
+        assertEquals(2, versions.get(0).get("version"));
+        assertEquals("second", versions.get(0).get("description"));
+        assertEquals(false, versions.get(0).get("active"));
+        assertFalse(scoring.isEnabled(), "Registering alone must not change what is scored");
+    }
+
+    @Test
+    public void testPromotionSwapsTheScoringModel() throws Exception {
+        ModelRegistryService service = newService();
+        service.register(MODEL_ID, archive(), null);
+        service.register(MODEL_ID, archive(), null);
+
+        service.promote(MODEL_ID, 1);
+        assertTrue(scoring.isEnabled());
+        assertEquals("registry pnr v1", scoring.getStatus().get("source"));
+
+        Map<String, Object> promoted = service.promote(MODEL_ID, 2);
+        assertEquals(2, promoted.get("version"));
+        assertEquals("registry pnr v2", scoring.getStatus().get("source"));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> active = (Map<String, Object>) service.getStatus().get("active");
+        assertEquals(2, active.get("version"));
+        assertEquals(true, service.listVersions(MODEL_ID).get(0).get("active"));
+    }
+
+    @Test
+    public void testPromotingUnknownVersionReturnsNull() throws Exception {
+        ModelRegistryService service = newService();
+        service.register(MODEL_ID, archive(), null);
+
+        assertNull(service.promote(MODEL_ID, 7));
+        assertFalse(scoring.isEnabled());
+    }
+
+    @Test
+    public void testCachedVersionsAreNotReadAgain() throws Exception {
+        ModelRegistryService service = newService();
+        service.register(MODEL_ID, archive(), null);
+        service.register(MODEL_ID, archive(), null);
+
+        service.promote(MODEL_ID, 1);
+        service.promote(MODEL_ID, 2);
+        service.promote(MODEL_ID, 1);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> cache = (Map<String, Object>) service.getStatus().get("cache");
+        assertEquals(3L, cache.get("hits"));
+        assertEquals(0L, cache.get("misses"));
+    }
+
+    @Test
+    public void testRefreshPicksUpPromotionFromAnotherInstance() throws Exception {
+        ModelRegistryService other = newService();
+        other.register(MODEL_ID, archive(), null);
+        other.register(MODEL_ID, archive(), null);
+        other.promote(MODEL_ID, 2);
+
+        // A fresh instance has nothing cached and reads the archive from GridFS
+        scoring = new AutoencoderScoringService();
+        ModelRegistryService service = newService();
+        service.refresh();
+
+        assertEquals("registry pnr v2", scoring.getStatus().get("source"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> cache = (Map<String, Object>) service.getStatus().get("cache");
+        assertEquals(1L, cache.get("misses"));
+    }
+
+    @Test
+    public void testRejectsModelWithWrongInputSize() throws Exception {
+        ModelRegistryService service = newService();
+        byte[] wrongSize = new DL4JAutoencoderModel(3, 2, 0.5).toArchive();
+
+        assertThrows(IllegalArgumentException.class, () -> service.register(MODEL_ID, wrongSize, null));
+        assertTrue(service.listVersions(MODEL_ID).isEmpty());
+    }
+
+    @Test
+    public void testRejectsVariationalAutoencoderArchive(@TempDir Path dir) throws Exception {
+        ModelRegistryService service = newService();
+        Path file = dir.resolve("vae.zip");
+        new VariationalAutoencoder(FeatureExtractor.FEATURE_COUNT, 3, 0.5).saveModel(file.toString());
+        byte[] vaeArchive = Files.readAllBytes(file);
+
+        assertThrows(IllegalArgumentException.class, () -> service.register(MODEL_ID, vaeArchive, null));
+        assertTrue(service.listVersions(MODEL_ID).isEmpty());
+    }
+}
@@ -0,0 +1,162 @@
+package com.coforge.deeplearning_extractor.rules;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.autoencoder.IataCodeExtractor;
+
+/**
+ * Rows per second through the pure rule stage: the rule engine against the
+ * regex and map based checks it replaced. Not part of the regular test run:
+ *
+ *   mvn test -Dtest=RuleEngineBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(RuleEngineBenchmark.ROWS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleEngineBenchmark {
+
+    static final int ROWS = 1024;
+
+    private static final String[] NAMES = {
+        "Anamika Sharma", "Wei Zhang", "Mary-Jane O'Neil", "Test User", "Joooohn Smith",
+        "Kenji Tanaka", "X", "Fatima Bello", "J0hn D0e", "Liam O'Brien"
+    };
+    private static final String[] DATES = {"1985-01-01", "1990-02-15", "2030-01-01", "1870-06-12", "15/03/1980", "2001-11-30"};
+    private static final String[] CODES = {"US", "IN", "fr", "DE", "XX", "JP"};
+    private static final String[] SEATS = {"12A", "3C", "40K", "7", "22D"};
+    private static final String[] CABINS = {"E", "B", "economy", "FIRST", "Z", "F"};
+
+    private DataRow[] rows;
+    private RuleEngine engine;
+    private IataCodeExtractor iataExtractor;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        iataExtractor = new IataCodeExtractor();
+        engine = new RuleEngine(iataExtractor::validIataCode);
+        today = LocalDate.now();
+
+        Random random = new Random(1);
+        rows = new DataRow[ROWS];
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = new DataRow(pick(random, NAMES), pick(random, DATES), pick(random, CODES),
+                pick(random, SEATS), pick(random, CABINS));
+        }
+    }
+
+    @Benchmark
+    public void ruleEngine(Blackhole blackhole) {
+        for (DataRow row : rows) {
+            blackhole.consume(engine.evaluate(row, today));
+        }
+    }
+
+    @Benchmark
+    public void legacyRuleChecks(Blackhole blackhole) {
+        for (DataRow row : rows) {
+            blackhole.consume(legacyRuleBasedAnalysis(row));
+        }
+    }
+
+    @Test
+    public void runBenchmarks() throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(RuleEngineBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    // The rule stage as OllamaAnomalyDetectionService used to run it
+
+    private Map<String, Object> legacyRuleBasedAnalysis(DataRow row) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        boolean dateInvalid = legacyIsInvalidDate(row.getDate());
+        boolean nameInvalid = legacyIsNameInvalid(row.getName());
+        int age = legacyCalculateAge(row.getDate());
+        boolean ageInvalid = age < 12 || age > 100;
+        boolean cabinInvalid = legacyIsCabinClassInvalid(row.getCabinClass());
+        boolean iataInvalid = !iataExtractor.validIataCode(row);
+
+        result.put("ruleBasedAnomaly", dateInvalid || nameInvalid || ageInvalid || cabinInvalid || iataInvalid);
+        result.put("dateInvalid", dateInvalid);
+        result.put("nameInvalid", nameInvalid);
+        result.put("ageInvalid", ageInvalid);
+        result.put("cabinInvalid", cabinInvalid);
+        result.put("iataInvalid", iataInvalid);
+        result.put("age", legacyCalculateAge(row.getDate()));
+        return result;
+    }
+
+    private static boolean legacyIsInvalidDate(String date) {
+        try {
+            return LocalDate.parse(date).isAfter(LocalDate.now());
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    private static int legacyCalculateAge(String date) {
+        try {
+            LocalDate birthDate = LocalDate.parse(date);
+            LocalDate now = LocalDate.now();
+            return birthDate.isAfter(now) ? -1 : Period.between(birthDate, now).getYears();
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private static boolean legacyIsNameInvalid(String name) {
+        if (name == null || name.trim().isEmpty()) return true;
+        String trimmedName = name.trim();
+        if (trimmedName.length() < 2) return true;
+        if (!trimmedName.matches("^[a-zA-Z\\s\\-'.]+$")) return true;
+        if (trimmedName.matches(".*(.)\\1{3,}.*")) return true;
+        String upperName = trimmedName.toUpperCase();
+        String[] suspiciousNames = {
+            "TEST USER", "TEST TEST", "JOHN DOE", "JANE DOE",
+            "ADMIN", "USER", "NULL", "UNDEFINED", "EXAMPLE"
+        };
+        return Arrays.asList(suspiciousNames).contains(upperName);
+    }
+
+    private static boolean legacyIsCabinClassInvalid(String cabinClass) {
+        if (cabinClass == null || cabinClass.trim().isEmpty()) return true;
+        String[] validClasses = {"A", "B", "C", "D", "E", "F", "ECONOMY", "BUSINESS", "FIRST"};
+        return !Arrays.asList(validClasses).contains(cabinClass.toUpperCase().trim());
+    }
+}
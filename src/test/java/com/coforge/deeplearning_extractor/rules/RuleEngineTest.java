@@ -0,0 +1,166 @@
+package com.coforge.deeplearning_extractor.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.coforge.deeplearning_extractor.autoencoder.DataRow;
+import com.coforge.deeplearning_extractor.dates.IsoDate;
+
+public class RuleEngineTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 7, 30);
+    private static final Set<String> KNOWN_CODES = Set.of("US", "IN", "FR");
+
+    private final RuleEngine engine = new RuleEngine(code -> KNOWN_CODES.contains(code.toUpperCase()));
+
+    @Test
+    public void testCleanRowHasNoViolations() {
+        RuleResult result = engine.evaluate(new DataRow("Anamika Sharma", "1985-01-01", "in", "12A", "economy"), TODAY);
+
+        assertFalse(result.isAnomaly());
+        assertEquals(0, result.getViolations());
+        assertEquals(40, result.getAge());
+        assertNull(result.firstViolation());
+    }
+
+    @Test
+    public void testViolationsAreReportedInPriorityOrder() {
+        RuleResult result = engine.evaluate(new DataRow("Test User", "2030-01-01", "XX", "12A", "Z"), TODAY);
+
+        assertTrue(result.isAnomaly());
+        assertEquals(Rule.DATE_INVALID, result.firstViolation());
+        assertEquals(-1, result.getAge());
+        for (Rule rule : Rule.values()) {
+            assertTrue(result.has(rule), rule.name());
+        }
+
+        RuleResult cabinOnly = engine.evaluate(new DataRow("Bob Smith", "1980-05-05", "US", "1A", "premium"), TODAY);
+        assertEquals(Rule.CABIN_INVALID.mask(), cabinOnly.getViolations());
+        assertEquals("invalid_cabin", cabinOnly.firstViolation().getAnomalyType());
+    }
+
+    @Test
+    public void testMissingFieldsAreViolationsNotErrors() {
+        RuleResult result = engine.evaluate(new DataRow(null, null, null, null, null), TODAY);
+
+        int expected = Rule.DATE_INVALID.mask() | Rule.NAME_INVALID.mask() | Rule.AGE_INVALID.mask()
+            | Rule.CABIN_INVALID.mask() | Rule.IATA_INVALID.mask();
+        assertEquals(expected, result.getViolations());
+    }
+
+    @Test
+    public void testToMapKeepsTheLegacyShape() {
+        Map<String, Object> map = engine.evaluate(new DataRow("Bob Smith", "1980-05-05", "US", "1A", "E"), TODAY).toMap();
+
+        assertEquals(java.util.List.of("ruleBasedAnomaly", "dateInvalid", "nameInvalid", "ageInvalid",
+            "cabinInvalid", "iataInvalid", "age"), java.util.List.copyOf(map.keySet()));
+        assertEquals(false, map.get("ruleBasedAnomaly"));
+        assertEquals(45, map.get("age"));
+    }
+
+    @Test
+    public void testNameChecksMatchTheRegexVersion() {
+        Random random = new Random(42);
+        String alphabet = "aAbBzZ -'.\t\n1@\u00e9";
+        for (int i = 0; i < 20_000; i++) {
+            String name = randomString(random, alphabet, 12);
+            assertEquals(legacyIsNameInvalid(name), RuleEngine.isNameInvalid(name), () -> "name: [" + name + "]");
+            assertEquals(name.matches("^.*(.)\\1{2,}.*$"), TextScanners.hasRepeatedRun(name, 3), () -> "run: [" + name + "]");
+            assertEquals(!name.isEmpty() && name.matches("^[a-zA-Z\\s\\-']+$"), TextScanners.isNameChars(name, false),
+                () -> "chars: [" + name + "]");
+        }
+        for (String fake : new String[] {"test user", "JOHN DOE", " admin ", "Null", "Baaaa", "J"}) {
+            assertTrue(RuleEngine.isNameInvalid(fake), fake);
+        }
+        assertFalse(RuleEngine.isNameInvalid("Mary-Jane O'Neil"));
+    }
+
+    @Test
+    public void testSeatAndCabinChecksMatchTheRegexVersion() {
+        Random random = new Random(7);
+        String alphabet = "09AZaz -";
+        for (int i = 0; i < 20_000; i++) {
+            String seat = randomString(random, alphabet, 4);
+            assertEquals(seat.matches(".*[^a-zA-Z0-9].*"), TextScanners.hasNonAlphanumeric(seat), seat);
+            assertEquals(seat.matches("\\d+"), TextScanners.isAllAsciiDigits(seat), seat);
+            assertEquals(seat.matches("[a-zA-Z]+"), TextScanners.isAllAsciiLetters(seat), seat);
+            assertEquals(seat.matches(".*[a-zA-Z].*"), TextScanners.containsAsciiLetter(seat), seat);
+            assertEquals(seat.matches(".*\\d.*"), TextScanners.containsAsciiDigit(seat), seat);
+            assertEquals(seat.matches("^\\d{1,2}[A-Z]$"), TextScanners.isRowAndSeatLetter(seat), seat);
+        }
+        for (String cabin : new String[] {"a", " F ", "G", "Economy", "business", "FIRST ", "FIRSTS", "", "  ", "1"}) {
+            assertEquals(legacyIsCabinValid(cabin), TextScanners.isKnownCabinClass(cabin), cabin);
+        }
+        assertFalse(TextScanners.isKnownCabinClass(null));
+    }
+
+    @Test
+    public void testDateParsingAndAgeMatchJavaTime() {
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            String date = String.format("%04d-%02d-%02d", random.nextInt(2100), random.nextInt(14), random.nextInt(33));
+            int packed = IsoDate.parse(date);
+            LocalDate parsed = legacyParse(date);
+            if (parsed == null) {
+                assertEquals(-1, packed, date);
+                continue;
+            }
+            assertEquals(parsed.getYear() * 10000 + parsed.getMonthValue() * 100 + parsed.getDayOfMonth(), packed, date);
+            if (!parsed.isAfter(TODAY)) {
+                int today = TODAY.getYear() * 10000 + TODAY.getMonthValue() * 100 + TODAY.getDayOfMonth();
+                assertEquals(Period.between(parsed, TODAY).getYears(), RuleEngine.ageOn(packed, today), date);
+            }
+        }
+        assertEquals(-1, IsoDate.parse("2024/01/01"));
+        assertEquals(-1, IsoDate.parse("2023-02-29"));
+        assertEquals(20240229, IsoDate.parse("2024-02-29"));
+        assertEquals(-1, IsoDate.parse(null));
+    }
+
+    private static String randomString(Random random, String alphabet, int maxLength) {
+        char[] chars = new char[random.nextInt(maxLength + 1)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+
+    // The checks as they were written before the rule engine, kept here as the reference
+
+    private static boolean legacyIsNameInvalid(String name) {
+        if (name == null || name.trim().isEmpty()) return true;
+        String trimmedName = name.trim();
+        if (trimmedName.length() < 2) return true;
+        if (!trimmedName.matches("^[a-zA-Z\\s\\-'.]+$")) return true;
+        if (trimmedName.matches(".*(.)\\1{3,}.*")) return true;
+        String upperName = trimmedName.toUpperCase();
+        String[] suspiciousNames = {
+            "TEST USER", "TEST TEST", "JOHN DOE", "JANE DOE",
+            "ADMIN", "USER", "NULL", "UNDEFINED", "EXAMPLE"
+        };
+        return Arrays.asList(suspiciousNames).contains(upperName);
+    }
+
+    private static boolean legacyIsCabinValid(String cabinClass) {
+        if (cabinClass == null || cabinClass.trim().isEmpty()) return false;
+        String[] validClasses = {"A", "B", "C", "D", "E", "F", "ECONOMY", "BUSINESS", "FIRST"};
+        return Arrays.asList(validClasses).contains(cabinClass.toUpperCase().trim());
+    }
+
+    private static LocalDate legacyParse(String date) {
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -2,15 +2,36 @@ import React, { useState } from "react";
 import api from "../api";
 import type { AnomalyResult } from "../types";
 
+interface DetectionSummary {
+  rows: number;
+  anomalies: number;
+  errors: number;
+  resolvedBy: Record<string, number>;
+  elapsedMs: number;
+  rowsPerSecond: number;
+}
+
 interface ApiResponse {
   anomalies?: AnomalyResult[];
+  summary?: DetectionSummary;
   message?: string;
   status?: string;
 }
 
+// One NDJSON line from /api/upload/detect/stream
+interface StreamLine {
+  type: "result" | "summary" | "error";
+  index: number;
+  result?: AnomalyResult;
+  summary?: DetectionSummary;
+  error?: { message: string };
+}
+
 function FileUpload(): React.ReactElement {
   const [file, setFile] = useState<File | null>(null);
   const [response, setResponse] = useState<ApiResponse | null>(null);
+  const [processed, setProcessed] = useState<number>(0);
+  const [uploading, setUploading] = useState<boolean>(false);
 
   const handleFileChange = (e: React.ChangeEvent<HTMLInputElement>): void => {
     const selectedFile = e.target.files?.[0] || null;
@@ -26,35 +47,55 @@ function FileUpload(): React.ReactElement {
     const formData = new FormData();
     formData.append("file", file);
 
+    setUploading(true);
+    setProcessed(0);
+    setResponse(null);
+
     try {
-      const res = await api.post<ApiResponse>(
-        "/api/upload/detect",
-        formData,
-        {
-          headers: { "Content-Type": "multipart/form-data" },
+      // Results are streamed back one line per passenger, so show them as they arrive
+      const res = await fetch(`${api.defaults.baseURL}/api/upload/detect/stream`, {
+        method: "POST",
+        body: formData,
+        headers: { Accept: "application/x-ndjson" },
+      });
+      if (!res.ok || !res.body) {
+        alert(`Upload failed: ${res.status} - ${res.statusText || "Server error"}`);
+        return;
+      }
+
+      const anomalies: AnomalyResult[] = [];
+      const reader = res.body.getReader();
+      const decoder = new TextDecoder();
+      let buffered = "";
+
+      for (;;) {
+        const { done, value } = await reader.read();
+        if (done) break;
+        buffered += decoder.decode(value, { stream: true });
+
+        const lines = buffered.split("\n");
+        buffered = lines.pop() ?? "";
+        for (const line of lines) {
+          if (!line.trim()) continue;
+          const parsed: StreamLine = JSON.parse(line);
+          if (parsed.type === "result" && parsed.result) {
+            anomalies.push(parsed.result);
+            setProcessed(anomalies.length);
+            setResponse({ anomalies: [...anomalies] });
+          } else if (parsed.type === "summary") {
+            setResponse({ anomalies: [...anomalies], summary: parsed.summary });
+          } else if (parsed.type === "error") {
+            setResponse({ anomalies: [...anomalies], message: parsed.error?.message, status: "error" });
+          }
         }
-      );
-      setResponse(res.data);
+      }
     } catch (error: any) {
       console.error("Upload error:", error);
-
-      if (error.response) {
-        console.error("Response data:", error.response.data);
-        console.error("Response status:", error.response.status);
-        alert(
-          `Upload failed: ${error.response.status} - ${
-            error.response.data?.message || "Server error"
-          }`
-        );
-      } else if (error.request) {
-        console.error("No response received:", error.request);
-        alert(
-          "Upload failed: Cannot connect to server. Please check if the backend is running on port 8080."
-        );
-      } else {
-        console.error("Request setup error:", error.message);
-        alert(`Upload failed: ${error.message}`);
-      }
+      alert(
+        "Upload failed: Cannot connect to server. Please check if the backend is running on port 8080."
+      );
+    } finally {
+      setUploading(false);
     }
   };
 
@@ -77,10 +118,13 @@ function FileUpload(): React.ReactElement {
           <button
             onClick={handleUpload}
             className="btn btn-primary"
-            disabled={!file}
+            disabled={!file || uploading}
           >
             Upload and Detect
           </button>
+          {uploading && (
+            <div className="mt-3">Processed {processed} passengers...</div>
+          )}
           {response && (
             <div className="mt-4">
               <h5>Detection Result:</h5>